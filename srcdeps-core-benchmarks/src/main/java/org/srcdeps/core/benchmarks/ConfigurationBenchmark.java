@@ -0,0 +1,123 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks;
+
+import java.io.StringReader;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.srcdeps.config.yaml.YamlConfigurationIo;
+import org.srcdeps.core.config.Configuration;
+import org.srcdeps.core.config.ConfigurationException;
+import org.srcdeps.core.config.tree.walk.OverrideVisitor;
+
+/**
+ * Benchmarks reading a {@code srcdeps.yaml} file with a growing number of repositories using
+ * {@link YamlConfigurationIo} and applying system property overrides to the result using {@link OverrideVisitor}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationBenchmark {
+
+    /**
+     * @param repositoryCount
+     *            the number of repositories to generate
+     * @return a {@code srcdeps.yaml} content with the given number of repositories
+     */
+    static String createYaml(int repositoryCount) {
+        final StringBuilder result = new StringBuilder() //
+                .append("configModelVersion: 2.3\n") //
+                .append("sourcesDirectory: /home/me/.m2/srcdeps\n") //
+                .append("repositories:\n");
+        for (int i = 0; i < repositoryCount; i++) {
+            result.append("  org.example.repo").append(i).append(":\n") //
+                    .append("    includes:\n") //
+                    .append("    - org.example.group").append(i).append('\n') //
+                    .append("    - org.example.group").append(i).append(".sub*:artifact*\n") //
+                    .append("    excludes:\n") //
+                    .append("    - org.example.group").append(i).append(":excluded\n") //
+                    .append("    urls:\n") //
+                    .append("    - git:https://github.com/example/repo").append(i).append(".git\n") //
+                    .append("    buildArguments:\n") //
+                    .append("    - -Dcheckstyle.skip\n") //
+                    .append("    skipTests: true\n");
+        }
+        return result.toString();
+    }
+
+    /** The builder to apply the overrides to, read anew before each invocation of {@link #override()} */
+    private Configuration.Builder builder;
+
+    private final YamlConfigurationIo io = new YamlConfigurationIo();
+
+    private final Properties overrides = new Properties();
+
+    @Param({ "10", "100", "500" })
+    public int repositoryCount;
+
+    private String yaml;
+
+    @Benchmark
+    public Configuration.Builder override() {
+        return builder.accept(new OverrideVisitor(overrides));
+    }
+
+    @Benchmark
+    public Configuration.Builder read() throws ConfigurationException {
+        return io.read(new StringReader(yaml));
+    }
+
+    /**
+     * {@link OverrideVisitor} mutates the builder, hence we need a fresh one for every invocation.
+     *
+     * @throws ConfigurationException
+     *             if the generated {@code srcdeps.yaml} cannot be read
+     */
+    @Setup(Level.Invocation)
+    public void readBuilder() throws ConfigurationException {
+        this.builder = io.read(new StringReader(yaml));
+    }
+
+    @Setup
+    public void setup() {
+        this.yaml = createYaml(repositoryCount);
+        overrides.setProperty("srcdeps.verbosity", "debug");
+        overrides.setProperty("srcdeps.repositories[org.example.repo0].skipTests", "false");
+        overrides.setProperty("srcdeps.repositories[org.example.repo" + (repositoryCount - 1) + "].urls[1]",
+                "git:https://github.com/example/mirror.git");
+        overrides.setProperty("srcdeps.maven.versionsMavenPluginVersion", "2.5");
+    }
+
+}
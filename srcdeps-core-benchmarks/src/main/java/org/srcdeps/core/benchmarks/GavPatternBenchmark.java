@@ -0,0 +1,76 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.srcdeps.core.GavPattern;
+
+/**
+ * Benchmarks {@link GavPattern#of(String)} and {@link GavPattern#matches(String, String, String)} for the various
+ * kinds of groupId patterns.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GavPatternBenchmark {
+
+    @Param({ "org.example.group", "org.example*", "*.group", "*", "org.(example|other).group" })
+    public String groupIdPattern;
+
+    private GavPattern pattern;
+
+    private String source;
+
+    @Benchmark
+    public boolean matches() {
+        return pattern.matches("org.example.group", "artifact", "1.2.3");
+    }
+
+    @Benchmark
+    public boolean mismatches() {
+        return pattern.matches("com.example.other", "artifact", "1.2.3");
+    }
+
+    @Benchmark
+    public GavPattern of() {
+        return GavPattern.of(source);
+    }
+
+    @Setup
+    public void setup() {
+        this.source = groupIdPattern + ":artifact*:*";
+        this.pattern = GavPattern.of(source);
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.srcdeps.core.CachingGavSet;
+import org.srcdeps.core.Gav;
+import org.srcdeps.core.GavSet;
+import org.srcdeps.core.IndexedGavSet;
+
+/**
+ * Benchmarks {@link GavSet#contains(String, String, String)} and its {@link CachingGavSet} and {@link IndexedGavSet}
+ * variants for a growing number of include and exclude patterns. Each invocation looks up a fixed mix of GAVs matching the first, the middle
+ * and the last include, an excluded GAV and a GAV not matching any include.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GavSetBenchmark {
+
+    private CachingGavSet cachingGavSet;
+
+    private GavSet gavSet;
+
+    private IndexedGavSet indexedGavSet;
+
+    private Gav[] lookups;
+
+    @Param({ "1", "10", "100", "1000" })
+    public int patternCount;
+
+    private static String groupId(int i) {
+        return "org.example.group" + i;
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for (Gav gav : lookups) {
+            blackhole.consume(gavSet.contains(gav.getGroupId(), gav.getArtifactId(), gav.getVersion()));
+        }
+    }
+
+    @Benchmark
+    public void containsCaching(Blackhole blackhole) {
+        for (Gav gav : lookups) {
+            blackhole.consume(cachingGavSet.contains(gav.getGroupId(), gav.getArtifactId(), gav.getVersion()));
+        }
+    }
+
+    @Benchmark
+    public void containsIndexed(Blackhole blackhole) {
+        for (Gav gav : lookups) {
+            blackhole.consume(indexedGavSet.contains(gav.getGroupId(), gav.getArtifactId(), gav.getVersion()));
+        }
+    }
+
+    @Setup
+    public void setup() {
+        final List<String> includes = new ArrayList<>(patternCount);
+        final List<String> excludes = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            /* a mix of literal and prefix groupIds */
+            includes.add(i % 2 == 0 ? groupId(i) : groupId(i) + "*");
+            excludes.add(groupId(i) + ":excluded-artifact" + i);
+        }
+        this.gavSet = GavSet.builder().includes(includes).excludes(excludes).build();
+        this.cachingGavSet = CachingGavSet.of(gavSet);
+        this.indexedGavSet = IndexedGavSet.of(gavSet);
+
+        final int last = patternCount - 1;
+        this.lookups = new Gav[] { //
+                new Gav(groupId(0), "artifact", "1.2.3"), //
+                new Gav(groupId(last / 2), "artifact", "1.2.3"), //
+                new Gav(groupId(last), "artifact", "1.2.3"), //
+                new Gav(groupId(last), "excluded-artifact" + last, "1.2.3"), //
+                new Gav("com.example.other", "artifact", "1.2.3") //
+        };
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.srcdeps.core.Gavtc;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.util.StringInterner;
+
+/**
+ * Benchmarks the parsing of coordinates and versions: {@link Gavtc#of(String)} with and without a
+ * {@link StringInterner}, {@link Gavtc#ofPattern(String)} and {@link SrcVersion#parse(String)}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    private final StringInterner interner = new StringInterner();
+
+    public String gavtc = "org.example.group:artifact:1.2.3-SRC-revision-0a1b2c3d:jar:sources";
+
+    public String gavtcPattern = "org.example.group:artifact:1.2.3-SRC-revision-0a1b2c3d:[pom,jar]";
+
+    public String srcVersion = "1.2.3-SRC-revision-0a1b2c3d";
+
+    @Benchmark
+    public Gavtc gavtcOf() {
+        return Gavtc.of(gavtc);
+    }
+
+    @Benchmark
+    public Gavtc gavtcOfInterned() {
+        return Gavtc.of(gavtc, interner);
+    }
+
+    @Benchmark
+    public Object gavtcOfPattern() {
+        return Gavtc.ofPattern(gavtcPattern);
+    }
+
+    @Benchmark
+    public SrcVersion srcVersionParse() {
+        return SrcVersion.parse(srcVersion);
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.srcdeps.core.fs.CannotAcquireLockException;
+import org.srcdeps.core.fs.PathLock;
+import org.srcdeps.core.fs.PathLocker;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * Benchmarks a {@link PathLocker#lockDirectory(Path, Object)} and {@link PathLock#close()} round trip performed by
+ * four threads at once. With {@code directoryCount = 1} all threads contend for the same directory, with
+ * {@code directoryCount = 4} each thread gets its own one.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PathLockerBenchmark {
+
+    /**
+     * The directory assigned to a benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadDirectory {
+        private Path directory;
+
+        @Setup
+        public void setup(PathLockerBenchmark benchmark) {
+            final int index = benchmark.threadCounter.getAndIncrement() % benchmark.directoryCount;
+            this.directory = benchmark.rootDirectory.resolve("dir-" + index);
+        }
+    }
+
+    private static final String METADATA = "benchmark";
+
+    @Param({ "1", "4" })
+    public int directoryCount;
+
+    private final PathLocker<String> pathLocker = new PathLocker<>();
+
+    private Path rootDirectory;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    @Benchmark
+    public Path lockDirectory(ThreadDirectory threadDirectory) throws IOException, CannotAcquireLockException {
+        try (PathLock lock = pathLocker.lockDirectory(threadDirectory.directory, METADATA)) {
+            return lock.getPath();
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        this.rootDirectory = Files.createTempDirectory("srcdeps-path-locker-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SrcdepsCoreUtils.deleteDirectory(rootDirectory);
+    }
+
+}
@@ -0,0 +1,413 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.BuildListener;
+import org.srcdeps.core.BuildPhase;
+import org.srcdeps.core.BuildPhaseResult;
+import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.Builder;
+import org.srcdeps.core.Scm;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.config.Maven;
+import org.srcdeps.core.config.scalar.CharStreamSource;
+import org.srcdeps.core.fs.BuildDirectoriesManager;
+import org.srcdeps.core.fs.BuildSemaphore;
+import org.srcdeps.core.fs.LockStatistics;
+import org.srcdeps.core.fs.PathLock;
+import org.srcdeps.core.fs.PathLocker;
+import org.srcdeps.core.impl.DefaultBuildService;
+import org.srcdeps.core.impl.builder.MvnBuilder;
+import org.srcdeps.core.impl.builder.MvnwBuilder;
+import org.srcdeps.core.impl.scm.JGitScm;
+import org.srcdeps.core.shell.IoRedirects;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * An end-to-end latency harness for source dependency builds. It generates a {@link GitFixture}, serves it both over
+ * {@code file://} and via a local {@link GitDaemon} and builds its tags using
+ * {@link DefaultBuildService#build(BuildRequest)}, timing each {@link BuildPhase} separately through a
+ * {@link BuildListener}.
+ * The following scenarios are supported:
+ * <ul>
+ * <li>{@code cold} - each build starts with an empty build directories root, so that the checkout is a full
+ * clone</li>
+ * <li>{@code warm} - the same tag is built repeatedly in a build directory that was used before, so that the checkout
+ * is a fetch and reset</li>
+ * <li>{@code concurrent} - {@code threads} builds of different tags are started at the same time in a shared build
+ * directories root</li>
+ * </ul>
+ * The harness is not a JMH benchmark because a single sample takes seconds. It is configured through the following
+ * system properties:
+ * <ul>
+ * <li>{@code srcdeps.bench.workDirectory} - where the fixtures, the build directories and {@code build.log} are
+ * stored; default {@code target/build-latency}</li>
+ * <li>{@code srcdeps.bench.historyDepth}, {@code srcdeps.bench.tagCount}, {@code srcdeps.bench.moduleCount} - the
+ * shape of the {@link GitFixture}; default {@code 50}, {@code 4} and {@code 3}</li>
+ * <li>{@code srcdeps.bench.iterations} - the number of samples per scenario and transport; default {@code 3}</li>
+ * <li>{@code srcdeps.bench.threads} - the number of builds running at once in the {@code concurrent} scenario;
+ * default {@code 4}</li>
+ * <li>{@code srcdeps.bench.scenarios} - a comma separated subset of {@code cold,warm,concurrent}</li>
+ * <li>{@code srcdeps.bench.transports} - a comma separated subset of {@code file,daemon}</li>
+ * <li>{@code srcdeps.bench.mavenRepoLocal} - the local Maven repository to pass to the builds; if not set, the
+ * default one of the {@code mvn} executable is used</li>
+ * </ul>
+ * Before the first sample, one untimed build is performed so that the resolution of Maven plugins does not skew the
+ * results.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class BuildLatencyHarness {
+
+    /**
+     * The durations of the {@link BuildPhase}s of a single build in nanoseconds, plus the time needed to lock the
+     * build directory which happens before {@link DefaultBuildService#build(BuildRequest)} is invoked.
+     */
+    static class Sample implements BuildListener {
+        private long directoryLockNanos;
+        private final long[] nanos = new long[BuildPhase.values().length];
+
+        void add(BuildPhase phase, long n) {
+            nanos[phase.ordinal()] += n;
+        }
+
+        public long getDirectoryLockNanos() {
+            return directoryLockNanos;
+        }
+
+        public long getNanos(BuildPhase phase) {
+            return nanos[phase.ordinal()];
+        }
+
+        public long getTotalNanos() {
+            long result = directoryLockNanos;
+            for (long n : nanos) {
+                result += n;
+            }
+            return result;
+        }
+
+        @Override
+        public void phaseFinished(BuildPhaseResult result) {
+            add(result.getPhase(), result.getDurationNanos());
+        }
+
+        @Override
+        public void phaseStarted(BuildRequest request, BuildPhase phase, int slotIndex) {
+        }
+    }
+
+    private static final String PROJECT_BUILD_HOME = "fixture";
+
+    private static final String PROPERTY_PREFIX = "srcdeps.bench.";
+
+    /** {@link BuildPhase#installedCheck} is not reported because the harness never sets skipInstalled */
+    private static final BuildPhase[] REPORTED_PHASES = { BuildPhase.checkout, BuildPhase.buildPermit,
+            BuildPhase.setVersions, BuildPhase.build };
+
+    public static void main(String[] args) throws Exception {
+        final Path workDirectory = Paths
+                .get(System.getProperty(PROPERTY_PREFIX + "workDirectory", "target/build-latency")).toAbsolutePath();
+        final int threads = Integer.getInteger(PROPERTY_PREFIX + "threads", 4);
+        final String mavenRepoLocal = System.getProperty(PROPERTY_PREFIX + "mavenRepoLocal");
+        final BuildLatencyHarness harness = new BuildLatencyHarness(workDirectory,
+                Integer.getInteger(PROPERTY_PREFIX + "iterations", 3), threads,
+                mavenRepoLocal == null ? null : Paths.get(mavenRepoLocal).toAbsolutePath());
+
+        final Path fixturesDirectory = workDirectory.resolve("fixtures");
+        final GitFixture fixture = GitFixture.create(fixturesDirectory.resolve("fixture"),
+                Integer.getInteger(PROPERTY_PREFIX + "historyDepth", 50),
+                Integer.getInteger(PROPERTY_PREFIX + "tagCount", 4),
+                Integer.getInteger(PROPERTY_PREFIX + "moduleCount", 3));
+        final PrintStream out = System.out;
+        out.println("srcdeps: " + fixture);
+
+        final List<String> scenarios = split(
+                System.getProperty(PROPERTY_PREFIX + "scenarios", "cold,warm,concurrent"));
+        final List<String> transports = split(System.getProperty(PROPERTY_PREFIX + "transports", "file,daemon"));
+        try (GitDaemon daemon = GitDaemon.start(fixturesDirectory)) {
+            harness.build(fixture.getFileUrl(), fixture.getTags().get(0), workDirectory.resolve("warmup"));
+            out.println(String.format(Locale.ROOT, "%-12s %-8s %-12s %5s %10s %10s %10s", "scenario", "transport",
+                    "phase", "n", "min ms", "median ms", "max ms"));
+            for (String transport : transports) {
+                final String url;
+                switch (transport) {
+                case "file":
+                    url = fixture.getFileUrl();
+                    break;
+                case "daemon":
+                    url = daemon.getUrl(fixture.getDirectory());
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown transport [%s]", transport));
+                }
+                for (String scenario : scenarios) {
+                    final List<Sample> samples;
+                    switch (scenario) {
+                    case "cold":
+                        samples = harness.cold(url, fixture.getTags());
+                        break;
+                    case "warm":
+                        samples = harness.warm(url, fixture.getTags());
+                        break;
+                    case "concurrent":
+                        samples = harness.concurrent(url, fixture.getTags());
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unknown scenario [%s]", scenario));
+                    }
+                    report(out, scenario, transport, samples);
+                }
+            }
+        }
+        if (scenarios.contains("concurrent")) {
+            out.println("srcdeps: concurrent " + harness.getLockStatistics());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000.0d;
+    }
+
+    private static void report(PrintStream out, String scenario, String transport, List<Sample> samples) {
+        final int n = samples.size();
+        final long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = samples.get(i).getDirectoryLockNanos();
+        }
+        report(out, scenario, transport, "directoryLock", values);
+        for (BuildPhase phase : REPORTED_PHASES) {
+            for (int i = 0; i < n; i++) {
+                values[i] = samples.get(i).getNanos(phase);
+            }
+            report(out, scenario, transport, phase.name(), values);
+        }
+        for (int i = 0; i < n; i++) {
+            values[i] = samples.get(i).getTotalNanos();
+        }
+        report(out, scenario, transport, "total", values);
+    }
+
+    private static void report(PrintStream out, String scenario, String transport, String phase, long[] values) {
+        Arrays.sort(values);
+        out.println(String.format(Locale.ROOT, "%-12s %-8s %-12s %5d %10.1f %10.1f %10.1f", scenario, transport,
+                phase, values.length, millis(values[0]), millis(values[values.length / 2]),
+                millis(values[values.length - 1])));
+    }
+
+    private static List<String> split(String list) {
+        final List<String> result = new ArrayList<>();
+        for (String item : list.split(",")) {
+            item = item.trim();
+            if (!item.isEmpty()) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private final Set<Builder> builders;
+    private final BuildSemaphore buildSemaphore;
+    private final IoRedirects ioRedirects;
+    private final int iterations;
+    private final LockStatistics lockStatistics = new LockStatistics();
+    private final Path mavenRepoLocal;
+    private final Set<Scm> scms = Collections.<Scm>singleton(new JGitScm());
+    private final int threads;
+    private final Path workDirectory;
+
+    public BuildLatencyHarness(Path workDirectory, int iterations, int threads, Path mavenRepoLocal) {
+        super();
+        this.workDirectory = workDirectory;
+        this.iterations = iterations;
+        this.threads = threads;
+        this.mavenRepoLocal = mavenRepoLocal;
+        this.buildSemaphore = new BuildSemaphore(workDirectory.resolve("permits"),
+                Integer.getInteger(BuildSemaphore.PERMITS_PROPERTY, threads));
+        this.builders = Collections.unmodifiableSet(new LinkedHashSet<>(
+                Arrays.<Builder>asList(new MvnwBuilder(buildSemaphore, scms), new MvnBuilder(buildSemaphore, scms))));
+        final Redirect log = Redirect.appendTo(new File(workDirectory.toFile(), "build.log"));
+        this.ioRedirects = IoRedirects.builder().stdout(log).stderr(log).build();
+    }
+
+    /**
+     * Locks a build directory under the given {@code buildDirectoriesRoot} and builds the given {@code tag} in it
+     * using {@link DefaultBuildService#build(BuildRequest)}.
+     *
+     * @param url
+     *            the SCM URL to check out from
+     * @param tag
+     *            the tag to build
+     * @param buildDirectoriesRoot
+     *            the root directory for a {@link BuildDirectoriesManager}
+     * @param pathLocker
+     *            the {@link PathLocker} shared by all concurrent builds
+     * @return the phase durations
+     * @throws BuildException
+     *             if the build fails
+     * @throws IOException
+     *             on I/O problems
+     */
+    Sample build(String url, String tag, Path buildDirectoriesRoot, PathLocker<SrcVersion> pathLocker)
+            throws BuildException, IOException {
+        final Sample result = new Sample();
+        final SrcVersion srcVersion = SrcVersion.parse("1.0-SRC-tag-" + tag);
+        final BuildDirectoriesManager buildDirectoriesManager = new BuildDirectoriesManager(buildDirectoriesRoot,
+                pathLocker);
+
+        final long start = System.nanoTime();
+        try (PathLock lock = buildDirectoriesManager.openBuildDirectory(Paths.get(PROJECT_BUILD_HOME), srcVersion)) {
+            result.directoryLockNanos = System.nanoTime() - start;
+
+            final Path dir = lock.getPath();
+            final BuildRequest.BuildRequestBuilder requestBuilder = BuildRequest.builder() //
+                    .scmUrl(url) //
+                    .srcVersion(srcVersion) //
+                    .projectRootDirectory(dir) //
+                    .dependentProjectRootDirectory(workDirectory) //
+                    .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                    .gradleModelTransformer(CharStreamSource.defaultModelTransformer()) //
+                    .ioRedirects(ioRedirects);
+            if (mavenRepoLocal != null) {
+                requestBuilder.buildArgument("-Dmaven.repo.local=" + mavenRepoLocal);
+            }
+            new DefaultBuildService(builders, scms, buildSemaphore, Collections.<BuildListener>singleton(result))
+                    .build(requestBuilder.build());
+            return result;
+        }
+    }
+
+    private Sample build(String url, String tag, Path buildDirectoriesRoot) throws BuildException, IOException {
+        return build(url, tag, buildDirectoriesRoot, new PathLocker<SrcVersion>());
+    }
+
+    /**
+     * @param url
+     *            the SCM URL to check out from
+     * @param tags
+     *            the tags available in the fixture
+     * @return {@link #iterations} samples, each built in an empty build directories root
+     * @throws BuildException
+     *             if a build fails
+     * @throws IOException
+     *             on I/O problems
+     */
+    List<Sample> cold(String url, List<String> tags) throws BuildException, IOException {
+        final Path root = workDirectory.resolve("cold");
+        final List<Sample> result = new ArrayList<>(iterations);
+        for (int i = 0; i < iterations; i++) {
+            SrcdepsCoreUtils.deleteDirectory(root);
+            result.add(build(url, tags.get(i % tags.size()), root));
+        }
+        return result;
+    }
+
+    /**
+     * @param url
+     *            the SCM URL to check out from
+     * @param tags
+     *            the tags available in the fixture
+     * @return {@link #iterations} times {@link #threads} samples, each round of {@link #threads} builds started at
+     *         once
+     * @throws Exception
+     *             if a build fails
+     */
+    List<Sample> concurrent(final String url, List<String> tags) throws Exception {
+        final Path root = workDirectory.resolve("concurrent");
+        SrcdepsCoreUtils.deleteDirectory(root);
+        final PathLocker<SrcVersion> pathLocker = new PathLocker<>(lockStatistics);
+        final List<Sample> result = new ArrayList<>(iterations * threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < iterations; i++) {
+                final CountDownLatch startSignal = new CountDownLatch(1);
+                final List<Future<Sample>> futures = new ArrayList<>(threads);
+                for (int t = 0; t < threads; t++) {
+                    final String tag = tags.get(t % tags.size());
+                    futures.add(executor.submit(new Callable<Sample>() {
+                        @Override
+                        public Sample call() throws Exception {
+                            startSignal.await();
+                            return build(url, tag, root, pathLocker);
+                        }
+                    }));
+                }
+                startSignal.countDown();
+                for (Future<Sample> future : futures) {
+                    result.add(future.get());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return result;
+    }
+
+    /**
+     * @return the {@link LockStatistics} collected over all {@link #concurrent(String, List)} runs
+     */
+    public LockStatistics getLockStatistics() {
+        return lockStatistics;
+    }
+
+    /**
+     * @param url
+     *            the SCM URL to check out from
+     * @param tags
+     *            the tags available in the fixture
+     * @return {@link #iterations} samples of rebuilding the same tag in a build directory that was used before
+     * @throws BuildException
+     *             if a build fails
+     * @throws IOException
+     *             on I/O problems
+     */
+    List<Sample> warm(String url, List<String> tags) throws BuildException, IOException {
+        final Path root = workDirectory.resolve("warm");
+        SrcdepsCoreUtils.deleteDirectory(root);
+        final String tag = tags.get(tags.size() - 1);
+        /* the first build makes the directory warm */
+        build(url, tag, root);
+        final List<Sample> result = new ArrayList<>(iterations);
+        for (int i = 0; i < iterations; i++) {
+            result.add(build(url, tag, root));
+        }
+        return result;
+    }
+
+}
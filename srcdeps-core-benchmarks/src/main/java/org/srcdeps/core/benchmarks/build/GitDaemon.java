@@ -0,0 +1,98 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks.build;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+
+import org.eclipse.jgit.transport.Daemon;
+import org.eclipse.jgit.transport.DaemonClient;
+import org.eclipse.jgit.transport.resolver.FileResolver;
+
+/**
+ * A local stand-in for a remote git server: a JGit {@link Daemon} serving the repositories under
+ * {@link #baseDirectory} over the {@code git://} protocol on the loopback interface. Unlike {@code file://}, this
+ * exercises the same pack negotiation and transfer code paths as a real remote, just without the network latency.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class GitDaemon implements Closeable {
+
+    /**
+     * Starts a new {@link GitDaemon} on a free port of the loopback interface.
+     *
+     * @param baseDirectory
+     *            the directory whose git repositories should be served
+     * @return a new running {@link GitDaemon}
+     * @throws IOException
+     *             if the daemon could not be started
+     */
+    public static GitDaemon start(Path baseDirectory) throws IOException {
+        final InetAddress loopback = InetAddress.getLoopbackAddress();
+        final int port;
+        /* Daemon.getAddress() does not report the actual port when bound to port 0, hence we look up a free one */
+        try (ServerSocket socket = new ServerSocket(0, 0, loopback)) {
+            port = socket.getLocalPort();
+        }
+        final InetSocketAddress address = new InetSocketAddress(loopback, port);
+        final Daemon daemon = new Daemon(address);
+        daemon.setRepositoryResolver(new FileResolver<DaemonClient>(baseDirectory.toFile(), true));
+        daemon.start();
+        return new GitDaemon(baseDirectory, daemon, address);
+    }
+
+    private final InetSocketAddress address;
+    private final Path baseDirectory;
+    private final Daemon daemon;
+
+    private GitDaemon(Path baseDirectory, Daemon daemon, InetSocketAddress address) {
+        super();
+        this.baseDirectory = baseDirectory;
+        this.daemon = daemon;
+        this.address = address;
+    }
+
+    /**
+     * Stops this {@link GitDaemon}.
+     *
+     * @throws IOException
+     *             if the accepting thread could not be woken up
+     */
+    @Override
+    public void close() throws IOException {
+        daemon.stop();
+        /* Daemon.stop() does not unblock the accepting thread; a dummy connection does */
+        new Socket(address.getAddress(), address.getPort()).close();
+    }
+
+    /**
+     * @param repository
+     *            a git repository under {@link #baseDirectory}
+     * @return a {@code git:git://} URL of the given {@code repository} suitable for
+     *         {@link org.srcdeps.core.BuildRequest#getScmUrls()}
+     */
+    public String getUrl(Path repository) {
+        final String relativePath = baseDirectory.relativize(repository).toString().replace('\\', '/');
+        return "git:git://" + address.getAddress().getHostAddress() + ":" + address.getPort() + "/" + relativePath;
+    }
+
+}
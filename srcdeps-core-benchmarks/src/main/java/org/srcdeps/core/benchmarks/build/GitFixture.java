@@ -0,0 +1,220 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.benchmarks.build;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * A synthetic Maven multi module project stored in a local git repository. The history consists of
+ * {@link #getHistoryDepth()} commits, each of which changes a single source file. {@link #getTags()} are spread
+ * evenly over the history, the last one pointing at the last commit. The authors and the timestamps of the commits are
+ * fixed so that the same parameters always produce the same commit IDs.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class GitFixture {
+
+    /** The time of the first commit in milliseconds since the epoch */
+    private static final long BASE_TIME = 1483228800000L;
+
+    /** The {@code groupId} of all modules of the fixture project */
+    public static final String GROUP_ID = "org.srcdeps.benchmarks.fixture";
+
+    private static final String PACKAGE_PREFIX = "org.srcdeps.benchmarks.fixture.m";
+
+    /** The version set in the {@code pom.xml} files of the fixture project */
+    public static final String VERSION = "1.0-SNAPSHOT";
+
+    /**
+     * Creates a new git repository in the given {@code directory} and fills it with a synthetic Maven project.
+     *
+     * @param directory
+     *            the directory to create the repository in; any existing content is deleted
+     * @param historyDepth
+     *            the number of commits to create
+     * @param tagCount
+     *            the number of tags to create; must not exceed {@code historyDepth}
+     * @param moduleCount
+     *            the number of {@code jar} modules of the project
+     * @return a new {@link GitFixture}
+     * @throws IOException
+     *             on I/O problems
+     * @throws GitAPIException
+     *             on git problems
+     */
+    public static GitFixture create(Path directory, int historyDepth, int tagCount, int moduleCount)
+            throws IOException, GitAPIException {
+        if (historyDepth < 1 || moduleCount < 1 || tagCount < 1 || tagCount > historyDepth) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected 1 <= tagCount <= historyDepth and 1 <= moduleCount; found [%d], [%d] and [%d]",
+                    tagCount, historyDepth, moduleCount));
+        }
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(directory);
+        final List<String> tags = new ArrayList<>(tagCount);
+        try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+            write(directory.resolve("pom.xml"), parentPom(moduleCount));
+            for (int m = 0; m < moduleCount; m++) {
+                write(directory.resolve(moduleName(m)).resolve("pom.xml"), modulePom(m));
+            }
+            int nextTag = 0;
+            for (int i = 0; i < historyDepth; i++) {
+                final int m = i % moduleCount;
+                write(directory.resolve(moduleName(m)).resolve(sourcePath(m)), source(m, i));
+                git.add().addFilepattern(".").call();
+                final PersonIdent ident = new PersonIdent("srcdeps", "srcdeps@example.org",
+                        new Date(BASE_TIME + i * 60000L), TimeZone.getTimeZone("UTC"));
+                final RevCommit commit = git.commit().setMessage("Commit " + i).setAuthor(ident)
+                        .setCommitter(ident).call();
+                /* tag nextTag goes to the commit at the end of the (nextTag + 1)-th of tagCount equal sections */
+                if ((long) (nextTag + 1) * historyDepth / tagCount == i + 1) {
+                    final String tag = "fixture-" + nextTag;
+                    git.tag().setName(tag).setObjectId(commit).setTagger(ident).setMessage(tag).call();
+                    tags.add(tag);
+                    nextTag++;
+                }
+            }
+        }
+        return new GitFixture(directory, historyDepth, moduleCount, Collections.unmodifiableList(tags));
+    }
+
+    private static String moduleName(int m) {
+        return "module-" + m;
+    }
+
+    private static String modulePom(int m) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" //
+                + "  <modelVersion>4.0.0</modelVersion>\n" //
+                + "  <parent>\n" //
+                + "    <groupId>" + GROUP_ID + "</groupId>\n" //
+                + "    <artifactId>fixture-parent</artifactId>\n" //
+                + "    <version>" + VERSION + "</version>\n" //
+                + "  </parent>\n" //
+                + "  <artifactId>" + moduleName(m) + "</artifactId>\n" //
+                + "</project>\n";
+    }
+
+    private static String parentPom(int moduleCount) {
+        final StringBuilder modules = new StringBuilder();
+        for (int m = 0; m < moduleCount; m++) {
+            modules.append("    <module>").append(moduleName(m)).append("</module>\n");
+        }
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" //
+                + "  <modelVersion>4.0.0</modelVersion>\n" //
+                + "  <groupId>" + GROUP_ID + "</groupId>\n" //
+                + "  <artifactId>fixture-parent</artifactId>\n" //
+                + "  <version>" + VERSION + "</version>\n" //
+                + "  <packaging>pom</packaging>\n" //
+                + "  <properties>\n" //
+                + "    <maven.compiler.source>1.8</maven.compiler.source>\n" //
+                + "    <maven.compiler.target>1.8</maven.compiler.target>\n" //
+                + "    <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n" //
+                + "  </properties>\n" //
+                + "  <modules>\n" //
+                + modules //
+                + "  </modules>\n" //
+                + "</project>\n";
+    }
+
+    private static String source(int m, int revision) {
+        return "package " + PACKAGE_PREFIX + m + ";\n" //
+                + "\n" //
+                + "public class Module" + m + " {\n" //
+                + "    public static final int REVISION = " + revision + ";\n" //
+                + "}\n";
+    }
+
+    private static String sourcePath(int m) {
+        return "src/main/java/" + PACKAGE_PREFIX.replace('.', '/') + m + "/Module" + m + ".java";
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private final Path directory;
+    private final int historyDepth;
+    private final int moduleCount;
+    private final List<String> tags;
+
+    private GitFixture(Path directory, int historyDepth, int moduleCount, List<String> tags) {
+        super();
+        this.directory = directory;
+        this.historyDepth = historyDepth;
+        this.moduleCount = moduleCount;
+        this.tags = tags;
+    }
+
+    /**
+     * @return the directory containing the git repository
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return a {@code git:file://} URL of the present repository suitable for
+     *         {@link org.srcdeps.core.BuildRequest#getScmUrls()}
+     */
+    public String getFileUrl() {
+        return "git:file://" + directory.toAbsolutePath().toString().replace('\\', '/');
+    }
+
+    /**
+     * @return the number of commits
+     */
+    public int getHistoryDepth() {
+        return historyDepth;
+    }
+
+    /**
+     * @return the number of {@code jar} modules
+     */
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    /**
+     * @return the names of the tags in the order of their creation
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public String toString() {
+        return "GitFixture [directory=" + directory + ", historyDepth=" + historyDepth + ", moduleCount=" + moduleCount
+                + ", tags=" + tags + "]";
+    }
+
+}
@@ -25,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.srcdeps.core.BuildRequest.SetVersionsMode;
 import org.srcdeps.core.BuildRequest.Verbosity;
 import org.srcdeps.core.config.BuilderIo;
 import org.srcdeps.core.config.Configuration;
@@ -56,7 +57,7 @@ public class YamlConfigurationIoTest {
         try (Reader in = new InputStreamReader(getClass().getResourceAsStream("/srcdeps-full.yaml"), "utf-8")) {
             Configuration actual = new YamlConfigurationIo().read(in).build();
             Configuration expected = Configuration.builder() //
-                    .configModelVersion("2.2") //
+                    .configModelVersion("2.3") //
                     .forwardProperty("myProp1") //
                     .forwardProperty("myProp2") //
                     .builderIo(BuilderIo.builder().stdin("read:/path/to/input/file")
@@ -103,13 +104,23 @@ public class YamlConfigurationIoTest {
                                     .addDefaultBuildArguments(false) //
                                     .skipTests(false) //
                                     .buildTimeout(new Duration(64, TimeUnit.SECONDS)) //
+                                    .buildIncludesOnly(true) //
+                                    .incremental(true) //
+                                    .parallel(true) //
+                                    .preferOffline(true) //
+                                    .skipInstalled(true) //
                                     .maven( //
                                             ScmRepositoryMaven.builder() //
                                                     .versionsMavenPluginVersion("2.2") //
+                                                    .setVersionsMode(SetVersionsMode.rewrite) //
+                                                    .isolatedInstall(true) //
                             ) //
                                     .gradle( //
                                             ScmRepositoryGradle.builder() //
                                                     .modelTransformer(CharStreamSource.of("file:my/file")) //
+                                                    .daemon(true) //
+                                                    .buildCache(true) //
+                                                    .configurationCache(true) //
                             ) //
                     ) //
                     .repository( //
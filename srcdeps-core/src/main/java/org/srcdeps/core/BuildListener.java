@@ -0,0 +1,53 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+/**
+ * A callback notified about the {@link BuildPhase}s of source dependency builds, e.g. to export their durations to a
+ * monitoring system. The {@link BuildListener}s available in the DI container are injected into
+ * {@link org.srcdeps.core.impl.DefaultBuildService} the same way as {@link Builder}s and {@link Scm}s.
+ * <p>
+ * The methods are called synchronously from the building thread and several builds may run concurrently, hence the
+ * implementations must be thread safe and should return quickly. Any {@link RuntimeException} thrown by a
+ * {@link BuildListener} is logged and ignored.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public interface BuildListener {
+
+    /**
+     * Called when the given {@link BuildPhase} has finished, successfully or not.
+     *
+     * @param result
+     *            the outcome of the phase
+     */
+    void phaseFinished(BuildPhaseResult result);
+
+    /**
+     * Called when the given {@code phase} is about to start.
+     *
+     * @param request
+     *            the request being built
+     * @param phase
+     *            the starting phase
+     * @param slotIndex
+     *            the index of the build directory of the given {@code request}; see
+     *            {@link org.srcdeps.core.fs.BuildDirectoriesManager#getSlotIndex(java.nio.file.Path)}
+     */
+    void phaseStarted(BuildRequest request, BuildPhase phase, int slotIndex);
+
+}
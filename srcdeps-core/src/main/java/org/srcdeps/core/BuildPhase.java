@@ -0,0 +1,51 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+/**
+ * The phases of a source dependency build as performed by {@link BuildService#build(BuildRequest)} and reported to
+ * {@link BuildListener}s. The constants are declared in the order in which the phases are executed.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public enum BuildPhase {
+    /**
+     * Checking whether the artifacts of the requested version are installed already, so that the build can be
+     * skipped; see {@link BuildRequest#isSkipInstalled()}. {@link BuildPhaseResult#isCacheHit()} tells the outcome.
+     * This phase is reported only if {@link BuildRequest#isSkipInstalled()} is {@code true} and the requested version
+     * is immutable.
+     */
+    installedCheck,
+
+    /** Cloning or fetching the sources using a {@link Scm} */
+    checkout,
+
+    /**
+     * Waiting for a permit of {@link org.srcdeps.core.fs.BuildSemaphore} that limits the number of builds running
+     * concurrently on the present machine. This is not the wait for the build directory lock: callers lock the build
+     * directory via {@link org.srcdeps.core.fs.BuildDirectoriesManager} before {@link BuildService#build(BuildRequest)}
+     * is invoked. That wait is reported through {@link org.srcdeps.core.fs.LockMetrics#lockAcquired(java.nio.file.Path,
+     * long)}.
+     */
+    buildPermit,
+
+    /** {@link Builder#setVersions(BuildRequest)} */
+    setVersions,
+
+    /** {@link Builder#build(BuildRequest)} */
+    build
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+/**
+ * The outcome of a {@link BuildPhase} reported to {@link BuildListener#phaseFinished(BuildPhaseResult)}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class BuildPhaseResult {
+
+    /** The value of {@link #getBytesFetched()} if the number is not known */
+    public static final long UNKNOWN_BYTES = -1L;
+
+    private final long bytesFetched;
+    private final boolean cacheHit;
+    private final long durationNanos;
+    private final Throwable failure;
+    private final BuildPhase phase;
+    private final BuildRequest request;
+    private final int slotIndex;
+
+    public BuildPhaseResult(BuildRequest request, BuildPhase phase, int slotIndex, long durationNanos,
+            Throwable failure, boolean cacheHit, long bytesFetched) {
+        super();
+        this.request = request;
+        this.phase = phase;
+        this.slotIndex = slotIndex;
+        this.durationNanos = durationNanos;
+        this.failure = failure;
+        this.cacheHit = cacheHit;
+        this.bytesFetched = bytesFetched;
+    }
+
+    /**
+     * @return the number of bytes transferred from the remote repository during a {@link BuildPhase#checkout} or
+     *         {@link #UNKNOWN_BYTES} if not known or not applicable
+     */
+    public long getBytesFetched() {
+        return bytesFetched;
+    }
+
+    /**
+     * @return the wall clock duration of the phase in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the exception that made the phase fail or {@code null} if the phase succeeded
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the phase that finished
+     */
+    public BuildPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the request being built
+     */
+    public BuildRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the index of the build directory of {@link #getRequest()}; see
+     *         {@link org.srcdeps.core.fs.BuildDirectoriesManager#getSlotIndex(java.nio.file.Path)}
+     */
+    public int getSlotIndex() {
+        return slotIndex;
+    }
+
+    /**
+     * @return {@code true} if the phase is {@link BuildPhase#installedCheck} and the artifacts were found installed
+     *         already, so that the rest of the build was skipped; {@code false} otherwise
+     */
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
+    /**
+     * @return {@code true} if the phase succeeded; {@code false} otherwise
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildPhaseResult [phase=" + phase + ", srcVersion=" + request.getSrcVersion() + ", slotIndex="
+                + slotIndex + ", durationNanos=" + durationNanos + ", failure=" + failure + ", cacheHit=" + cacheHit
+                + ", bytesFetched=" + bytesFetched + "]";
+    }
+
+}
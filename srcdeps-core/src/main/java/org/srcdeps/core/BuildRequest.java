@@ -53,13 +53,23 @@ public class BuildRequest {
         private boolean addDefaultBuildEnvironment = true;
         private List<String> buildArguments = new ArrayList<>();
         private Map<String, String> buildEnvironment = new LinkedHashMap<>();
+        private boolean buildIncludesOnly;
         private Path dependentProjectRootDirectory;
         private Set<String> forwardProperties = new LinkedHashSet<>();
         private GavSet gavSet = GavSet.includeAll();
+        private boolean gradleBuildCache = false;
+        private boolean gradleConfigurationCache = false;
+        private boolean gradleDaemon = false;
         private CharStreamSource gradleModelTransformer;
+        private boolean incremental;
         private IoRedirects ioRedirects = IoRedirects.inheritAll();
+        private boolean mavenIsolatedInstall;
+        private boolean parallel;
+        private boolean preferOffline;
         private Path projectRootDirectory;
         private List<String> scmUrls = new ArrayList<>();
+        private SetVersionsMode setVersionsMode = SetVersionsMode.versionsMavenPlugin;
+        private boolean skipInstalled;
         private boolean skipTests = true;
         private SrcVersion srcVersion;
         private long timeoutMs = DEFAULT_TIMEOUT_MS;
@@ -94,7 +104,9 @@ public class BuildRequest {
                     Collections.unmodifiableList(scmUrls), Collections.unmodifiableList(buildArguments), skipTests,
                     addDefaultBuildArguments, Collections.unmodifiableSet(forwardProperties),
                     Collections.unmodifiableMap(buildEnvironment), addDefaultBuildEnvironment, verbosity, ioRedirects,
-                    timeoutMs, versionsMavenPluginVersion, gradleModelTransformer);
+                    timeoutMs, versionsMavenPluginVersion, gradleModelTransformer, gradleDaemon, setVersionsMode,
+                    buildIncludesOnly, parallel, preferOffline, incremental, gradleBuildCache,
+                    gradleConfigurationCache, skipInstalled, mavenIsolatedInstall);
         }
 
         /**
@@ -155,6 +167,16 @@ public class BuildRequest {
             return this;
         }
 
+        /**
+         * @param buildIncludesOnly
+         *            see {@link BuildRequest#isBuildIncludesOnly()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder buildIncludesOnly(boolean buildIncludesOnly) {
+            this.buildIncludesOnly = buildIncludesOnly;
+            return this;
+        }
+
         /**
          * @param dependentProjectRootDirectory
          *            see {@link BuildRequest#getDependentProjectRootDirectory()}
@@ -198,6 +220,36 @@ public class BuildRequest {
             return this;
         }
 
+        /**
+         * @param gradleBuildCache
+         *            see {@link BuildRequest#isGradleBuildCache()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder gradleBuildCache(boolean gradleBuildCache) {
+            this.gradleBuildCache = gradleBuildCache;
+            return this;
+        }
+
+        /**
+         * @param gradleConfigurationCache
+         *            see {@link BuildRequest#isGradleConfigurationCache()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder gradleConfigurationCache(boolean gradleConfigurationCache) {
+            this.gradleConfigurationCache = gradleConfigurationCache;
+            return this;
+        }
+
+        /**
+         * @param gradleDaemon
+         *            see {@link BuildRequest#isGradleDaemon()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder gradleDaemon(boolean gradleDaemon) {
+            this.gradleDaemon = gradleDaemon;
+            return this;
+        }
+
         /**
          * @param gradleModelTransformer
          *            see {@link BuildRequest#getGradleModelTransformer()}
@@ -208,6 +260,16 @@ public class BuildRequest {
             return this;
         }
 
+        /**
+         * @param incremental
+         *            see {@link BuildRequest#isIncremental()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder incremental(boolean incremental) {
+            this.incremental = incremental;
+            return this;
+        }
+
         /**
          * @param ioRedirects
          *            see {@link BuildRequest#getIoRedirects()}
@@ -218,6 +280,36 @@ public class BuildRequest {
             return this;
         }
 
+        /**
+         * @param mavenIsolatedInstall
+         *            see {@link BuildRequest#isMavenIsolatedInstall()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder mavenIsolatedInstall(boolean mavenIsolatedInstall) {
+            this.mavenIsolatedInstall = mavenIsolatedInstall;
+            return this;
+        }
+
+        /**
+         * @param parallel
+         *            see {@link BuildRequest#isParallel()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * @param preferOffline
+         *            see {@link BuildRequest#isPreferOffline()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder preferOffline(boolean preferOffline) {
+            this.preferOffline = preferOffline;
+            return this;
+        }
+
         /**
          * @param projectRootDirectory
          *            see {@link BuildRequest#getProjectRootDirectory()}
@@ -248,6 +340,26 @@ public class BuildRequest {
             return this;
         }
 
+        /**
+         * @param setVersionsMode
+         *            see {@link BuildRequest#getSetVersionsMode()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder setVersionsMode(SetVersionsMode setVersionsMode) {
+            this.setVersionsMode = setVersionsMode;
+            return this;
+        }
+
+        /**
+         * @param skipInstalled
+         *            see {@link BuildRequest#isSkipInstalled()}
+         * @return this {@link BuildRequestBuilder}
+         */
+        public BuildRequestBuilder skipInstalled(boolean skipInstalled) {
+            this.skipInstalled = skipInstalled;
+            return this;
+        }
+
         /**
          * @param skipTests
          *            see {@link BuildRequest#isSkipTests()}
@@ -299,6 +411,46 @@ public class BuildRequest {
         }
     };
 
+    /**
+     * The ways how a Maven {@link Builder} can set the versions in the source tree of a dependency before building it.
+     */
+    public enum SetVersionsMode {
+        /**
+         * Do not touch the source tree at all. Instead, pass the new version to the build via the
+         * <a href="https://maven.apache.org/maven-ci-friendly.html">CI friendly</a> {@code revision}, {@code sha1}
+         * and {@code changelist} properties, so that the versions are set and the project is built within a single
+         * Maven invocation. This works only for projects whose versions consist solely of those properties. If that
+         * is not the case, fall back to {@link #rewrite}.
+         */
+        ciFriendly,
+        /**
+         * Rewrite the {@code <version>} elements of the modules selected by {@link BuildRequest#getGavSet()} directly
+         * in the {@code pom.xml} files without spawning a new process. If that is not possible (e.g. because the
+         * project uses a non-XML POM or because a version cannot be determined statically), fall back to
+         * {@link #versionsMavenPlugin}.
+         */
+        rewrite,
+        /**
+         * Run {@code versions-maven-plugin:set} in a separate Maven process.
+         */
+        versionsMavenPlugin;
+
+        public static SetVersionsMode fastValueOf(String mode) {
+            SrcdepsCoreUtils.assertArgNotNull(mode, "SetVersionsMode name");
+            switch (mode) {
+            case "ciFriendly":
+                return ciFriendly;
+            case "rewrite":
+                return rewrite;
+            case "versionsMavenPlugin":
+                return versionsMavenPlugin;
+            default:
+                throw new IllegalStateException(
+                        "No such " + SetVersionsMode.class.getName() + " with name [" + mode + "]");
+            }
+        }
+    }
+
     /**
      * The verbosity level the appropriate {@link Builder} should use when executing a {@link BuildRequest}. The
      * interpretation of the individual levels is up to the given {@link Builder} implementation. Some {@link Builder}s
@@ -348,25 +500,38 @@ public class BuildRequest {
     private final boolean addDefaultBuildEnvironment;
     private final List<String> buildArguments;
     private final Map<String, String> buildEnvironment;
+    private final boolean buildIncludesOnly;
     private final Path dependentProjectRootDirectory;
     private final Set<String> forwardProperties;
     private final GavSet gavSet;
+    private final boolean gradleBuildCache;
+    private final boolean gradleConfigurationCache;
+    private final boolean gradleDaemon;
     private final CharStreamSource gradleModelTransformer;
+    private final boolean incremental;
     private final IoRedirects ioRedirects;
+    private final boolean mavenIsolatedInstall;
+    private final boolean parallel;
+    private final boolean preferOffline;
     private final Path projectRootDirectory;
-
     private final List<String> scmUrls;
+    private final SetVersionsMode setVersionsMode;
+    private final boolean skipInstalled;
     private final boolean skipTests;
     private final SrcVersion srcVersion;
     private final long timeoutMs;
     private final Verbosity verbosity;
+    private final List<String> versionArguments;
     private final String versionsMavenPluginVersion;
 
     private BuildRequest(Path dependentProjectRootDirectory, Path projectRootDirectory, SrcVersion srcVersion,
             GavSet gavSet, List<String> scmUrls, List<String> buildArguments, boolean skipTests,
             boolean addDefaultBuildArguments, Set<String> forwardProperties, Map<String, String> buildEnvironment,
             boolean addDefaultBuildEnvironment, Verbosity verbosity, IoRedirects ioRedirects, long timeoutMs,
-            String versionsMavenPluginVersion, CharStreamSource gradleModelTransformer) {
+            String versionsMavenPluginVersion, CharStreamSource gradleModelTransformer, boolean gradleDaemon,
+            SetVersionsMode setVersionsMode, boolean buildIncludesOnly, boolean parallel, boolean preferOffline,
+            boolean incremental, boolean gradleBuildCache, boolean gradleConfigurationCache, boolean skipInstalled,
+            boolean mavenIsolatedInstall) {
         super();
 
         SrcdepsCoreUtils.assertArgNotNull(dependentProjectRootDirectory, "dependentProjectRootDirectory");
@@ -380,6 +545,7 @@ public class BuildRequest {
         SrcdepsCoreUtils.assertArgNotNull(ioRedirects, "ioRedirects");
         SrcdepsCoreUtils.assertArgNotNull(versionsMavenPluginVersion, "versionsMavenPluginVersion");
         SrcdepsCoreUtils.assertArgNotNull(gradleModelTransformer, "gradleModelTransformer");
+        SrcdepsCoreUtils.assertArgNotNull(setVersionsMode, "setVersionsMode");
 
         this.dependentProjectRootDirectory = dependentProjectRootDirectory;
         this.projectRootDirectory = projectRootDirectory;
@@ -397,6 +563,74 @@ public class BuildRequest {
         this.ioRedirects = ioRedirects;
         this.versionsMavenPluginVersion = versionsMavenPluginVersion;
         this.gradleModelTransformer = gradleModelTransformer;
+        this.gradleDaemon = gradleDaemon;
+        this.setVersionsMode = setVersionsMode;
+        this.buildIncludesOnly = buildIncludesOnly;
+        this.parallel = parallel;
+        this.preferOffline = preferOffline;
+        this.incremental = incremental;
+        this.gradleBuildCache = gradleBuildCache;
+        this.gradleConfigurationCache = gradleConfigurationCache;
+        this.skipInstalled = skipInstalled;
+        this.mavenIsolatedInstall = mavenIsolatedInstall;
+        this.versionArguments = Collections.emptyList();
+    }
+
+    /**
+     * A copy constructor used by {@link #afterSetVersions(long, List)}.
+     *
+     * @param template
+     *            the request to copy
+     * @param timeoutMs
+     *            see {@link #getTimeoutMs()}
+     * @param versionArguments
+     *            see {@link #getVersionArguments()}
+     */
+    private BuildRequest(BuildRequest template, long timeoutMs, List<String> versionArguments) {
+        super();
+        SrcdepsCoreUtils.assertArgNotNull(versionArguments, "versionArguments");
+        this.dependentProjectRootDirectory = template.dependentProjectRootDirectory;
+        this.projectRootDirectory = template.projectRootDirectory;
+        this.srcVersion = template.srcVersion;
+        this.gavSet = template.gavSet;
+        this.scmUrls = template.scmUrls;
+        this.buildArguments = template.buildArguments;
+        this.skipTests = template.skipTests;
+        this.buildEnvironment = template.buildEnvironment;
+        this.addDefaultBuildEnvironment = template.addDefaultBuildEnvironment;
+        this.verbosity = template.verbosity;
+        this.timeoutMs = timeoutMs;
+        this.addDefaultBuildArguments = template.addDefaultBuildArguments;
+        this.forwardProperties = template.forwardProperties;
+        this.ioRedirects = template.ioRedirects;
+        this.versionsMavenPluginVersion = template.versionsMavenPluginVersion;
+        this.gradleModelTransformer = template.gradleModelTransformer;
+        this.gradleDaemon = template.gradleDaemon;
+        this.setVersionsMode = template.setVersionsMode;
+        this.buildIncludesOnly = template.buildIncludesOnly;
+        this.parallel = template.parallel;
+        this.preferOffline = template.preferOffline;
+        this.incremental = template.incremental;
+        this.gradleBuildCache = template.gradleBuildCache;
+        this.gradleConfigurationCache = template.gradleConfigurationCache;
+        this.skipInstalled = template.skipInstalled;
+        this.mavenIsolatedInstall = template.mavenIsolatedInstall;
+        this.versionArguments = Collections.unmodifiableList(new ArrayList<>(versionArguments));
+    }
+
+    /**
+     * Used by {@link Builder#setVersions(BuildRequest)} implementations to pass the outcome of setting the versions
+     * to {@link Builder#build(BuildRequest)} without keeping any per build state in the {@link Builder}, which is
+     * typically a singleton shared by concurrent builds.
+     *
+     * @param restTimeoutMs
+     *            the time in milliseconds left for {@link Builder#build(BuildRequest)}
+     * @param versionArguments
+     *            the arguments setting the versions at build time, see {@link #getVersionArguments()}
+     * @return a copy of this {@link BuildRequest} with the given {@code restTimeoutMs} and {@code versionArguments}
+     */
+    public BuildRequest afterSetVersions(long restTimeoutMs, List<String> versionArguments) {
+        return new BuildRequest(this, restTimeoutMs, versionArguments);
     }
 
     /**
@@ -482,6 +716,13 @@ public class BuildRequest {
         return scmUrls;
     }
 
+    /**
+     * @return the way how a Maven {@link Builder} should set the versions before the build
+     */
+    public SetVersionsMode getSetVersionsMode() {
+        return setVersionsMode;
+    }
+
     /**
      * @return the {@link SrcVersion} to checkout and build
      */
@@ -491,7 +732,8 @@ public class BuildRequest {
 
     /**
      * @return the timeout in milliseconds for the {@link Builder#setVersions(BuildRequest)} and
-     *         {@link Builder#build(BuildRequest)} operations.
+     *         {@link Builder#build(BuildRequest)} operations. In a request returned by
+     *         {@link Builder#setVersions(BuildRequest)}, the time left for {@link Builder#build(BuildRequest)}.
      */
     public long getTimeoutMs() {
         return timeoutMs;
@@ -504,6 +746,17 @@ public class BuildRequest {
         return verbosity;
     }
 
+    /**
+     * @return the arguments set by {@link Builder#setVersions(BuildRequest)} via
+     *         {@link #afterSetVersions(long, List)} that {@link Builder#build(BuildRequest)} should pass to the build
+     *         tool to set the versions at build time, such as CI friendly version properties. Never {@code null}.
+     *         Unlike {@link #getBuildArguments()}, these depend on the version being built and are thus not a part of
+     *         any inputs fingerprint.
+     */
+    public List<String> getVersionArguments() {
+        return versionArguments;
+    }
+
     /**
      * @return the version of {@code versions-maven-plugin} to use when setting versions in an inner Maven build.
      */
@@ -527,6 +780,81 @@ public class BuildRequest {
         return addDefaultBuildEnvironment;
     }
 
+    /**
+     * @return {@code true} if only the modules of the source tree matching {@link #getGavSet()} and the modules they
+     *         depend on should be built; {@code false} if the whole source tree should be built
+     */
+    public boolean isBuildIncludesOnly() {
+        return buildIncludesOnly;
+    }
+
+    /**
+     * @return {@code true} if Gradle's local build cache should be enabled; the cache directory is shared by all build
+     *         directories of the given source repository so that task outputs can be reused across builds of nearby
+     *         commits
+     */
+    public boolean isGradleBuildCache() {
+        return gradleBuildCache;
+    }
+
+    /**
+     * @return {@code true} if Gradle's configuration cache should be enabled; requires Gradle 6.6 or newer
+     */
+    public boolean isGradleConfigurationCache() {
+        return gradleConfigurationCache;
+    }
+
+    /**
+     * @return {@code true} if {@code --daemon} should be passed to Gradle, so that Gradle may reuse a compatible idle
+     *         daemon; {@code false} if {@code --no-daemon} should be passed to Gradle
+     */
+    public boolean isGradleDaemon() {
+        return gradleDaemon;
+    }
+
+    /**
+     * @return {@code true} if {@code clean} should be omitted when the previous build in the same
+     *         {@link #getProjectRootDirectory()} was of an ancestor commit and with the same inputs; {@code false}
+     *         otherwise
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @return {@code true} if Maven should install into a private overlay repository whose content gets published
+     *         to the local Maven repository only after the build has succeeded; {@code false} if Maven should install
+     *         into the local Maven repository directly
+     */
+    public boolean isMavenIsolatedInstall() {
+        return mavenIsolatedInstall;
+    }
+
+    /**
+     * @return {@code true} if the build tool should build the modules of the dependency in parallel; {@code false}
+     *         otherwise
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @return {@code true} if the build tool should be run in offline mode provided that a previous build in the same
+     *         {@link #getProjectRootDirectory()} succeeded; {@code false} otherwise
+     */
+    public boolean isPreferOffline() {
+        return preferOffline;
+    }
+
+    /**
+     * @return {@code true} if the build should be skipped if the {@link #getSrcVersion()} is a {@code tag} or
+     *         {@code revision} and the artifacts of a previous build with the same inputs are still installed in the
+     *         local Maven repository; {@code false} otherwise
+     */
+    public boolean isSkipInstalled() {
+        return skipInstalled;
+    }
+
     /**
      * @return {@code true} if no tests should be run when building the dependency. For dependencies built with Maven,
      *         this accounts to adding {@code -DskipTests} to the {@code mvn} arguments.
@@ -543,7 +871,17 @@ public class BuildRequest {
                 + ", projectRootDirectory=" + projectRootDirectory + ", scmUrls=" + scmUrls + ", skipTests=" + skipTests
                 + ", srcVersion=" + srcVersion + ", timeoutMs=" + timeoutMs + ", verbosity=" + verbosity
                 + ", versionsMavenPluginVersion=" + versionsMavenPluginVersion + ", gradleModelTransformer="
-                + gradleModelTransformer + "]";
+                + gradleModelTransformer + ", gradleDaemon=" + gradleDaemon + ", setVersionsMode=" + setVersionsMode
+                + ", buildIncludesOnly=" + buildIncludesOnly
+                + ", parallel=" + parallel
+                + ", preferOffline=" + preferOffline
+                + ", incremental=" + incremental
+                + ", gradleBuildCache=" + gradleBuildCache
+                + ", gradleConfigurationCache=" + gradleConfigurationCache
+                + ", skipInstalled=" + skipInstalled
+                + ", mavenIsolatedInstall=" + mavenIsolatedInstall
+                + ", versionArguments=" + versionArguments
+                + "]";
     }
 
 }
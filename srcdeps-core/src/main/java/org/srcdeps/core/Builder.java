@@ -28,7 +28,7 @@ public interface Builder {
      * Build the project as required in the given {@code request}.
      *
      * @param request
-     *            the request to build
+     *            the request returned by {@link #setVersions(BuildRequest)}
      * @throws BuildException
      *             on any build related problem
      */
@@ -52,9 +52,11 @@ public interface Builder {
      *
      * @param request
      *            the request to build
+     * @return the request to pass to {@link #build(BuildRequest)}: either the given {@code request} or a copy created
+     *         via {@link BuildRequest#afterSetVersions(long, java.util.List)}
      * @throws BuildException
      *             on any build related problem
      */
-    void setVersions(BuildRequest request) throws BuildException;
+    BuildRequest setVersions(BuildRequest request) throws BuildException;
 
 }
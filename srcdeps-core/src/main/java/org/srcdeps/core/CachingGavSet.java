@@ -0,0 +1,165 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link GavSet} memoizing the results of {@link #contains(String, String, String)} in a bounded thread safe cache.
+ * The cache is split into {@link #SEGMENT_COUNT} independently locked segments, each of which evicts its least
+ * recently used entries once it is full. The {@link #getHitCount() hits} and {@link #getMissCount() misses} are
+ * counted so that it is possible to find out whether caching pays off for a given workload.
+ * <p>
+ * Note that a {@link CachingGavSet} is never {@link #equals(Object) equal} to a plain {@link GavSet} having the same
+ * includes and excludes.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class CachingGavSet extends GavSet {
+
+    /**
+     * A segment of the cache: a {@link LinkedHashMap} in access order evicting its eldest entry when it exceeds
+     * {@link #maxSize}. The accesses must be synchronized on the segment.
+     */
+    @SuppressWarnings("serial")
+    static class Segment extends LinkedHashMap<Gav, Boolean> {
+        private final int maxSize;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Gav, Boolean> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /** The default value of {@link #getMaxSize()} */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    /** The number of independently locked segments of the cache; must be a power of two */
+    static final int SEGMENT_COUNT = 16;
+
+    /**
+     * @param gavSet
+     *            the {@link GavSet} whose includes and excludes should be used
+     * @return a new {@link CachingGavSet} with {@link #DEFAULT_MAX_SIZE}
+     */
+    public static CachingGavSet of(GavSet gavSet) {
+        return of(gavSet, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param gavSet
+     *            the {@link GavSet} whose includes and excludes should be used
+     * @param maxSize
+     *            the maximal number of results to cache
+     * @return a new {@link CachingGavSet}
+     */
+    public static CachingGavSet of(GavSet gavSet, int maxSize) {
+        return new CachingGavSet(gavSet, maxSize);
+    }
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final int maxSize;
+    private final AtomicLong missCount = new AtomicLong();
+    private final Segment[] segments;
+
+    CachingGavSet(GavSet gavSet, int maxSize) {
+        super(gavSet.getIncludes(), gavSet.getExcludes());
+        if (maxSize < SEGMENT_COUNT) {
+            throw new IllegalArgumentException(
+                    String.format("maxSize must be at least %d; found [%d]", SEGMENT_COUNT, maxSize));
+        }
+        this.maxSize = maxSize;
+        this.segments = new Segment[SEGMENT_COUNT];
+        final int segmentMaxSize = maxSize / SEGMENT_COUNT;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentMaxSize);
+        }
+    }
+
+    /**
+     * Looks up the result in the cache first and delegates to {@link GavSet#contains(String, String, String)} on a
+     * miss.
+     */
+    @Override
+    public boolean contains(String groupId, String artifactId, String version) {
+        final Gav gav = new Gav(groupId, artifactId, version);
+        final int hash = gav.hashCode();
+        final Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+        final Boolean cached;
+        synchronized (segment) {
+            cached = segment.get(gav);
+        }
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return cached.booleanValue();
+        }
+        missCount.incrementAndGet();
+        final boolean result = super.contains(groupId, artifactId, version);
+        synchronized (segment) {
+            segment.put(gav, Boolean.valueOf(result));
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of {@link #contains(String, String, String)} calls answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the maximal number of results to cache
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of {@link #contains(String, String, String)} calls that had to be evaluated
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of results currently cached
+     */
+    public int getSize() {
+        int result = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                result += segment.size();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CachingGavSet [excludes=" + getExcludes() + ", includes=" + getIncludes() + ", maxSize=" + maxSize
+                + ", hitCount=" + hitCount + ", missCount=" + missCount + "]";
+    }
+
+}
@@ -16,7 +16,7 @@
  */
 package org.srcdeps.core;
 
-import java.util.StringTokenizer;
+import org.srcdeps.core.util.StringInterner;
 
 /**
  * An immutable {@link #groupId}, {@link #artifactId}, {@link #version} triple with a fast {@link #hashCode()} and
@@ -33,23 +33,71 @@ public class Gav {
      * @return a new {@link Gav} instance parsed out of the given {@code gavString}
      */
     public static Gav of(String gavString) {
-        StringTokenizer st = new StringTokenizer(gavString, ":");
-        if (!st.hasMoreTokens()) {
-            throw new IllegalStateException(String.format("Cannot parse [%s] to a "+ Gav.class.getName(), gavString));
-        } else {
-            final String g = st.nextToken();
-            if (!st.hasMoreTokens()) {
-                throw new IllegalStateException(String.format("Cannot parse [%s] to a "+ Gav.class.getName(), gavString));
-            } else {
-                final String a = st.nextToken();
-                if (!st.hasMoreTokens()) {
-                    throw new IllegalStateException(String.format("Cannot parse [%s] to a "+ Gav.class.getName(), gavString));
-                } else {
-                    final String v = st.nextToken();
-                    return new Gav(g, a, v);
-                }
+        return of(gavString, null);
+    }
+
+    /**
+     * Returns a new {@link Gav} instance parsed out of the given {@code gavString}. If {@code interner} is not
+     * {@code null}, the {@link #groupId} and {@link #artifactId} of the resulting {@link Gav} are taken from it so that
+     * {@link Gav}s parsed with the same {@code interner} share their {@link String} instances and their
+     * {@link #equals(Object)} mostly boils down to identity checks.
+     *
+     * @param gavString the string to parse, something of the form {@code groupId:artifactId:version}
+     * @param interner the {@link StringInterner} to use for {@link #groupId} and {@link #artifactId} or {@code null}
+     * @return a new {@link Gav} instance parsed out of the given {@code gavString}
+     */
+    public static Gav of(String gavString, StringInterner interner) {
+        final int[] bounds = new int[6];
+        if (tokenize(gavString, bounds) < 3) {
+            throw new IllegalStateException(String.format("Cannot parse [%s] to a " + Gav.class.getName(), gavString));
+        }
+        return new Gav(token(gavString, bounds, 0, interner), token(gavString, bounds, 1, interner),
+                token(gavString, bounds, 2, null));
+    }
+
+    /**
+     * @param source the string to take the token from
+     * @param bounds the token offsets as set by {@link #tokenize(String, int[])}
+     * @param index the index of the token to return
+     * @param interner the {@link StringInterner} to intern the token with or {@code null}
+     * @return the {@code index}th token of {@code source}
+     */
+    static String token(String source, int[] bounds, int index, StringInterner interner) {
+        final String result = source.substring(bounds[2 * index], bounds[2 * index + 1]);
+        return interner == null ? result : interner.intern(result);
+    }
+
+    /**
+     * Finds the {@code ':'} delimited tokens of the given {@code source} exactly like
+     * {@code new StringTokenizer(source, ":")} would, i.e. empty tokens are skipped, but without allocating any
+     * intermediate objects.
+     *
+     * @param source the string to tokenize
+     * @param bounds the array to store the start (inclusive) and end (exclusive) offsets of the tokens to; the start of
+     *        the {@code n}th token is stored at {@code 2 * n} and its end at {@code 2 * n + 1}
+     * @return the number of tokens found, at most {@code bounds.length / 2}; any tokens beyond that are ignored
+     */
+    static int tokenize(String source, int[] bounds) {
+        final int len = source.length();
+        int count = 0;
+        int i = 0;
+        while (2 * count < bounds.length) {
+            while (i < len && source.charAt(i) == ':') {
+                i++;
+            }
+            if (i == len) {
+                break;
+            }
+            int end = source.indexOf(':', i);
+            if (end < 0) {
+                end = len;
             }
+            bounds[2 * count] = i;
+            bounds[2 * count + 1] = end;
+            count++;
+            i = end;
         }
+        return count;
     }
 
     private final String artifactId;
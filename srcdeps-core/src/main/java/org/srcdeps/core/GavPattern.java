@@ -36,9 +36,9 @@ public class GavPattern {
 
     public static class Builder {
 
-        private Pattern artifactIdPattern = MATCH_ALL_PATTERN;
-        private Pattern groupIdPattern = MATCH_ALL_PATTERN;
-        private Pattern versionPattern = MATCH_ALL_PATTERN;
+        private SegmentMatcher artifactIdMatcher = MATCH_ALL_SEGMENT;
+        private SegmentMatcher groupIdMatcher = MATCH_ALL_SEGMENT;
+        private SegmentMatcher versionMatcher = MATCH_ALL_SEGMENT;
 
         private Builder() {
         }
@@ -51,12 +51,12 @@ public class GavPattern {
          * @return this {@link Builder}
          */
         public Builder artifactIdPattern(String wildcardPattern) {
-            this.artifactIdPattern = toPattern(wildcardPattern);
+            this.artifactIdMatcher = compile(wildcardPattern);
             return this;
         }
 
         public GavPattern build() {
-            return new GavPattern(groupIdPattern, artifactIdPattern, versionPattern);
+            return new GavPattern(groupIdMatcher, artifactIdMatcher, versionMatcher);
         }
 
         /**
@@ -67,7 +67,7 @@ public class GavPattern {
          * @return this {@link Builder}
          */
         public Builder groupIdPattern(String wildcardPattern) {
-            this.groupIdPattern = toPattern(wildcardPattern);
+            this.groupIdMatcher = compile(wildcardPattern);
             return this;
         }
 
@@ -79,28 +79,172 @@ public class GavPattern {
          * @return this {@link Builder}
          */
         public Builder versionPattern(String wildcardPattern) {
-            this.versionPattern = toPattern(wildcardPattern);
+            this.versionMatcher = compile(wildcardPattern);
             return this;
         }
 
     }
 
+    /**
+     * A {@link SegmentMatcher} for wildcard patterns consisting of a single literal and no {@code *}.
+     */
+    static class ExactSegmentMatcher extends SegmentMatcher {
+        private final boolean anyChar;
+        private final String literal;
+
+        ExactSegmentMatcher(String wildcard) {
+            super(wildcard);
+            this.literal = wildcard;
+            this.anyChar = literal.indexOf(ANY_CHAR_STRING) >= 0;
+        }
+
+        /**
+         * @return the literal {@link String} to match, possibly containing {@value GavPattern#ANY_CHAR}
+         */
+        String getLiteral() {
+            return literal;
+        }
+
+        @Override
+        public boolean matches(String value) {
+            return value.length() == literal.length() && regionMatches(value, 0, literal, anyChar);
+        }
+    }
+
+    /**
+     * A {@link SegmentMatcher} for the {@code *} wildcard pattern.
+     */
+    static class MatchAllSegmentMatcher extends SegmentMatcher {
+        MatchAllSegmentMatcher() {
+            super(MULTI_WILDCARD);
+        }
+
+        @Override
+        public boolean matches(String value) {
+            return true;
+        }
+    }
+
+    /**
+     * A {@link SegmentMatcher} for wildcard patterns of the form {@code literal*}.
+     */
+    static class PrefixSegmentMatcher extends SegmentMatcher {
+        private final boolean anyChar;
+        private final String literal;
+
+        PrefixSegmentMatcher(String wildcard, String literal) {
+            super(wildcard);
+            this.literal = literal;
+            this.anyChar = literal.indexOf(ANY_CHAR_STRING) >= 0;
+        }
+
+        /**
+         * @return the literal {@link String} to match, possibly containing {@value GavPattern#ANY_CHAR}
+         */
+        String getLiteral() {
+            return literal;
+        }
+
+        @Override
+        public boolean matches(String value) {
+            return value.length() >= literal.length() && regionMatches(value, 0, literal, anyChar);
+        }
+    }
+
+    /**
+     * A {@link SegmentMatcher} for wildcard patterns that cannot be handled by any of the literal based
+     * {@link SegmentMatcher}s.
+     */
+    static class RegexSegmentMatcher extends SegmentMatcher {
+        private final Pattern pattern;
+
+        RegexSegmentMatcher(String wildcard) {
+            super(wildcard);
+            this.pattern = toPattern(wildcard);
+        }
+
+        @Override
+        public boolean matches(String value) {
+            return pattern.matcher(value).matches();
+        }
+    }
+
+    /**
+     * A compiled matcher of a single {@code groupId}, {@code artifactId} or {@code version} wildcard pattern. The
+     * literal parts of the wildcard pattern have always been interpreted as regular expressions, so a {@code .} in them
+     * matches any character, which the literal based implementations honor too.
+     */
+    abstract static class SegmentMatcher {
+        private final String wildcard;
+
+        SegmentMatcher(String wildcard) {
+            super();
+            this.wildcard = wildcard;
+        }
+
+        /**
+         * @param value
+         *            the {@code groupId}, {@code artifactId} or {@code version} to match
+         * @return {@code true} if the given {@code value} matches this {@link SegmentMatcher}, {@code false}
+         *         otherwise
+         */
+        public abstract boolean matches(String value);
+
+        /**
+         * @return the wildcard pattern this {@link SegmentMatcher} was compiled from
+         */
+        @Override
+        public String toString() {
+            return wildcard;
+        }
+    }
+
+    /**
+     * A {@link SegmentMatcher} for wildcard patterns of the form {@code *literal}.
+     */
+    static class SuffixSegmentMatcher extends SegmentMatcher {
+        private final boolean anyChar;
+        private final String literal;
+
+        SuffixSegmentMatcher(String wildcard, String literal) {
+            super(wildcard);
+            this.literal = literal;
+            this.anyChar = literal.indexOf(ANY_CHAR_STRING) >= 0;
+        }
+
+        @Override
+        public boolean matches(String value) {
+            final int offset = value.length() - literal.length();
+            return offset >= 0 && regionMatches(value, offset, literal, anyChar);
+        }
+    }
+
+    /** The regular expression wildcard the literal parts of our wildcard patterns may contain */
+    static final char ANY_CHAR = '.';
+    private static final String ANY_CHAR_STRING = ".";
     private static final char DELIMITER = ':';
     private static final String DELIMITER_STRING;
     private static final GavPattern MATCH_ALL;
-    private static final Pattern MATCH_ALL_PATTERN;
     private static final String MATCH_ALL_PATTERN_SOURCE = ".*";
+    private static final SegmentMatcher MATCH_ALL_SEGMENT;
 
     private static final GavPattern MATCH_SNAPSHOTS;
     private static final String MULTI_WILDCARD = "*";
+
+    /**
+     * The characters having a special meaning in regular expressions other than {@value #ANY_CHAR} and
+     * {@value #MULTI_WILDCARD}. Wildcard patterns containing any of these are matched using a {@link Pattern}. The
+     * dollar sign is appended separately as it would start an interpolation in the Groovy copy of this file.
+     */
+    private static final String REGEX_SPECIAL_CHARS = "\\^|?+()[]{}" + '$';
     private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
 
     static {
-        MATCH_ALL_PATTERN = Pattern.compile(MATCH_ALL_PATTERN_SOURCE);
+        MATCH_ALL_SEGMENT = new MatchAllSegmentMatcher();
         DELIMITER_STRING = String.valueOf(DELIMITER);
-        MATCH_ALL = new GavPattern(MATCH_ALL_PATTERN, MATCH_ALL_PATTERN, MATCH_ALL_PATTERN);
-        MATCH_SNAPSHOTS = new GavPattern(MATCH_ALL_PATTERN, MATCH_ALL_PATTERN,
-                toPattern(MULTI_WILDCARD + SNAPSHOT_SUFFIX));
+        MATCH_ALL = new GavPattern(MATCH_ALL_SEGMENT, MATCH_ALL_SEGMENT, MATCH_ALL_SEGMENT);
+        MATCH_SNAPSHOTS = new GavPattern(MATCH_ALL_SEGMENT, MATCH_ALL_SEGMENT,
+                compile(MULTI_WILDCARD + SNAPSHOT_SUFFIX));
     }
 
     /**
@@ -110,6 +254,39 @@ public class GavPattern {
         return new Builder();
     }
 
+    /**
+     * Compiles the given {@code wildcardPattern} to the cheapest {@link SegmentMatcher} able to evaluate it: the plain
+     * {@code *} as well as literals, {@code literal*} and {@code *literal} are matched by comparing characters, any
+     * other wildcard pattern falls back to a {@link Pattern}.
+     *
+     * @param wildcardPattern
+     *            a pattern that can contain string literals and asterisk {@code *} wildcards
+     * @return a new {@link SegmentMatcher}
+     */
+    static SegmentMatcher compile(String wildcardPattern) {
+        if (MULTI_WILDCARD.equals(wildcardPattern)) {
+            return MATCH_ALL_SEGMENT;
+        }
+        for (int i = 0; i < wildcardPattern.length(); i++) {
+            if (REGEX_SPECIAL_CHARS.contains(String.valueOf(wildcardPattern.charAt(i)))) {
+                return new RegexSegmentMatcher(wildcardPattern);
+            }
+        }
+        final int first = wildcardPattern.indexOf(MULTI_WILDCARD);
+        if (first < 0) {
+            return new ExactSegmentMatcher(wildcardPattern);
+        }
+        final int last = wildcardPattern.lastIndexOf(MULTI_WILDCARD);
+        if (first == last) {
+            if (last == wildcardPattern.length() - 1) {
+                return new PrefixSegmentMatcher(wildcardPattern, wildcardPattern.substring(0, last));
+            } else if (first == 0) {
+                return new SuffixSegmentMatcher(wildcardPattern, wildcardPattern.substring(1));
+            }
+        }
+        return new RegexSegmentMatcher(wildcardPattern);
+    }
+
     /**
      * @return a singleton that matches all possible GAVs
      */
@@ -149,26 +326,50 @@ public class GavPattern {
      * @return a new {@link GavPattern}
      */
     public static GavPattern of(String wildcardPattern) {
-        final Pattern groupIdPattern;
+        final SegmentMatcher groupIdMatcher;
         StringTokenizer st = new StringTokenizer(wildcardPattern, DELIMITER_STRING);
         if (st.hasMoreTokens()) {
-            groupIdPattern = toPattern(st.nextToken());
+            groupIdMatcher = compile(st.nextToken());
         } else {
-            groupIdPattern = MATCH_ALL_PATTERN;
+            groupIdMatcher = MATCH_ALL_SEGMENT;
         }
-        final Pattern artifactIdPattern;
+        final SegmentMatcher artifactIdMatcher;
         if (st.hasMoreTokens()) {
-            artifactIdPattern = toPattern(st.nextToken());
+            artifactIdMatcher = compile(st.nextToken());
         } else {
-            artifactIdPattern = MATCH_ALL_PATTERN;
+            artifactIdMatcher = MATCH_ALL_SEGMENT;
         }
-        final Pattern versionPattern;
+        final SegmentMatcher versionMatcher;
         if (st.hasMoreTokens()) {
-            versionPattern = toPattern(st.nextToken());
+            versionMatcher = compile(st.nextToken());
         } else {
-            versionPattern = MATCH_ALL_PATTERN;
+            versionMatcher = MATCH_ALL_SEGMENT;
+        }
+        return new GavPattern(groupIdMatcher, artifactIdMatcher, versionMatcher);
+    }
+
+    /**
+     * @param value
+     *            the string to match
+     * @param offset
+     *            the index in {@code value} where the {@code literal} should start
+     * @param literal
+     *            the literal to compare with {@code value}
+     * @param anyChar
+     *            {@code true} if {@code literal} contains {@value #ANY_CHAR} that should match any character
+     * @return {@code true} if the region of {@code value} starting at {@code offset} matches {@code literal}
+     */
+    private static boolean regionMatches(String value, int offset, String literal, boolean anyChar) {
+        if (!anyChar) {
+            return value.regionMatches(offset, literal, 0, literal.length());
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            final char expected = literal.charAt(i);
+            if (expected != ANY_CHAR && expected != value.charAt(offset + i)) {
+                return false;
+            }
         }
-        return new GavPattern(groupIdPattern, artifactIdPattern, versionPattern);
+        return true;
     }
 
     /**
@@ -181,39 +382,31 @@ public class GavPattern {
         return Pattern.compile(wildcardPattern.replace(MULTI_WILDCARD, MATCH_ALL_PATTERN_SOURCE));
     }
 
-    /**
-     * Transforms the given {@code pattern} to its wildcard representation.
-     *
-     * @param pattern
-     *            the {@link Pattern} to transform
-     * @return a wildcard representation of the given {@code pattern}
-     */
-    private static String toWildcard(Pattern pattern) {
-        return pattern.pattern().replace(MATCH_ALL_PATTERN_SOURCE, MULTI_WILDCARD);
-    }
-
-    private final Pattern artifactIdPattern;
-    private final Pattern groupIdPattern;
+    private final SegmentMatcher artifactIdMatcher;
+    private final SegmentMatcher groupIdMatcher;
     private final String source;
-    private final Pattern versionPattern;
+    private final SegmentMatcher versionMatcher;
 
-    GavPattern(Pattern groupIdPattern, Pattern artifactIdPattern, Pattern versionPattern) {
+    GavPattern(SegmentMatcher groupIdMatcher, SegmentMatcher artifactIdMatcher, SegmentMatcher versionMatcher) {
         super();
-        this.groupIdPattern = groupIdPattern;
-        this.artifactIdPattern = artifactIdPattern;
-        this.versionPattern = versionPattern;
+        this.groupIdMatcher = groupIdMatcher;
+        this.artifactIdMatcher = artifactIdMatcher;
+        this.versionMatcher = versionMatcher;
 
-        StringBuilder source = new StringBuilder(groupIdPattern.pattern().length()
-                + artifactIdPattern.pattern().length() + versionPattern.pattern().length() + 2);
+        final String groupIdWildcard = groupIdMatcher.toString();
+        final String artifactIdWildcard = artifactIdMatcher.toString();
+        final String versionWildcard = versionMatcher.toString();
+        StringBuilder source = new StringBuilder(
+                groupIdWildcard.length() + artifactIdWildcard.length() + versionWildcard.length() + 2);
 
-        source.append(toWildcard(groupIdPattern));
-        final boolean artifactMatchesAll = MATCH_ALL_PATTERN_SOURCE.equals(artifactIdPattern.pattern());
-        final boolean versionMatchesAll = MATCH_ALL_PATTERN_SOURCE.equals(versionPattern.pattern());
+        source.append(groupIdWildcard);
+        final boolean artifactMatchesAll = MULTI_WILDCARD.equals(artifactIdWildcard);
+        final boolean versionMatchesAll = MULTI_WILDCARD.equals(versionWildcard);
         if (!versionMatchesAll) {
-            source.append(DELIMITER).append(toWildcard(artifactIdPattern));
-            source.append(DELIMITER).append(toWildcard(versionPattern));
+            source.append(DELIMITER).append(artifactIdWildcard);
+            source.append(DELIMITER).append(versionWildcard);
         } else if (!artifactMatchesAll) {
-            source.append(DELIMITER).append(toWildcard(artifactIdPattern));
+            source.append(DELIMITER).append(artifactIdWildcard);
         }
         this.source = source.toString();
     }
@@ -230,6 +423,13 @@ public class GavPattern {
         return this.source.equals(other.source);
     }
 
+    /**
+     * @return the {@link SegmentMatcher} for {@code groupId}
+     */
+    SegmentMatcher getGroupIdMatcher() {
+        return groupIdMatcher;
+    }
+
     @Override
     public int hashCode() {
         return this.source.hashCode();
@@ -245,9 +445,9 @@ public class GavPattern {
      *         {@code version} triple and {@code false otherwise}
      */
     public boolean matches(String groupId, String artifactId, String version) {
-        return groupIdPattern.matcher(groupId).matches() && //
-                artifactIdPattern.matcher(artifactId).matches() && //
-                versionPattern.matcher(version).matches();
+        return groupIdMatcher.matches(groupId) && //
+                artifactIdMatcher.matches(artifactId) && //
+                versionMatcher.matches(version);
     }
 
     @Override
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An ordered {@link List} of {@link GavSet}s with associated values that finds the value associated with the first
+ * {@link GavSet} containing a given GAV without evaluating all of the {@link GavSet}s one after another.
+ * <p>
+ * The include patterns of all {@link GavSet}s are stored in a single {@link IndexedGavSet.PatternIndex}. A lookup
+ * collects the include patterns matching the given GAV, which yields the candidate {@link GavSet}s, and only those are
+ * then checked in their original order using {@link GavSet#contains(String, String, String)}. The results of the
+ * lookups are memoized.
+ *
+ * @param <T>
+ *            the type of the values associated with the {@link GavSet}s
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class GavSetIndex<T> {
+    /** The maximal number of lookup results to keep; the memo is cleared once it is reached */
+    static final int MEMO_LIMIT = 4096;
+
+    /** The memoized result of a lookup that did not find any {@link GavSet} */
+    private static final int NOT_FOUND = -1;
+
+    private final List<GavSet> gavSets;
+    private final IndexedGavSet.PatternIndex includesIndex;
+
+    /** The results of the lookups performed so far; the values are indices to {@link #gavSets} or {@link #NOT_FOUND} */
+    private final Map<Gav, Integer> memo = new ConcurrentHashMap<>();
+
+    /** The indices to {@link #gavSets} of the {@link GavSet}s including the given pattern */
+    private final Map<GavPattern, BitSet> patternOwners;
+
+    private final List<T> values;
+
+    /**
+     * @param gavSets
+     *            the {@link GavSet}s in the order in which they should be searched
+     * @param values
+     *            the values associated with the {@link GavSet}s on the same positions in {@code gavSets}
+     */
+    public GavSetIndex(List<GavSet> gavSets, List<T> values) {
+        super();
+        if (gavSets.size() != values.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "gavSets and values must have the same size; found [%d] and [%d]", gavSets.size(), values.size()));
+        }
+        this.gavSets = Collections.unmodifiableList(new ArrayList<>(gavSets));
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+
+        final Map<GavPattern, BitSet> owners = new LinkedHashMap<>();
+        for (int i = 0; i < gavSets.size(); i++) {
+            for (GavPattern include : gavSets.get(i).getIncludes()) {
+                BitSet bits = owners.get(include);
+                if (bits == null) {
+                    bits = new BitSet();
+                    owners.put(include, bits);
+                }
+                bits.set(i);
+            }
+        }
+        this.patternOwners = owners;
+        this.includesIndex = new IndexedGavSet.PatternIndex(new ArrayList<>(owners.keySet()));
+    }
+
+    /**
+     * @param groupId
+     * @param artifactId
+     * @param version
+     * @return the value associated with the first {@link GavSet} containing the given GAV triple or {@code null} if
+     *         there is no such {@link GavSet}
+     */
+    public T find(String groupId, String artifactId, String version) {
+        final Gav gav = new Gav(groupId, artifactId, version);
+        Integer index = memo.get(gav);
+        if (index == null) {
+            index = Integer.valueOf(lookup(groupId, artifactId, version));
+            if (memo.size() >= MEMO_LIMIT) {
+                memo.clear();
+            }
+            memo.put(gav, index);
+        }
+        return index.intValue() == NOT_FOUND ? null : values.get(index.intValue());
+    }
+
+    /**
+     * @return the {@link GavSet}s in the order in which they are searched
+     */
+    public List<GavSet> getGavSets() {
+        return gavSets;
+    }
+
+    /**
+     * @return the number of memoized lookup results
+     */
+    int getMemoSize() {
+        return memo.size();
+    }
+
+    /**
+     * @return the values associated with {@link #getGavSets()}
+     */
+    public List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * @param groupId
+     * @param artifactId
+     * @param version
+     * @return the index of the first {@link GavSet} containing the given GAV triple or {@code -1}
+     */
+    int lookup(String groupId, String artifactId, String version) {
+        final List<GavPattern> matchingIncludes = new ArrayList<>();
+        includesIndex.collectMatching(groupId, artifactId, version, matchingIncludes);
+        if (matchingIncludes.isEmpty()) {
+            return NOT_FOUND;
+        }
+        final BitSet candidates = new BitSet(gavSets.size());
+        for (GavPattern include : matchingIncludes) {
+            candidates.or(patternOwners.get(include));
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (gavSets.get(i).contains(groupId, artifactId, version)) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
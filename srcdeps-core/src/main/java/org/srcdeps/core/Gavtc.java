@@ -19,7 +19,8 @@ package org.srcdeps.core;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.StringTokenizer;
+
+import org.srcdeps.core.util.StringInterner;
 
 /**
  * An immutable {@link #groupId}, {@link #artifactId}, {@link #version}, {@code type}, {@code classifier} tuple. Note
@@ -37,33 +38,30 @@ public class Gavtc extends Gav {
      * @return a new {@link Gavtc} instance parsed out of the given {@code gavtcString}
      */
     public static Gavtc of(String gavtcString) {
-        StringTokenizer st = new StringTokenizer(gavtcString, ":");
-        if (!st.hasMoreTokens()) {
+        return of(gavtcString, null);
+    }
+
+    /**
+     * Returns a new {@link Gavtc} instance parsed out of the given {@code gavtcString}, taking the {@code groupId} and
+     * {@code artifactId} from the given {@code interner} if it is not {@code null}; see
+     * {@link Gav#of(String, StringInterner)}.
+     *
+     * @param gavtcString
+     *            the string to parse, something of the form {@code groupId:artifactId:version:type:classifier}
+     * @param interner
+     *            the {@link StringInterner} to use for {@code groupId} and {@code artifactId} or {@code null}
+     * @return a new {@link Gavtc} instance parsed out of the given {@code gavtcString}
+     */
+    public static Gavtc of(String gavtcString, StringInterner interner) {
+        final int[] bounds = new int[10];
+        final int count = tokenize(gavtcString, bounds);
+        if (count < 4) {
             throw new IllegalStateException(
-                    String.format("Cannot parse [%s] to a " + Gav.class.getName(), gavtcString));
-        } else {
-            final String g = st.nextToken();
-            if (!st.hasMoreTokens()) {
-                throw new IllegalStateException(
-                        String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcString));
-            } else {
-                final String a = st.nextToken();
-                if (!st.hasMoreTokens()) {
-                    throw new IllegalStateException(
-                            String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcString));
-                } else {
-                    final String v = st.nextToken();
-                    if (!st.hasMoreTokens()) {
-                        throw new IllegalStateException(
-                                String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcString));
-                    } else {
-                        final String t = st.nextToken();
-                        final String c = st.hasMoreTokens() ? st.nextToken() : null;
-                        return new Gavtc(g, a, v, t, c);
-                    }
-                }
-            }
+                    String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcString));
         }
+        return new Gavtc(token(gavtcString, bounds, 0, interner), token(gavtcString, bounds, 1, interner),
+                token(gavtcString, bounds, 2, null), token(gavtcString, bounds, 3, null),
+                count == 5 ? token(gavtcString, bounds, 4, null) : null);
     }
 
     /**
@@ -77,39 +75,32 @@ public class Gavtc extends Gav {
      * @return an unmodifiable {@link List} of {@link Gavtc}s
      */
     public static List<Gavtc> ofPattern(String gavtcPattern) {
-        StringTokenizer st = new StringTokenizer(gavtcPattern, ":");
-        if (!st.hasMoreTokens()) {
+        final int[] bounds = new int[10];
+        final int count = tokenize(gavtcPattern, bounds);
+        if (count < 4) {
             throw new IllegalStateException(
-                    String.format("Cannot parse [%s] to a " + Gav.class.getName(), gavtcPattern));
-        } else {
-            final String g = st.nextToken();
-            if (!st.hasMoreTokens()) {
-                throw new IllegalStateException(
-                        String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcPattern));
-            } else {
-                final String a = st.nextToken();
-                if (!st.hasMoreTokens()) {
-                    throw new IllegalStateException(
-                            String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcPattern));
-                } else {
-                    final String v = st.nextToken();
-                    if (!st.hasMoreTokens()) {
-                        throw new IllegalStateException(
-                                String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcPattern));
-                    } else {
-                        final String t = st.nextToken();
-                        final String c = st.hasMoreTokens() ? st.nextToken() : null;
-                        List<Gavtc> result = new ArrayList<>();
-                        StringTokenizer typeTokenizer = new StringTokenizer(t, "[,]");
-                        while (typeTokenizer.hasMoreTokens()) {
-                            String type = typeTokenizer.nextToken();
-                            result.add(new Gavtc(g, a, v, type, c));
-                        }
-                        return Collections.unmodifiableList(result);
-                    }
+                    String.format("Cannot parse [%s] to a " + Gavtc.class.getName(), gavtcPattern));
+        }
+        final String g = token(gavtcPattern, bounds, 0, null);
+        final String a = token(gavtcPattern, bounds, 1, null);
+        final String v = token(gavtcPattern, bounds, 2, null);
+        final String c = count == 5 ? token(gavtcPattern, bounds, 4, null) : null;
+        final List<Gavtc> result = new ArrayList<>();
+        /* split the type at '[', ',' and ']' skipping the empty tokens */
+        final int typeEnd = bounds[7];
+        int start = -1;
+        for (int i = bounds[6]; i <= typeEnd; i++) {
+            final char ch = i == typeEnd ? ',' : gavtcPattern.charAt(i);
+            if (ch == '[' || ch == ',' || ch == ']') {
+                if (start >= 0) {
+                    result.add(new Gavtc(g, a, v, gavtcPattern.substring(start, i), c));
+                    start = -1;
                 }
+            } else if (start < 0) {
+                start = i;
             }
         }
+        return Collections.unmodifiableList(result);
     }
 
     private final String classifier;
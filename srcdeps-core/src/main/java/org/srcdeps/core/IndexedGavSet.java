@@ -0,0 +1,276 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link GavSet} looking up its include and exclude {@link GavPattern}s through a {@link PatternIndex} keyed by
+ * the literal groupId prefixes of the patterns, so that {@link #contains(String, String, String)} takes time roughly
+ * proportional to the length of the groupId rather than to the number of patterns. Lists not longer than
+ * {@link #INDEX_THRESHOLD} are iterated over as in a plain {@link GavSet}.
+ * <p>
+ * The index lives in this subclass rather than in {@link GavSet} itself because {@code GavSet.java} is appended as
+ * Groovy to the {@code settings.gradle} of Gradle source dependencies, where the index is not needed.
+ * <p>
+ * Note that an {@link IndexedGavSet} is never {@link #equals(Object) equal} to a plain {@link GavSet} having the same
+ * includes and excludes.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class IndexedGavSet extends GavSet {
+
+    /**
+     * An index of a {@link List} of {@link GavPattern}s that finds out whether any of them matches a given GAV without
+     * evaluating all of them. The patterns having a literal or a {@code literal*} groupId are stored in a
+     * {@link PatternTrieNode} trie under their groupId literal so that only the patterns found along the path of the
+     * given groupId need to be evaluated. The remaining patterns are kept in a residual {@link List} that is iterated
+     * over.
+     */
+    static class PatternIndex {
+        private final List<GavPattern> residualPatterns = new ArrayList<>();
+        private final PatternTrieNode root = new PatternTrieNode();
+
+        PatternIndex(List<GavPattern> patterns) {
+            super();
+            for (GavPattern pattern : patterns) {
+                final GavPattern.SegmentMatcher groupIdMatcher = pattern.getGroupIdMatcher();
+                if (groupIdMatcher instanceof GavPattern.ExactSegmentMatcher) {
+                    root.getOrCreate(((GavPattern.ExactSegmentMatcher) groupIdMatcher).getLiteral())
+                            .addExactPattern(pattern);
+                } else if (groupIdMatcher instanceof GavPattern.PrefixSegmentMatcher) {
+                    root.getOrCreate(((GavPattern.PrefixSegmentMatcher) groupIdMatcher).getLiteral())
+                            .addPrefixPattern(pattern);
+                } else {
+                    residualPatterns.add(pattern);
+                }
+            }
+        }
+
+        /**
+         * Adds all indexed {@link GavPattern}s matching the given GAV triple to the given {@code result}.
+         *
+         * @param groupId
+         * @param artifactId
+         * @param version
+         * @param result
+         *            the {@link Collection} to add the matching {@link GavPattern}s to
+         */
+        public void collectMatching(String groupId, String artifactId, String version,
+                Collection<GavPattern> result) {
+            root.collectMatching(groupId, 0, artifactId, version, result);
+            IndexedGavSet.collectMatching(groupId, artifactId, version, residualPatterns, result);
+        }
+
+        /**
+         * @param groupId
+         * @param artifactId
+         * @param version
+         * @return {@code true} if any of the indexed {@link GavPattern}s matches the given GAV triple, {@code false}
+         *         otherwise
+         */
+        public boolean matches(String groupId, String artifactId, String version) {
+            return root.matches(groupId, 0, artifactId, version)
+                    || IndexedGavSet.matches(groupId, artifactId, version, residualPatterns);
+        }
+    }
+
+    /**
+     * A node of the trie used by {@link PatternIndex}. A {@link GavPattern#ANY_CHAR} in a groupId literal matches any
+     * character, hence it is stored as a separate {@link #anyCharChild} that is visited for any character of the
+     * groupId being looked up.
+     */
+    static class PatternTrieNode {
+        private PatternTrieNode anyCharChild;
+        private Map<Character, PatternTrieNode> children;
+        /** The patterns whose groupId literal ends in this node */
+        private List<GavPattern> exactPatterns;
+        /** The patterns whose groupId prefix literal ends in this node */
+        private List<GavPattern> prefixPatterns;
+
+        PatternTrieNode() {
+            super();
+        }
+
+        void addExactPattern(GavPattern pattern) {
+            if (exactPatterns == null) {
+                exactPatterns = new ArrayList<>();
+            }
+            exactPatterns.add(pattern);
+        }
+
+        void addPrefixPattern(GavPattern pattern) {
+            if (prefixPatterns == null) {
+                prefixPatterns = new ArrayList<>();
+            }
+            prefixPatterns.add(pattern);
+        }
+
+        /**
+         * The collecting counterpart of {@link #matches(String, int, String, String)}.
+         *
+         * @param groupId
+         * @param index
+         *            the number of {@code groupId} characters consumed on the way from the root to this node
+         * @param artifactId
+         * @param version
+         * @param result
+         *            the {@link Collection} to add the matching {@link GavPattern}s to
+         */
+        void collectMatching(String groupId, int index, String artifactId, String version,
+                Collection<GavPattern> result) {
+            if (prefixPatterns != null) {
+                IndexedGavSet.collectMatching(groupId, artifactId, version, prefixPatterns, result);
+            }
+            if (index == groupId.length()) {
+                if (exactPatterns != null) {
+                    IndexedGavSet.collectMatching(groupId, artifactId, version, exactPatterns, result);
+                }
+                return;
+            }
+            if (children != null) {
+                final PatternTrieNode child = children.get(groupId.charAt(index));
+                if (child != null) {
+                    child.collectMatching(groupId, index + 1, artifactId, version, result);
+                }
+            }
+            if (anyCharChild != null) {
+                anyCharChild.collectMatching(groupId, index + 1, artifactId, version, result);
+            }
+        }
+
+        /**
+         * @param literal
+         *            the groupId literal to find the node for
+         * @return the descendant of this node reachable via the given {@code literal}, creating the missing nodes
+         *         on the way
+         */
+        PatternTrieNode getOrCreate(String literal) {
+            PatternTrieNode node = this;
+            for (int i = 0; i < literal.length(); i++) {
+                final char ch = literal.charAt(i);
+                if (ch == GavPattern.ANY_CHAR) {
+                    if (node.anyCharChild == null) {
+                        node.anyCharChild = new PatternTrieNode();
+                    }
+                    node = node.anyCharChild;
+                } else {
+                    if (node.children == null) {
+                        node.children = new HashMap<>();
+                    }
+                    PatternTrieNode child = node.children.get(ch);
+                    if (child == null) {
+                        child = new PatternTrieNode();
+                        node.children.put(ch, child);
+                    }
+                    node = child;
+                }
+            }
+            return node;
+        }
+
+        /**
+         * @param groupId
+         * @param index
+         *            the number of {@code groupId} characters consumed on the way from the root to this node
+         * @param artifactId
+         * @param version
+         * @return {@code true} if any {@link GavPattern} stored in this node or in its descendants reachable via the
+         *         rest of {@code groupId} matches the given GAV triple
+         */
+        boolean matches(String groupId, int index, String artifactId, String version) {
+            if (prefixPatterns != null && IndexedGavSet.matches(groupId, artifactId, version, prefixPatterns)) {
+                return true;
+            }
+            if (index == groupId.length()) {
+                return exactPatterns != null && IndexedGavSet.matches(groupId, artifactId, version, exactPatterns);
+            }
+            if (children != null) {
+                final PatternTrieNode child = children.get(groupId.charAt(index));
+                if (child != null && child.matches(groupId, index + 1, artifactId, version)) {
+                    return true;
+                }
+            }
+            return anyCharChild != null && anyCharChild.matches(groupId, index + 1, artifactId, version);
+        }
+    }
+
+    /** Include and exclude lists longer than this are looked up through a {@link PatternIndex} */
+    static final int INDEX_THRESHOLD = 8;
+
+    private static void collectMatching(String groupId, String artifactId, String version, List<GavPattern> patterns,
+            Collection<GavPattern> result) {
+        for (GavPattern pattern : patterns) {
+            if (pattern.matches(groupId, artifactId, version)) {
+                result.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * @param patterns
+     *            the {@link GavPattern}s to index
+     * @return a new {@link PatternIndex} or {@code null} if the given {@code patterns} are too few for an index to
+     *         pay off
+     */
+    private static PatternIndex index(List<GavPattern> patterns) {
+        return patterns.size() > INDEX_THRESHOLD ? new PatternIndex(patterns) : null;
+    }
+
+    private static boolean matches(String groupId, String artifactId, String version, List<GavPattern> patterns) {
+        for (GavPattern pattern : patterns) {
+            if (pattern.matches(groupId, artifactId, version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param gavSet
+     *            the {@link GavSet} whose includes and excludes should be used
+     * @return a new {@link IndexedGavSet}
+     */
+    public static IndexedGavSet of(GavSet gavSet) {
+        return new IndexedGavSet(gavSet);
+    }
+
+    private final PatternIndex excludesIndex;
+    private final PatternIndex includesIndex;
+
+    IndexedGavSet(GavSet gavSet) {
+        super(gavSet.getIncludes(), gavSet.getExcludes());
+        this.includesIndex = index(getIncludes());
+        this.excludesIndex = index(getExcludes());
+    }
+
+    @Override
+    public boolean contains(String groupId, String artifactId, String version) {
+        final boolean included = includesIndex != null ? includesIndex.matches(groupId, artifactId, version)
+                : matches(groupId, artifactId, version, getIncludes());
+        if (!included) {
+            return false;
+        }
+        return excludesIndex != null ? !excludesIndex.matches(groupId, artifactId, version)
+                : !matches(groupId, artifactId, version, getExcludes());
+    }
+
+}
@@ -19,55 +19,241 @@ package org.srcdeps.core;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Deque;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
-import org.xml.sax.Attributes;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * A utility able to transform a {@link Gavtc} into the corresponding {@link Path} in the Local Maven Repository. You
  * will not need this class as long as you have Maven's Core libraries in the class path. This class is rather thought
  * for other build tools such as Gradle.
+ * <p>
+ * {@link #contains(Gavtc)}, {@link #containsAll(Collection)}, {@link #findMissing(Collection)} and
+ * {@link #getVersions(String, String)} answer from in-memory listings of the artifact and version directories. A
+ * listing is taken on the first access to a directory and it is reused as long as the modification time of the
+ * directory stays the same. Hence checking any number of artifacts in a version directory costs a single
+ * {@code stat} call once the directory was listed.
  *
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
 public class MavenLocalRepository {
 
     /**
-     * A simple SAX parser to extract {@code <localRepository>} out of a Maven {@code settings.xml} file.
+     * An immutable listing of a directory.
+     */
+    static class DirectorySnapshot {
+        private static final DirectorySnapshot ABSENT = new DirectorySnapshot(-1L, false,
+                Collections.<String>emptySet(), Collections.<String>emptySet());
+
+        private final Set<String> directories;
+        private final Set<String> files;
+        private final long lastModified;
+
+        /**
+         * {@code false} if the directory could have been modified after the listing was taken without changing
+         * {@link #lastModified} due to the limited resolution of the file system timestamps
+         */
+        private final boolean reliable;
+
+        DirectorySnapshot(long lastModified, boolean reliable, Set<String> directories, Set<String> files) {
+            super();
+            this.lastModified = lastModified;
+            this.reliable = reliable;
+            this.directories = directories;
+            this.files = files;
+        }
+
+        /**
+         * @return the names of the subdirectories
+         */
+        public Set<String> getDirectories() {
+            return directories;
+        }
+
+        /**
+         * @return the names of the entries that are not directories
+         */
+        public Set<String> getFiles() {
+            return files;
+        }
+    }
+
+    /**
+     * The result of {@link MavenLocalRepository#autodetect()} together with the inputs it was computed from.
+     */
+    static class AutodetectResult {
+        private final String key;
+        private final MavenLocalRepository repository;
+
+        AutodetectResult(String key, MavenLocalRepository repository) {
+            super();
+            this.key = key;
+            this.repository = repository;
+        }
+    }
+
+    /**
+     * The content of a {@value MavenLocalRepository#MAVEN_METADATA_LOCAL} file that lists the versions of an artifact
+     * installed to a local Maven repository.
      */
-    static class SettingsXmlParser extends DefaultHandler {
+    static class LocalMetadata {
+        private static final XMLInputFactory xmlInputFactory;
 
-        private StringBuilder charBuffer;
-        private String localRepositoryPath;
-        /** The element stack */
-        private Deque<String> stack = new java.util.ArrayDeque<String>();
+        static {
+            xmlInputFactory = XMLInputFactory.newInstance();
+            xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        }
 
-        @Override
-        public void characters(char[] ch, int start, int length) throws SAXException {
-            if (charBuffer != null && localRepositoryPath == null) {
-                charBuffer.append(ch, start, length);
+        private static void appendElement(StringBuilder sb, String indent, String name, String value) {
+            if (value != null) {
+                sb.append(indent).append('<').append(name).append('>').append(value).append("</").append(name)
+                        .append(">\n");
             }
         }
 
-        @Override
-        public void endElement(String uri, String localName, String qName) throws SAXException {
-            if (charBuffer != null) {
-                stack.pop();
-                if (stack.size() == 1 && "settings".equals(stack.peek())) {
-                    localRepositoryPath = charBuffer.toString().trim();
-                    charBuffer = null;
+        /**
+         * @param path
+         *            the {@value MavenLocalRepository#MAVEN_METADATA_LOCAL} file to read
+         * @return a new {@link LocalMetadata}
+         * @throws IOException
+         *             if the file cannot be read or if it does not contain well formed XML
+         */
+        static LocalMetadata read(Path path) throws IOException {
+            final LocalMetadata result = new LocalMetadata();
+            try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+                try {
+                    final StringBuilder elementPath = new StringBuilder();
+                    while (reader.hasNext()) {
+                        switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            elementPath.append('/').append(reader.getLocalName());
+                            final String text;
+                            switch (elementPath.toString()) {
+                            case "/metadata/groupId":
+                                result.groupId = reader.getElementText().trim();
+                                break;
+                            case "/metadata/artifactId":
+                                result.artifactId = reader.getElementText().trim();
+                                break;
+                            case "/metadata/versioning/latest":
+                                result.latest = reader.getElementText().trim();
+                                break;
+                            case "/metadata/versioning/release":
+                                result.release = reader.getElementText().trim();
+                                break;
+                            case "/metadata/versioning/lastUpdated":
+                                result.lastUpdated = reader.getElementText().trim();
+                                break;
+                            case "/metadata/versioning/versions/version":
+                                text = reader.getElementText().trim();
+                                if (!text.isEmpty()) {
+                                    result.versions.add(text);
+                                }
+                                break;
+                            default:
+                                continue;
+                            }
+                            /* getElementText() consumed the end element */
+                            elementPath.setLength(elementPath.lastIndexOf("/"));
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            elementPath.setLength(elementPath.lastIndexOf("/"));
+                            break;
+                        default:
+                            break;
+                        }
+                    }
+                } finally {
+                    reader.close();
                 }
+            } catch (XMLStreamException e) {
+                throw new IOException(String.format("Could not parse [%s]", path), e);
             }
+            return result;
+        }
+
+        private String artifactId;
+        private String groupId;
+        private String lastUpdated;
+        private String latest;
+        private String release;
+        private final Set<String> versions = new LinkedHashSet<>();
+
+        /**
+         * @param newer
+         *            the {@link LocalMetadata} to merge into this one
+         * @return a new {@link LocalMetadata} listing the versions of both this and {@code newer} and the greater of
+         *         the two {@code lastUpdated} timestamps; {@code latest} and {@code release} come from {@code newer}
+         *         unless it does not have them
+         */
+        LocalMetadata merge(LocalMetadata newer) {
+            final LocalMetadata result = new LocalMetadata();
+            result.groupId = newer.groupId != null ? newer.groupId : groupId;
+            result.artifactId = newer.artifactId != null ? newer.artifactId : artifactId;
+            result.latest = newer.latest != null ? newer.latest : latest;
+            result.release = newer.release != null ? newer.release : release;
+            /* the timestamps are yyyyMMddHHmmss so that they can be compared as strings */
+            result.lastUpdated = lastUpdated == null
+                    || (newer.lastUpdated != null && newer.lastUpdated.compareTo(lastUpdated) > 0) ? newer.lastUpdated
+                            : lastUpdated;
+            result.versions.addAll(versions);
+            result.versions.addAll(newer.versions);
+            return result;
+        }
+
+        String toXml() {
+            final StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<metadata>\n");
+            appendElement(sb, "  ", "groupId", groupId);
+            appendElement(sb, "  ", "artifactId", artifactId);
+            sb.append("  <versioning>\n");
+            appendElement(sb, "    ", "latest", latest);
+            appendElement(sb, "    ", "release", release);
+            sb.append("    <versions>\n");
+            for (String version : versions) {
+                appendElement(sb, "      ", "version", version);
+            }
+            sb.append("    </versions>\n");
+            appendElement(sb, "    ", "lastUpdated", lastUpdated);
+            sb.append("  </versioning>\n</metadata>\n");
+            return sb.toString();
+        }
+
+    }
+
+    /**
+     * A simple StAX parser to extract {@code <localRepository>} out of a Maven {@code settings.xml} file. The parsing
+     * stops as soon as {@code <localRepository>} is found.
+     */
+    static class SettingsXmlParser {
+
+        private static final XMLInputFactory xmlInputFactory;
+
+        static {
+            xmlInputFactory = XMLInputFactory.newInstance();
+            xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
         }
 
         /**
@@ -77,93 +263,360 @@ public class MavenLocalRepository {
          * @param settingsXmlReader
          * @param defaultResult
          * @return a {@link Path} to the Local Maven Repository on the current machine
-         * @throws SAXException
          * @throws IOException
-         * @throws ParserConfigurationException
+         *             if the {@code settingsXmlReader} cannot be read or if it does not contain well formed XML
          */
-        Path parse(Reader settingsXmlReader, Path defaultResult)
-                throws SAXException, IOException, ParserConfigurationException {
-            SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-            saxParser.parse(new InputSource(settingsXmlReader), this);
-            if (localRepositoryPath != null) {
-                return Paths.get(localRepositoryPath);
-            } else {
-                return defaultResult;
+        Path parse(Reader settingsXmlReader, Path defaultResult) throws IOException {
+            try {
+                final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(settingsXmlReader);
+                try {
+                    return parse(reader, defaultResult);
+                } finally {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
             }
         }
 
-        @Override
-        public void startDocument() throws SAXException {
-            stack.clear();
-            charBuffer = null;
-            localRepositoryPath = null;
-        }
-
-        @Override
-        public void startElement(String uri, String localName, String qName, Attributes attributes)
-                throws SAXException {
-            if (localRepositoryPath == null) {
-                if ("localRepository".equals(qName)) {
-                    charBuffer = new StringBuilder();
+        private Path parse(XMLStreamReader reader, Path defaultResult) throws XMLStreamException {
+            int depth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    if (depth == 1 && !"settings".equals(reader.getLocalName())) {
+                        return defaultResult;
+                    } else if (depth == 2 && "localRepository".equals(reader.getLocalName())) {
+                        final String localRepositoryPath = reader.getElementText().trim();
+                        return localRepositoryPath.isEmpty() ? defaultResult : Paths.get(localRepositoryPath);
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+                    break;
                 }
-                stack.push(qName);
             }
+            return defaultResult;
         }
 
     }
 
     public static final String MAVEN_REPO_LOCAL_PROP = "maven.repo.local";
 
+    private static final String MAVEN_REPO_LOCAL_ARG_PREFIX = "-D" + MAVEN_REPO_LOCAL_PROP + "=";
+
+    /** The last result of {@link #autodetect()} */
+    private static volatile AutodetectResult autodetectResult;
+
+    /** The name of the per-artifact metadata file written by {@code maven-install-plugin} */
+    private static final String MAVEN_METADATA_LOCAL = "maven-metadata-local.xml";
+
+    /** Serializes the read-merge-write cycles of {@value #MAVEN_METADATA_LOCAL} files within this JVM */
+    private static final Object METADATA_LOCK = new Object();
+
+    /**
+     * The resolution of file system timestamps we assume in the worst case. A directory listing taken within this
+     * period after the last modification of the directory is not reused.
+     */
+    private static final long TIMESTAMP_RESOLUTION_MS = 2000;
+
     /**
      * Tries to figure out where is the Local Maven Repository on the current machine.
      * <p>
-     * First checks
+     * First checks the {@value #MAVEN_REPO_LOCAL_PROP} system property, then {@code <localRepository>} in
+     * {@code ~/.m2/settings.xml} and finally falls back to {@code ~/.m2/repository}.
+     * <p>
+     * The result is memoized: the same instance is returned as long as neither the {@value #MAVEN_REPO_LOCAL_PROP}
+     * and {@code user.home} system properties nor the modification time and size of {@code ~/.m2/settings.xml}
+     * change. Hence the callers also share the directory listings cached by the returned instance.
      *
-     * @return a new {@link MavenLocalRepository}
-     * @throws IOException
+     * @return a {@link MavenLocalRepository}
      */
     public static MavenLocalRepository autodetect() {
-        final Path rootDirectory;
         final String repoPath = System.getProperty(MAVEN_REPO_LOCAL_PROP);
+        final Path m2Directory;
+        final Path settingsXmlPath;
+        final String key;
         if (repoPath != null && !repoPath.isEmpty()) {
+            m2Directory = null;
+            settingsXmlPath = null;
+            key = MAVEN_REPO_LOCAL_PROP + "=" + repoPath;
+        } else {
+            m2Directory = Paths.get(System.getProperty("user.home")).resolve(".m2");
+            settingsXmlPath = m2Directory.resolve("settings.xml");
+            String stamp;
+            try {
+                stamp = Files.getLastModifiedTime(settingsXmlPath).toMillis() + ":" + Files.size(settingsXmlPath);
+            } catch (IOException e) {
+                stamp = "absent";
+            }
+            key = settingsXmlPath + "=" + stamp;
+        }
+
+        final AutodetectResult cached = autodetectResult;
+        if (cached != null && cached.key.equals(key)) {
+            return cached.repository;
+        }
+
+        final Path rootDirectory;
+        if (settingsXmlPath == null) {
             rootDirectory = Paths.get(repoPath);
         } else {
-            final Path m2Directory = Paths.get(System.getProperty("user.home")).resolve(".m2");
-            final Path settingsXmlPath = m2Directory.resolve("settings.xml");
             final Path defaultLocalRepoPath = m2Directory.resolve("repository");
             if (Files.exists(settingsXmlPath)) {
                 try (Reader in = Files.newBufferedReader(settingsXmlPath, StandardCharsets.UTF_8)) {
                     rootDirectory = new SettingsXmlParser().parse(in, defaultLocalRepoPath);
-                } catch (IOException | ParserConfigurationException | SAXException e) {
+                } catch (IOException e) {
                     throw new RuntimeException("Could not parse " + settingsXmlPath, e);
                 }
             } else {
                 rootDirectory = defaultLocalRepoPath;
             }
         }
-        return new MavenLocalRepository(rootDirectory);
+        final MavenLocalRepository result = new MavenLocalRepository(rootDirectory);
+        autodetectResult = new AutodetectResult(key, result);
+        return result;
+    }
+
+    /**
+     * @param destination
+     *            the file to create a temporary file for
+     * @return a {@link Path} of a non-existent file in the same directory as {@code destination}
+     * @throws IOException
+     *             on I/O problems
+     */
+    private static Path createTempFile(Path destination) throws IOException {
+        final Path result = Files.createTempFile(destination.getParent(), destination.getFileName().toString(),
+                ".tmp");
+        Files.delete(result);
+        return result;
+    }
+
+    /**
+     * Finds the Local Maven Repository a build with the given {@code buildArguments} installs to. All code reading or
+     * writing the artifacts of a source dependency build should use this method so that they agree on the repository.
+     *
+     * @param buildArguments
+     *            the arguments of the build, see {@link BuildRequest#getBuildArguments()}
+     * @return the repository set via the last {@code -Dmaven.repo.local} in {@code buildArguments} or the one found by
+     *         {@link #autodetect()} if there is no such argument
+     */
+    public static MavenLocalRepository forBuildArguments(Collection<String> buildArguments) {
+        String path = null;
+        for (String arg : buildArguments) {
+            if (arg.startsWith(MAVEN_REPO_LOCAL_ARG_PREFIX)) {
+                path = arg.substring(MAVEN_REPO_LOCAL_ARG_PREFIX.length());
+            }
+        }
+        return path != null ? new MavenLocalRepository(Paths.get(path)) : autodetect();
+    }
+
+    /**
+     * @param gav
+     *            the {@link Gavtc} whose file name should be returned
+     * @return the name of the file under which the given artifact is stored in its version directory
+     */
+    private static String getFileName(Gavtc gav) {
+        return gav.getArtifactId() + "-" + gav.getVersion()
+                + (gav.getClassifier() == null ? "" : "-" + gav.getClassifier()) + "." + gav.getType();
+    }
+
+    /**
+     * Renames {@code tmp} to {@code destination}, atomically if the file system supports it.
+     *
+     * @param tmp
+     *            the file to rename
+     * @param destination
+     *            the file to replace
+     * @throws IOException
+     *             on I/O problems
+     */
+    private static void replace(Path tmp, Path destination) throws IOException {
+        try {
+            Files.move(tmp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     private Path rootDirectory;
 
+    /** The directory listings taken so far */
+    private final Map<Path, DirectorySnapshot> snapshots = new ConcurrentHashMap<>();
+
     public MavenLocalRepository(Path rootDirectory) {
         super();
         this.rootDirectory = rootDirectory;
     }
 
+    /**
+     * @param gavtc
+     *            the artifact to look for
+     * @return {@code true} if the file of the given {@code gavtc} exists in this {@link MavenLocalRepository};
+     *         {@code false} otherwise
+     * @throws IOException
+     *             if the version directory of the given {@code gavtc} cannot be listed
+     */
+    public boolean contains(Gavtc gavtc) throws IOException {
+        return snapshot(resolveVersion(gavtc)).getFiles().contains(getFileName(gavtc));
+    }
+
+    /**
+     * @param gavtcs
+     *            the artifacts to look for
+     * @return {@code true} if the files of all given {@code gavtcs} exist in this {@link MavenLocalRepository};
+     *         {@code false} otherwise
+     * @throws IOException
+     *             if any of the version directories of the given {@code gavtcs} cannot be listed
+     */
+    public boolean containsAll(Collection<Gavtc> gavtcs) throws IOException {
+        final Map<Path, DirectorySnapshot> batch = new HashMap<>();
+        for (Gavtc gavtc : gavtcs) {
+            if (!snapshot(resolveVersion(gavtc), batch).getFiles().contains(getFileName(gavtc))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param gavtcs
+     *            the artifacts to look for
+     * @return the sublist of the given {@code gavtcs} whose files do not exist in this {@link MavenLocalRepository},
+     *         in the iteration order of {@code gavtcs}
+     * @throws IOException
+     *             if any of the version directories of the given {@code gavtcs} cannot be listed
+     */
+    public List<Gavtc> findMissing(Collection<Gavtc> gavtcs) throws IOException {
+        final Map<Path, DirectorySnapshot> batch = new HashMap<>();
+        final List<Gavtc> result = new ArrayList<>();
+        for (Gavtc gavtc : gavtcs) {
+            if (!snapshot(resolveVersion(gavtc), batch).getFiles().contains(getFileName(gavtc))) {
+                result.add(gavtc);
+            }
+        }
+        return result;
+    }
+
     public Path getRootDirectory() {
         return rootDirectory;
     }
 
+    /**
+     * @param groupId
+     *            the {@code groupId} of the artifact
+     * @param artifactId
+     *            the {@code artifactId} of the artifact
+     * @return the versions of the given artifact present in this {@link MavenLocalRepository}; an empty {@link Set} if
+     *         there are none
+     * @throws IOException
+     *             if the artifact directory cannot be listed
+     */
+    public Set<String> getVersions(String groupId, String artifactId) throws IOException {
+        return snapshot(resolveGroup(groupId).resolve(artifactId)).getDirectories();
+    }
+
+    /**
+     * Publishes the artifacts of the given {@code gavs} installed to the given {@code overlayRoot} repository to this
+     * {@link MavenLocalRepository}. Only the {@code groupId/artifactId/version} directories of the given
+     * {@code gavs} are considered, so that the dependencies the build downloaded to {@code overlayRoot} are not
+     * published. Each file is first hard linked (or copied if hard links are not supported) to a temporary file next
+     * to its destination and then atomically renamed to the destination. The {@code *.pom} files are published after
+     * the other files of their module so that a present {@code *.pom} file signals that the other files of its module
+     * were published already.
+     * <p>
+     * The {@value #MAVEN_METADATA_LOCAL} files of the artifacts are published last. If there is one already in this
+     * {@link MavenLocalRepository}, the {@code <versions>} of both files are merged and the newer
+     * {@code <lastUpdated>} is kept, because the existing file may list versions installed by other builds. The
+     * resolver's bookkeeping files ({@code *.lastUpdated}, {@code resolver-status.properties}) are not published at
+     * all.
+     *
+     * @param overlayRoot
+     *            the root directory of the overlay repository
+     * @param gavs
+     *            the modules whose artifacts should be published
+     * @return the number of published files
+     * @throws IOException
+     *             on I/O problems
+     */
+    public int publish(Path overlayRoot, Collection<Gav> gavs) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        final Set<Path> metadataFiles = new LinkedHashSet<>();
+        for (Gav gav : gavs) {
+            /* the relative path comes from another file system provider potentially */
+            final String versionDir = rootDirectory.relativize(resolveVersion(gav)).toString();
+            final Path sourceDir = overlayRoot.resolve(versionDir);
+            if (!Files.isDirectory(sourceDir)) {
+                continue;
+            }
+            final List<Path> poms = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(sourceDir)) {
+                for (Path entry : entries) {
+                    final String fileName = entry.getFileName().toString();
+                    if (!Files.isRegularFile(entry) || fileName.endsWith(".lastUpdated")
+                            || fileName.equals("resolver-status.properties")) {
+                        continue;
+                    } else if (fileName.endsWith(".pom")) {
+                        poms.add(entry);
+                    } else {
+                        files.add(entry);
+                    }
+                }
+            }
+            files.addAll(poms);
+            final Path metadata = sourceDir.resolveSibling(MAVEN_METADATA_LOCAL);
+            if (Files.isRegularFile(metadata)) {
+                metadataFiles.add(metadata);
+            }
+        }
+
+        int result = 0;
+        for (Path source : files) {
+            final Path destination = rootDirectory.resolve(overlayRoot.relativize(source).toString());
+            Files.createDirectories(destination.getParent());
+            final Path tmp = createTempFile(destination);
+            try {
+                try {
+                    Files.createLink(tmp, source);
+                } catch (IOException | UnsupportedOperationException e) {
+                    Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                replace(tmp, destination);
+                result++;
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        for (Path source : metadataFiles) {
+            final Path destination = rootDirectory.resolve(overlayRoot.relativize(source).toString());
+            synchronized (METADATA_LOCK) {
+                LocalMetadata metadata = LocalMetadata.read(source);
+                if (Files.exists(destination)) {
+                    metadata = LocalMetadata.read(destination).merge(metadata);
+                }
+                final Path tmp = createTempFile(destination);
+                try {
+                    Files.write(tmp, metadata.toXml().getBytes(StandardCharsets.UTF_8));
+                    replace(tmp, destination);
+                    result++;
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * @param gav
      *            the {@link Gavtc} to resolve
      * @return a {@link Path} under which the given artifact should exist in this {@link MavenLocalRepository}
      */
     public Path resolve(Gavtc gav) {
-        return resolveGroup(gav.getGroupId()).resolve(gav.getArtifactId()).resolve(gav.getVersion())
-                .resolve(gav.getArtifactId() + "-" + gav.getVersion()
-                        + (gav.getClassifier() == null ? "" : "-" + gav.getClassifier()) + "." + gav.getType());
+        return resolveVersion(gav).resolve(getFileName(gav));
     }
 
     /**
@@ -175,4 +628,72 @@ public class MavenLocalRepository {
         return rootDirectory.resolve(groupId.replace('.', '/'));
     }
 
+    /**
+     * @param gav
+     *            the {@link Gav} to resolve
+     * @return a {@link Path} of the directory under which the artifacts of the given {@link Gav} should exist in this
+     *         {@link MavenLocalRepository}
+     */
+    public Path resolveVersion(Gav gav) {
+        return resolveGroup(gav.getGroupId()).resolve(gav.getArtifactId()).resolve(gav.getVersion());
+    }
+
+    /**
+     * Returns a listing of the given {@code directory}, either one from {@link #snapshots} if the directory has not
+     * been modified since the listing was taken or a new one.
+     *
+     * @param directory
+     *            the directory to list
+     * @return a {@link DirectorySnapshot}, never {@code null}
+     * @throws IOException
+     *             if the {@code directory} cannot be listed
+     */
+    DirectorySnapshot snapshot(Path directory) throws IOException {
+        final long lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(directory).toMillis();
+        } catch (NoSuchFileException e) {
+            snapshots.remove(directory);
+            return DirectorySnapshot.ABSENT;
+        }
+        final DirectorySnapshot cached = snapshots.get(directory);
+        if (cached != null && cached.reliable && cached.lastModified == lastModified) {
+            return cached;
+        }
+
+        final long start = System.currentTimeMillis();
+        final Set<String> directories = new HashSet<>();
+        final Set<String> files = new HashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry)) {
+                    directories.add(entry.getFileName().toString());
+                } else {
+                    files.add(entry.getFileName().toString());
+                }
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            snapshots.remove(directory);
+            return DirectorySnapshot.ABSENT;
+        }
+        final DirectorySnapshot result = new DirectorySnapshot(lastModified,
+                start - lastModified > TIMESTAMP_RESOLUTION_MS, Collections.unmodifiableSet(directories),
+                Collections.unmodifiableSet(files));
+        snapshots.put(directory, result);
+        return result;
+    }
+
+    /**
+     * Like {@link #snapshot(Path)} but each {@code directory} is checked for modifications only once per
+     * {@code batch}.
+     */
+    private DirectorySnapshot snapshot(Path directory, Map<Path, DirectorySnapshot> batch) throws IOException {
+        DirectorySnapshot result = batch.get(directory);
+        if (result == null) {
+            result = snapshot(directory);
+            batch.put(directory, result);
+        }
+        return result;
+    }
+
 }
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+import java.nio.file.Path;
+
+/**
+ * An optional extension of {@link Scm} for implementations able to tell which revision is checked out in a directory
+ * and how the revisions relate to each other. {@link Builder}s use it to decide whether the sources they built
+ * previously can be reused.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public interface RevisionAwareScm extends Scm {
+
+    /**
+     * @param dir
+     *            the directory where a {@link #checkout(BuildRequest)} happened before
+     * @return the identifier of the revision checked out in the given {@code dir} or {@code null} if it cannot be
+     *         determined
+     */
+    String getCheckedOutRevision(Path dir);
+
+    /**
+     * Tells if the revision {@code ancestor} is reachable from the revision {@code revision} in the given {@code dir}.
+     * A revision is considered to be its own ancestor.
+     *
+     * @param dir
+     *            the directory where a {@link #checkout(BuildRequest)} happened before
+     * @param ancestor
+     *            the identifier of the supposed ancestor
+     * @param revision
+     *            the identifier of the descendant
+     * @return {@code true} if {@code ancestor} is an ancestor of {@code revision}; {@code false} otherwise, including
+     *         the cases when any of the revisions is not available in the given {@code dir}
+     */
+    boolean isAncestorRevision(Path dir, String ancestor, String revision);
+
+}
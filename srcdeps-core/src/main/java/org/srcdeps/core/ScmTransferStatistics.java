@@ -0,0 +1,125 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+/**
+ * Figures describing a single transfer of objects from a remote repository performed by a
+ * {@link TransferReportingScm}, useful e.g. for checking whether shallow clones or local mirrors really save
+ * bandwidth.
+ * <p>
+ * The duration of the transfer is split into two parts: the {@link #getNegotiationNanos() negotiation} covers
+ * connecting, listing the remote refs and agreeing on the objects to send; the {@link #getTransferNanos() transfer}
+ * covers receiving the objects. The rest of {@link #getTotalNanos()} is spent by post processing, such as resolving
+ * deltas, updating refs and checking out files.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class ScmTransferStatistics {
+
+    /**
+     * The kinds of transfers.
+     */
+    public enum Mode {
+        /** A fresh clone */
+        clone,
+        /** A fetch into an existing repository */
+        fetch
+    }
+
+    /** The value of {@link #getPackBytes()} if the number is not known */
+    public static final long UNKNOWN_BYTES = -1L;
+
+    private final Mode mode;
+    private final long negotiationNanos;
+    private final long objectsReceived;
+    private final long packBytes;
+    private final long totalNanos;
+    private final long transferNanos;
+    private final String url;
+
+    public ScmTransferStatistics(String url, Mode mode, long objectsReceived, long packBytes, long negotiationNanos,
+            long transferNanos, long totalNanos) {
+        super();
+        this.url = url;
+        this.mode = mode;
+        this.objectsReceived = objectsReceived;
+        this.packBytes = packBytes;
+        this.negotiationNanos = negotiationNanos;
+        this.transferNanos = transferNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * @return whether the transfer was a clone or a fetch
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the time in nanoseconds spent before the first object was received; if no objects were received, this is
+     *         the whole time spent talking to the remote repository
+     */
+    public long getNegotiationNanos() {
+        return negotiationNanos;
+    }
+
+    /**
+     * @return the number of objects received from the remote repository
+     */
+    public long getObjectsReceived() {
+        return objectsReceived;
+    }
+
+    /**
+     * @return the size in bytes of the pack files stored locally as a result of the transfer or {@link #UNKNOWN_BYTES}
+     *         if not known. This is the closest available approximation of the bytes sent over the wire: a received
+     *         thin pack gets completed with its base objects before it is stored.
+     */
+    public long getPackBytes() {
+        return packBytes;
+    }
+
+    /**
+     * @return the wall clock duration of the whole clone or fetch operation in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the time in nanoseconds spent by receiving the objects
+     */
+    public long getTransferNanos() {
+        return transferNanos;
+    }
+
+    /**
+     * @return the URL the objects were transferred from
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String toString() {
+        return "ScmTransferStatistics [url=" + url + ", mode=" + mode + ", objectsReceived=" + objectsReceived
+                + ", packBytes=" + packBytes + ", negotiationNanos=" + negotiationNanos + ", transferNanos="
+                + transferNanos + ", totalNanos=" + totalNanos + "]";
+    }
+
+}
@@ -30,12 +30,21 @@ import org.slf4j.LoggerFactory;
 public class SrcdepsInner {
     private static final Logger log = LoggerFactory.getLogger(SrcdepsInner.class);
 
+    /**
+     * The directory of the local build cache shared by all build directories of the current source repository or
+     * {@code null} if the build cache should not be configured
+     */
+    final String buildCacheDirectory;
+
     /** The source version we are building */
     final String version;
 
     /** The set of artifacts we should build */
     final GavSet gavSet;
 
+    /** If {@code true} only the tasks required by the projects matching {@link #gavSet} should be executed */
+    final boolean buildIncludesOnly;
+
     SrcdepsInner() {
         log.debug("srcdeps: initializing " + SrcdepsInner.class.getSimpleName());
         this.version = System.getProperty("srcdeps.inner.version");
@@ -43,5 +52,7 @@ public class SrcdepsInner {
                 .includes(System.getProperty("srcdeps.inner.includes")) //
                 .excludes(System.getProperty("srcdeps.inner.excludes")) //
                 .build();
+        this.buildIncludesOnly = Boolean.getBoolean("srcdeps.inner.buildIncludesOnly");
+        this.buildCacheDirectory = System.getProperty("srcdeps.inner.buildCacheDirectory");
     }
 }
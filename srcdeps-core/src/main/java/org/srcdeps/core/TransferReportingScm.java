@@ -0,0 +1,41 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+/**
+ * An optional extension of {@link Scm} for implementations able to report what their checkout transferred from the
+ * remote repository. {@link org.srcdeps.core.impl.DefaultBuildService} prefers
+ * {@link #checkoutWithStatistics(BuildRequest)} over {@link #checkout(BuildRequest)} where available and passes
+ * {@link ScmTransferStatistics#getPackBytes()} to {@link BuildListener}s via
+ * {@link BuildPhaseResult#getBytesFetched()}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public interface TransferReportingScm extends Scm {
+
+    /**
+     * Does the same as {@link #checkout(BuildRequest)} and returns the statistics of the successful transfer.
+     *
+     * @param request
+     *            determines the project to checkout
+     * @return the {@link ScmTransferStatistics} of the transfer from the URL that the checkout succeeded with
+     * @throws ScmException
+     *             on any SCM related problem
+     */
+    ScmTransferStatistics checkoutWithStatistics(BuildRequest request) throws ScmException;
+
+}
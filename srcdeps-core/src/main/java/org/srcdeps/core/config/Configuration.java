@@ -28,6 +28,8 @@ import java.util.Set;
 import java.util.Stack;
 
 import org.srcdeps.core.BuildRequest.Verbosity;
+import org.srcdeps.core.GavSet;
+import org.srcdeps.core.GavSetIndex;
 import org.srcdeps.core.config.scalar.Duration;
 import org.srcdeps.core.config.tree.ListOfScalarsNode;
 import org.srcdeps.core.config.tree.Node;
@@ -190,12 +192,12 @@ public class Configuration {
     private static final Set<String> DEFAULT_FORWARD_PROPERTIES = Collections
             .unmodifiableSet(new LinkedHashSet<>(Arrays.asList(Maven.getSrcdepsMavenPropertiesPattern())));
 
-    private static final String LATEST_CONFIG_MODEL_VERSION = "2.2";
+    private static final String LATEST_CONFIG_MODEL_VERSION = "2.3";
 
     private static final String SRCDEPS_ENCODING_PROPERTY = "srcdeps.encoding";
 
     private static final Set<String> SUPPORTED_CONFIG_MODEL_VERSIONS = Collections
-            .unmodifiableSet(new LinkedHashSet<>(Arrays.asList("2.0", "2.1", LATEST_CONFIG_MODEL_VERSION)));
+            .unmodifiableSet(new LinkedHashSet<>(Arrays.asList("2.0", "2.1", "2.2", LATEST_CONFIG_MODEL_VERSION)));
 
     public static Builder builder() {
         return new Builder();
@@ -236,6 +238,9 @@ public class Configuration {
     private final Maven maven;
     private final List<ScmRepository> repositories;
 
+    /** Routes GAVs to {@link #repositories}; see {@link #findRepository(String, String, String)} */
+    private final GavSetIndex<ScmRepository> repositoryIndex;
+
     private final boolean skip;
 
     private final Path sourcesDirectory;
@@ -249,6 +254,12 @@ public class Configuration {
         this.skip = skip;
         this.forwardProperties = forwardProperties;
         this.maven = maven;
+
+        final List<GavSet> gavSets = new ArrayList<>(repositories.size());
+        for (ScmRepository repository : repositories) {
+            gavSets.add(repository.getGavSet());
+        }
+        this.repositoryIndex = new GavSetIndex<>(gavSets, repositories);
     }
 
     @Override
@@ -290,6 +301,20 @@ public class Configuration {
         return true;
     }
 
+    /**
+     * Finds the {@link ScmRepository} from which the given GAV triple should be built, i.e. the first one in
+     * {@link #getRepositories()} whose {@link ScmRepository#getGavSet()} contains the given GAV. This is an indexed
+     * and memoized equivalent of iterating over {@link #getRepositories()}.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param version
+     * @return the matching {@link ScmRepository} or {@code null} if no {@link ScmRepository} contains the given GAV
+     */
+    public ScmRepository findRepository(String groupId, String artifactId, String version) {
+        return repositoryIndex.find(groupId, artifactId, version);
+    }
+
     public String getConfigModelVersion() {
         return configModelVersion;
     }
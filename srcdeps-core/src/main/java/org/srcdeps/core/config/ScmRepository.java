@@ -27,6 +27,7 @@ import java.util.StringTokenizer;
 import org.srcdeps.core.BuildRequest.Verbosity;
 import org.srcdeps.core.GavPattern;
 import org.srcdeps.core.GavSet;
+import org.srcdeps.core.IndexedGavSet;
 import org.srcdeps.core.config.scalar.Duration;
 import org.srcdeps.core.config.tree.ListOfScalarsNode;
 import org.srcdeps.core.config.tree.Node;
@@ -47,6 +48,7 @@ public class ScmRepository {
                 Boolean.TRUE);
 
         final ListOfScalarsNode<String> buildArguments = new DefaultListOfScalarsNode<>("buildArguments", String.class);
+        final ScalarNode<Boolean> buildIncludesOnly = new DefaultScalarNode<>("buildIncludesOnly", Boolean.FALSE);
         final BuilderIo.Builder builderIo = BuilderIo.builder();
         final ScalarNode<Duration> buildTimeout = new DefaultScalarNode<Duration>("buildTimeout", Duration.class) {
 
@@ -66,7 +68,11 @@ public class ScmRepository {
         final ListOfScalarsNode<String> excludes = new DefaultListOfScalarsNode<>("excludes", String.class);
         final ScmRepositoryGradle.Builder gradle = ScmRepositoryGradle.builder();
         final ListOfScalarsNode<String> includes = new DefaultListOfScalarsNode<>("includes", String.class);
+        final ScalarNode<Boolean> incremental = new DefaultScalarNode<>("incremental", Boolean.FALSE);
         final ScmRepositoryMaven.Builder maven = ScmRepositoryMaven.builder();
+        final ScalarNode<Boolean> parallel = new DefaultScalarNode<>("parallel", Boolean.FALSE);
+        final ScalarNode<Boolean> preferOffline = new DefaultScalarNode<>("preferOffline", Boolean.FALSE);
+        final ScalarNode<Boolean> skipInstalled = new DefaultScalarNode<>("skipInstalled", Boolean.FALSE);
         final ScalarNode<Boolean> skipTests = new DefaultScalarNode<>("skipTests", Boolean.TRUE);
         final ListOfScalarsNode<String> urls = new DefaultListOfScalarsNode<>("urls", String.class);
         final ScalarNode<Verbosity> verbosity = new DefaultScalarNode<Verbosity>("verbosity", Verbosity.class) {
@@ -97,6 +103,11 @@ public class ScmRepository {
                     buildTimeout, //
                     builderIo, //
                     verbosity, //
+                    buildIncludesOnly, //
+                    incremental, //
+                    parallel, //
+                    preferOffline, //
+                    skipInstalled, //
                     maven, //
                     gradle);
         }
@@ -119,7 +130,17 @@ public class ScmRepository {
                     gradle.build(), //
                     buildTimeout.getValue(), //
                     builderIo.build(), //
-                    verbosity.getValue());
+                    verbosity.getValue(), //
+                    /* may be null if the defaults were not applied */
+                    Boolean.TRUE.equals(buildIncludesOnly.getValue()), //
+                    /* may be null if the defaults were not applied */
+                    Boolean.TRUE.equals(parallel.getValue()), //
+                    /* may be null if the defaults were not applied */
+                    Boolean.TRUE.equals(preferOffline.getValue()), //
+                    /* may be null if the defaults were not applied */
+                    Boolean.TRUE.equals(incremental.getValue()), //
+                    /* may be null if the defaults were not applied */
+                    Boolean.TRUE.equals(skipInstalled.getValue()));
             return result;
         }
 
@@ -201,6 +222,31 @@ public class ScmRepository {
             return this;
         }
 
+        public Builder buildIncludesOnly(boolean buildIncludesOnly) {
+            this.buildIncludesOnly.setValue(buildIncludesOnly);
+            return this;
+        }
+
+        public Builder parallel(boolean parallel) {
+            this.parallel.setValue(parallel);
+            return this;
+        }
+
+        public Builder preferOffline(boolean preferOffline) {
+            this.preferOffline.setValue(preferOffline);
+            return this;
+        }
+
+        public Builder incremental(boolean incremental) {
+            this.incremental.setValue(incremental);
+            return this;
+        }
+
+        public Builder skipInstalled(boolean skipInstalled) {
+            this.skipInstalled.setValue(skipInstalled);
+            return this;
+        }
+
         public Builder skipTests(boolean skipTests) {
             this.skipTests.setValue(skipTests);
             return this;
@@ -305,6 +351,7 @@ public class ScmRepository {
 
     private final boolean addDefaultBuildArguments;
     private final List<String> buildArguments;
+    private final boolean buildIncludesOnly;
     private final BuilderIo builderIo;
     private final Duration buildTimeout;
     private final List<String> excludes;
@@ -312,7 +359,11 @@ public class ScmRepository {
     private final ScmRepositoryGradle gradle;
     private final String id;
     private final List<String> includes;
+    private final boolean incremental;
     private final ScmRepositoryMaven maven;
+    private final boolean parallel;
+    private final boolean preferOffline;
+    private final boolean skipInstalled;
 
     private final boolean skipTests;
     private final List<String> urls;
@@ -320,12 +371,14 @@ public class ScmRepository {
 
     private ScmRepository(String id, List<String> includes, List<String> excludes, List<String> urls,
             List<String> buildArgs, boolean skipTests, boolean addDefaultBuildArguments, ScmRepositoryMaven maven,
-            ScmRepositoryGradle gradle, Duration buildTimeout, BuilderIo builderIo, Verbosity verbosity) {
+            ScmRepositoryGradle gradle, Duration buildTimeout, BuilderIo builderIo, Verbosity verbosity,
+            boolean buildIncludesOnly, boolean parallel, boolean preferOffline, boolean incremental,
+            boolean skipInstalled) {
         super();
         this.id = id;
         this.includes = includes;
         this.excludes = excludes;
-        this.gavSet = GavSet.builder().includes(includes).excludes(excludes).build();
+        this.gavSet = IndexedGavSet.of(GavSet.builder().includes(includes).excludes(excludes).build());
         this.urls = urls;
         this.buildArguments = buildArgs;
         this.skipTests = skipTests;
@@ -335,6 +388,11 @@ public class ScmRepository {
         this.buildTimeout = buildTimeout;
         this.builderIo = builderIo;
         this.verbosity = verbosity;
+        this.skipInstalled = skipInstalled;
+        this.incremental = incremental;
+        this.preferOffline = preferOffline;
+        this.parallel = parallel;
+        this.buildIncludesOnly = buildIncludesOnly;
     }
 
     @Override
@@ -388,6 +446,16 @@ public class ScmRepository {
                 return false;
         } else if (!excludes.equals(other.excludes))
             return false;
+        if (buildIncludesOnly != other.buildIncludesOnly)
+            return false;
+        if (parallel != other.parallel)
+            return false;
+        if (preferOffline != other.preferOffline)
+            return false;
+        if (incremental != other.incremental)
+            return false;
+        if (skipInstalled != other.skipInstalled)
+            return false;
         if (skipTests != other.skipTests)
             return false;
         if (urls == null) {
@@ -415,6 +483,16 @@ public class ScmRepository {
         return builderIo;
     }
 
+    /**
+     * If {@code true} only the modules of the source tree matching {@link #getGavSet()} (plus the modules they depend
+     * on) will be built. Otherwise, the whole source tree is built.
+     *
+     * @return {@code true} or {@code false}
+     */
+    public boolean isBuildIncludesOnly() {
+        return buildIncludesOnly;
+    }
+
     /**
      * @return the timeout to use when building source from this repository
      */
@@ -514,6 +592,11 @@ public class ScmRepository {
         result = prime * result + ((gradle == null) ? 0 : gradle.hashCode());
         result = prime * result + ((includes == null) ? 0 : includes.hashCode());
         result = prime * result + ((excludes == null) ? 0 : excludes.hashCode());
+        result = prime * result + (buildIncludesOnly ? 1231 : 1237);
+        result = prime * result + (parallel ? 1231 : 1237);
+        result = prime * result + (preferOffline ? 1231 : 1237);
+        result = prime * result + (incremental ? 1231 : 1237);
+        result = prime * result + (skipInstalled ? 1231 : 1237);
         result = prime * result + (skipTests ? 1231 : 1237);
         result = prime * result + ((urls == null) ? 0 : urls.hashCode());
         result = prime * result + ((verbosity == null) ? 0 : verbosity.hashCode());
@@ -531,6 +614,47 @@ public class ScmRepository {
         return addDefaultBuildArguments;
     }
 
+    /**
+     * If {@code true} the build tool's {@code clean} will be omitted provided that the previous build in the same
+     * build directory was of an ancestor commit and with the same build arguments and environment. The build tool's
+     * own up-to-date checks then decide what needs to be rebuilt.
+     *
+     * @return {@code true} or {@code false}
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * If {@code true} the build tool will be asked to build the modules of the source tree in parallel using a number
+     * of threads derived from the number of available CPU cores and from the maximal number of builds that can run
+     * concurrently, i.e. the number of {@link org.srcdeps.core.fs.BuildSemaphore} permits.
+     *
+     * @return {@code true} or {@code false}
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * If {@code true} and there is a record of a previous successful build in the same build directory, the build
+     * tool will be first run in offline mode. Only if the offline build fails, it will be retried online.
+     *
+     * @return {@code true} or {@code false}
+     */
+    public boolean isPreferOffline() {
+        return preferOffline;
+    }
+
+    /**
+     * @return {@code true} if builds of immutable ({@code tag} and {@code revision}) versions should be skipped if
+     *         the artifacts of a previous build with the same inputs are still installed in the local Maven repository;
+     *         {@code false} otherwise
+     */
+    public boolean isSkipInstalled() {
+        return skipInstalled;
+    }
+
     /**
      * If {@code true} no tests will be run when building a dependency. For dependencies built with Maven, this accounts
      * to adding {@code -DskipTests} to the {@code mvn} arguments.
@@ -546,7 +670,9 @@ public class ScmRepository {
         return "ScmRepository [addDefaultBuildArguments=" + addDefaultBuildArguments + ", buildArguments="
                 + buildArguments + ", builderIo=" + builderIo + ", buildTimeout=" + buildTimeout + ", id=" + id
                 + ", maven=" + maven + ", gradle=" + gradle + ", includes=" + includes + ", excludes=" + excludes
-                + ", skipTests=" + skipTests + ", urls=" + urls + ", verbosity=" + verbosity + "]";
+                + ", skipTests=" + skipTests + ", urls=" + urls + ", verbosity=" + verbosity
+                + ", buildIncludesOnly=" + buildIncludesOnly + ", parallel=" + parallel + ", preferOffline="
+                + preferOffline + ", incremental=" + incremental + ", skipInstalled=" + skipInstalled + "]";
     }
 
 }
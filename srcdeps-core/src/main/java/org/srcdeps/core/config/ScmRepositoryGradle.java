@@ -32,16 +32,39 @@ import org.srcdeps.core.config.tree.impl.DefaultScalarNode;
 public class ScmRepositoryGradle {
     public static class Builder extends DefaultContainerNode<Node> {
 
+        final ScalarNode<Boolean> buildCache = new DefaultScalarNode<>("buildCache", Boolean.FALSE);
+
+        final ScalarNode<Boolean> configurationCache = new DefaultScalarNode<>("configurationCache", Boolean.FALSE);
+
+        final ScalarNode<Boolean> daemon = new DefaultScalarNode<>("daemon", Boolean.FALSE);
+
         final ScalarNode<CharStreamSource> modelTransformer = new DefaultScalarNode<>("modelTransformer",
                 CharStreamSource.defaultModelTransformer());
 
         public Builder() {
             super("gradle");
-            addChildren(modelTransformer);
+            addChildren(modelTransformer, daemon, buildCache, configurationCache);
         }
 
         public ScmRepositoryGradle build() {
-            return new ScmRepositoryGradle(modelTransformer.getValue());
+            /* the Booleans may be null if the defaults were not applied */
+            return new ScmRepositoryGradle(modelTransformer.getValue(), Boolean.TRUE.equals(daemon.getValue()),
+                    Boolean.TRUE.equals(buildCache.getValue()), Boolean.TRUE.equals(configurationCache.getValue()));
+        }
+
+        public Builder buildCache(boolean buildCache) {
+            this.buildCache.setValue(buildCache);
+            return this;
+        }
+
+        public Builder configurationCache(boolean configurationCache) {
+            this.configurationCache.setValue(configurationCache);
+            return this;
+        }
+
+        public Builder daemon(boolean daemon) {
+            this.daemon.setValue(daemon);
+            return this;
         }
 
         @Override
@@ -60,11 +83,21 @@ public class ScmRepositoryGradle {
         return new Builder();
     }
 
+    private final boolean buildCache;
+
+    private final boolean configurationCache;
+
+    private final boolean daemon;
+
     private final CharStreamSource modelTransformer;
 
-    public ScmRepositoryGradle(CharStreamSource modelTransformer) {
+    public ScmRepositoryGradle(CharStreamSource modelTransformer, boolean daemon, boolean buildCache,
+            boolean configurationCache) {
         super();
         this.modelTransformer = modelTransformer;
+        this.daemon = daemon;
+        this.buildCache = buildCache;
+        this.configurationCache = configurationCache;
     }
 
     @Override
@@ -76,6 +109,12 @@ public class ScmRepositoryGradle {
         if (getClass() != obj.getClass())
             return false;
         ScmRepositoryGradle other = (ScmRepositoryGradle) obj;
+        if (buildCache != other.buildCache)
+            return false;
+        if (configurationCache != other.configurationCache)
+            return false;
+        if (daemon != other.daemon)
+            return false;
         if (modelTransformer == null) {
             if (other.modelTransformer != null)
                 return false;
@@ -92,17 +131,46 @@ public class ScmRepositoryGradle {
         return modelTransformer;
     }
 
+    /**
+     * @return {@code true} if Gradle's local build cache shared by all build directories of this source repository
+     *         should be enabled so that task outputs can be reused across builds of nearby commits; {@code false}
+     *         otherwise
+     */
+    public boolean isBuildCache() {
+        return buildCache;
+    }
+
+    /**
+     * @return {@code true} if Gradle's configuration cache should be enabled; {@code false} otherwise. Requires Gradle
+     *         6.6 or newer
+     */
+    public boolean isConfigurationCache() {
+        return configurationCache;
+    }
+
+    /**
+     * @return {@code true} if {@code --daemon} should be passed to Gradle when building this source repository, so
+     *         that Gradle may reuse a compatible idle daemon; {@code false} if {@code --no-daemon} should be passed
+     */
+    public boolean isDaemon() {
+        return daemon;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
+        result = prime * result + (buildCache ? 1231 : 1237);
+        result = prime * result + (configurationCache ? 1231 : 1237);
+        result = prime * result + (daemon ? 1231 : 1237);
         result = prime * result + ((modelTransformer == null) ? 0 : modelTransformer.hashCode());
         return result;
     }
 
     @Override
     public String toString() {
-        return "ScmRepositoryGradle [modelTransformer=" + modelTransformer + "]";
+        return "ScmRepositoryGradle [buildCache=" + buildCache + ", configurationCache=" + configurationCache
+                + ", daemon=" + daemon + ", modelTransformer=" + modelTransformer + "]";
     }
 
 }
@@ -19,6 +19,7 @@ package org.srcdeps.core.config;
 import java.util.Map;
 import java.util.Stack;
 
+import org.srcdeps.core.BuildRequest.SetVersionsMode;
 import org.srcdeps.core.config.tree.Node;
 import org.srcdeps.core.config.tree.ScalarNode;
 import org.srcdeps.core.config.tree.impl.DefaultContainerNode;
@@ -31,6 +32,9 @@ import org.srcdeps.core.config.tree.impl.DefaultScalarNode;
  */
 public class ScmRepositoryMaven {
     public static class Builder extends DefaultContainerNode<Node> {
+        final ScalarNode<Boolean> isolatedInstall = new DefaultScalarNode<>("isolatedInstall", Boolean.FALSE);
+        final ScalarNode<SetVersionsMode> setVersionsMode = new DefaultScalarNode<>("setVersionsMode",
+                SetVersionsMode.versionsMavenPlugin);
         ScalarNode<String> versionsMavenPluginVersion = new DefaultScalarNode<String>("versionsMavenPluginVersion",
                 null, String.class) {
 
@@ -50,11 +54,13 @@ public class ScmRepositoryMaven {
 
         public Builder() {
             super("maven");
-            addChildren(versionsMavenPluginVersion);
+            addChildren(versionsMavenPluginVersion, setVersionsMode, isolatedInstall);
         }
 
         public ScmRepositoryMaven build() {
-            return new ScmRepositoryMaven(versionsMavenPluginVersion.getValue());
+            /* isolatedInstall may be null if the defaults were not applied */
+            return new ScmRepositoryMaven(versionsMavenPluginVersion.getValue(), setVersionsMode.getValue(),
+                    Boolean.TRUE.equals(isolatedInstall.getValue()));
         }
 
         public Builder commentBefore(String value) {
@@ -67,6 +73,16 @@ public class ScmRepositoryMaven {
             return children;
         }
 
+        public Builder isolatedInstall(boolean isolatedInstall) {
+            this.isolatedInstall.setValue(isolatedInstall);
+            return this;
+        }
+
+        public Builder setVersionsMode(SetVersionsMode setVersionsMode) {
+            this.setVersionsMode.setValue(setVersionsMode);
+            return this;
+        }
+
         public Builder versionsMavenPluginVersion(String versionsMavenPluginVersion) {
             this.versionsMavenPluginVersion.setValue(versionsMavenPluginVersion);
             return this;
@@ -78,11 +94,18 @@ public class ScmRepositoryMaven {
         return new Builder();
     }
 
+    private final boolean isolatedInstall;
+
+    private final SetVersionsMode setVersionsMode;
+
     private final String versionsMavenPluginVersion;
 
-    public ScmRepositoryMaven(String versionsMavenPluginVersion) {
+    public ScmRepositoryMaven(String versionsMavenPluginVersion, SetVersionsMode setVersionsMode,
+            boolean isolatedInstall) {
         super();
         this.versionsMavenPluginVersion = versionsMavenPluginVersion;
+        this.setVersionsMode = setVersionsMode;
+        this.isolatedInstall = isolatedInstall;
     }
 
     @Override
@@ -94,6 +117,10 @@ public class ScmRepositoryMaven {
         if (getClass() != obj.getClass())
             return false;
         ScmRepositoryMaven other = (ScmRepositoryMaven) obj;
+        if (isolatedInstall != other.isolatedInstall)
+            return false;
+        if (setVersionsMode != other.setVersionsMode)
+            return false;
         if (versionsMavenPluginVersion == null) {
             if (other.versionsMavenPluginVersion != null)
                 return false;
@@ -102,6 +129,13 @@ public class ScmRepositoryMaven {
         return true;
     }
 
+    /**
+     * @return the way how the versions should be set in the given source repository before building it
+     */
+    public SetVersionsMode getSetVersionsMode() {
+        return setVersionsMode;
+    }
+
     /**
      * @return the version of {@code org.codehaus.mojo:versions-maven-plugin} to use when setting versions in the given
      *         source repository. When not set explicitly, the default is
@@ -111,16 +145,28 @@ public class ScmRepositoryMaven {
         return versionsMavenPluginVersion;
     }
 
+    /**
+     * @return {@code true} if the dependency build should install into a private overlay repository whose content
+     *         gets published to the local Maven repository only after the build has succeeded; {@code false} if the
+     *         build should install into the local Maven repository directly
+     */
+    public boolean isIsolatedInstall() {
+        return isolatedInstall;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
+        result = prime * result + (isolatedInstall ? 1231 : 1237);
+        result = prime * result + ((setVersionsMode == null) ? 0 : setVersionsMode.hashCode());
         result = prime * result + ((versionsMavenPluginVersion == null) ? 0 : versionsMavenPluginVersion.hashCode());
         return result;
     }
 
     @Override
     public String toString() {
-        return "ScmRepositoryMaven [versionsMavenPluginVersion=" + versionsMavenPluginVersion + "]";
+        return "ScmRepositoryMaven [isolatedInstall=" + isolatedInstall + ", setVersionsMode=" + setVersionsMode
+                + ", versionsMavenPluginVersion=" + versionsMavenPluginVersion + "]";
     }
 }
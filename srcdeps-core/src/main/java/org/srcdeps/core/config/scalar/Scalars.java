@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.srcdeps.core.BuildRequest.SetVersionsMode;
 import org.srcdeps.core.BuildRequest.Verbosity;
 import org.srcdeps.core.config.tree.ScalarDeserializer;
 
@@ -147,6 +148,12 @@ public final class Scalars {
                 return Verbosity.fastValueOf(value);
             }
         });
+        primitives.put(SetVersionsMode.class, new ScalarDeserializer() {
+            @Override
+            public Object deserialize(String value) {
+                return SetVersionsMode.fastValueOf(value);
+            }
+        });
         primitives.put(Path.class, new ScalarDeserializer() {
             @Override
             public Object deserialize(String value) {
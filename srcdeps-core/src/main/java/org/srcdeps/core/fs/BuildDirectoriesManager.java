@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.srcdeps.core.BuildException;
 import org.srcdeps.core.SrcVersion;
 import org.srcdeps.core.config.ScmRepository;
+import org.srcdeps.core.util.FlightRecorderEvent;
 import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
@@ -51,6 +52,32 @@ public class BuildDirectoriesManager {
 
     private static final Logger log = LoggerFactory.getLogger(BuildDirectoriesManager.class);
 
+    /**
+     * @param buildDirectory
+     *            a directory returned by {@link #openBuildDirectory(Path, SrcVersion)}
+     * @return the integer {@code i} the given {@code buildDirectory} ends with, or {@code -1} if it was not created by
+     *         {@link #openBuildDirectory(Path, SrcVersion)}
+     */
+    public static int getSlotIndex(Path buildDirectory) {
+        final Path fileName = buildDirectory.getFileName();
+        if (fileName == null) {
+            return -1;
+        }
+        final String name = fileName.toString();
+        if (name.isEmpty() || name.length() > 3) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = 0; i < name.length(); i++) {
+            final char ch = name.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            result = result * 10 + (ch - '0');
+        }
+        return result < CONCURRENCY_THRESHOLD ? result : -1;
+    }
+
     private final PathLocker<SrcVersion> pathLocker;
     private final Path rootDirectory;
 
@@ -81,6 +108,25 @@ public class BuildDirectoriesManager {
      * @throws IOException
      */
     public PathLock openBuildDirectory(Path projectBuildHome, SrcVersion srcVersion) throws BuildException, IOException {
+        final FlightRecorderEvent event = FlightRecorderEvent.OPEN_BUILD_DIRECTORY.begin();
+        int slot = -1;
+        try {
+            final PathLock result = openBuildDirectoryInternal(projectBuildHome, srcVersion);
+            slot = getSlotIndex(result.getPath());
+            return result;
+        } finally {
+            if (event.isRecording()) {
+                /* the inverse of ScmRepository.getIdAsPath() */
+                final String repositoryId = projectBuildHome.toString()
+                        .replace(projectBuildHome.getFileSystem().getSeparator(), ".");
+                event.set("repository", repositoryId).set("srcVersion", String.valueOf(srcVersion)).set("slot", slot);
+            }
+            event.commit();
+        }
+    }
+
+    private PathLock openBuildDirectoryInternal(Path projectBuildHome, SrcVersion srcVersion)
+            throws BuildException, IOException {
 
         Path scmRepositoryDir = rootDirectory.resolve(projectBuildHome);
         SrcdepsCoreUtils.ensureDirectoryExists(scmRepositoryDir);
@@ -89,7 +135,9 @@ public class BuildDirectoriesManager {
         for (int i = 0; i < CONCURRENCY_THRESHOLD; i++) {
             Path checkoutDirectoryPath = scmRepositoryDir.resolve(String.valueOf(i));
             try {
-                return pathLocker.lockDirectory(checkoutDirectoryPath, srcVersion);
+                final PathLock result = pathLocker.lockDirectory(checkoutDirectoryPath, srcVersion);
+                pathLocker.getMetrics().buildDirectoryOpened(projectBuildHome, i, i + 1);
+                return result;
             } catch (CannotAcquireLockException e) {
                 /* nevermind, another i will work */
                 lastException = e;
@@ -97,6 +145,7 @@ public class BuildDirectoriesManager {
             }
         }
 
+        pathLocker.getMetrics().buildDirectoryFailed(projectBuildHome, CONCURRENCY_THRESHOLD);
         throw new BuildException(String.format("Could not get PathLock for any of 0-%d subpaths of [%s]",
                 CONCURRENCY_THRESHOLD - 1, scmRepositoryDir), lastException);
 
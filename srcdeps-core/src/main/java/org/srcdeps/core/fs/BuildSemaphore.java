@@ -0,0 +1,312 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.fs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * A machine wide counting semaphore limiting the number of source dependency builds running at the same time. The
+ * permits are represented by files {@code permit-0.lock} to {@code permit-<n-1>.lock} in {@link #directory} and a
+ * permit is held as long as its file is locked on the filesystem level. Hence the limit applies both to the threads of
+ * the current VM and to other OS processes, as long as they use the same {@link #directory}.
+ * <p>
+ * The filesystem level locks are held on behalf of the whole VM and closing any channel to a lock file would release
+ * them. Therefore, the threads of the current VM first need to get an in-VM guard of the given permit and only the
+ * thread holding the guard ever opens the permit's lock file.
+ * <p>
+ * The number of permits is taken from the {@value #PERMITS_PROPERTY} system property. If not set, it is the number of
+ * available processors or the total physical memory divided by {@value #MEMORY_PER_BUILD_PROPERTY} megabytes,
+ * whichever is smaller.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@Named
+@Singleton
+public class BuildSemaphore {
+
+    /**
+     * A permit acquired via {@link BuildSemaphore#acquire(long)}. Do not forget to release it using {@link #close()}.
+     */
+    public static class Permit implements Closeable {
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final Semaphore guard;
+        private final RandomAccessFile lockFile;
+        private final Path lockFilePath;
+
+        Permit(RandomAccessFile lockFile, Path lockFilePath, Semaphore guard) {
+            super();
+            this.lockFile = lockFile;
+            this.lockFilePath = lockFilePath;
+            this.guard = guard;
+        }
+
+        /**
+         * Releases this {@link Permit}. Calling this method more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                BuildSemaphore.close(lockFile, lockFilePath);
+                guard.release();
+            }
+        }
+
+        /**
+         * @return the lock file representing this {@link Permit}
+         */
+        public Path getLockFilePath() {
+            return lockFilePath;
+        }
+    }
+
+    /** The default for {@value #MEMORY_PER_BUILD_PROPERTY} */
+    private static final long DEFAULT_MEMORY_PER_BUILD_MB = 1024;
+
+    /** The directory where the permit lock files are stored */
+    public static final String DIRECTORY_PROPERTY = "srcdeps.build.permits.directory";
+
+    /**
+     * The in-VM guards of the permits keyed by the absolute paths of their lock files. The map is static so that also
+     * several {@link BuildSemaphore} instances sharing the same {@link #directory} cannot release each other's
+     * filesystem level locks.
+     */
+    private static final ConcurrentMap<Path, Semaphore> guards = new ConcurrentHashMap<>();
+
+    private static final Logger log = LoggerFactory.getLogger(BuildSemaphore.class);
+
+    /** The number of megabytes of physical memory a build is assumed to need */
+    public static final String MEMORY_PER_BUILD_PROPERTY = "srcdeps.build.permits.memoryPerBuildMb";
+
+    /** The maximal pause between two attempts to acquire a permit */
+    private static final long MAX_POLL_INTERVAL_MS = 1000;
+
+    /** The number of permits */
+    public static final String PERMITS_PROPERTY = "srcdeps.build.permits";
+
+    private static void close(RandomAccessFile lockFile, Path lockFilePath) {
+        if (lockFile != null) {
+            try {
+                lockFile.close();
+            } catch (IOException e) {
+                log.warn(String.format("Could not close lock file [%s]", lockFilePath), e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of permits derived from the available processors and the total physical memory of the
+     *         present machine
+     */
+    static int computeDefaultPermits() {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final long memoryPerBuildMb = Long.getLong(MEMORY_PER_BUILD_PROPERTY, DEFAULT_MEMORY_PER_BUILD_MB);
+        final long totalMemory = getTotalPhysicalMemory();
+        if (totalMemory <= 0 || memoryPerBuildMb <= 0) {
+            return cores;
+        }
+        final long memoryPermits = totalMemory / (memoryPerBuildMb * 1024 * 1024);
+        return (int) Math.max(1, Math.min(cores, memoryPermits));
+    }
+
+    /**
+     * @return the number of permits used by {@link #BuildSemaphore()}: the value of the {@value #PERMITS_PROPERTY}
+     *         system property if set or {@link #computeDefaultPermits()} otherwise
+     */
+    public static int getDefaultPermits() {
+        return Integer.getInteger(PERMITS_PROPERTY, computeDefaultPermits());
+    }
+
+    /**
+     * @param lockFilePath
+     *            the path of a permit lock file
+     * @return the in-VM guard of the permit represented by the given {@code lockFilePath}
+     */
+    private static Semaphore getGuard(Path lockFilePath) {
+        final Path key = lockFilePath.toAbsolutePath().normalize();
+        final Semaphore newGuard = new Semaphore(1);
+        final Semaphore oldGuard = guards.putIfAbsent(key, newGuard);
+        return oldGuard == null ? newGuard : oldGuard;
+    }
+
+    /**
+     * {@code com.sun.management.OperatingSystemMXBean} is not available on all VMs, hence the reflection.
+     *
+     * @return the total physical memory in bytes or {@code -1} if it cannot be determined
+     */
+    private static long getTotalPhysicalMemory() {
+        final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        try {
+            final Class<?> cl = Class.forName("com.sun.management.OperatingSystemMXBean");
+            if (!cl.isInstance(os)) {
+                return -1;
+            }
+            final Method m = cl.getMethod("getTotalPhysicalMemorySize");
+            return ((Number) m.invoke(os)).longValue();
+        } catch (Exception e) {
+            log.debug("srcdeps: Could not determine the total physical memory", e);
+            return -1;
+        }
+    }
+
+    private final Path directory;
+    private final int permits;
+
+    /**
+     * Creates a new {@link BuildSemaphore} using the {@value #DIRECTORY_PROPERTY} and {@value #PERMITS_PROPERTY}
+     * system properties if set and the defaults otherwise.
+     */
+    public BuildSemaphore() {
+        this(Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+                Paths.get(System.getProperty("java.io.tmpdir"), "srcdeps-build-permits").toString())),
+                getDefaultPermits());
+    }
+
+    /**
+     * @param directory
+     *            the directory where the permit lock files are stored
+     * @param permits
+     *            the number of permits
+     */
+    public BuildSemaphore(Path directory, int permits) {
+        super();
+        if (permits < 1) {
+            throw new IllegalArgumentException(
+                    String.format("permits must be a positive integer; found [%d]", permits));
+        }
+        this.directory = directory;
+        this.permits = permits;
+        log.debug("srcdeps: Using {} build permits in [{}]", permits, directory);
+    }
+
+    /**
+     * Acquires a permit, waiting at most {@code timeoutMs} milliseconds for one to become available.
+     * <p>
+     * The returned {@link Permit} should be released using its {@link Closeable#close()} method.
+     *
+     * @param timeoutMs
+     *            how long to wait for a permit
+     * @return the acquired {@link Permit}
+     * @throws BuildException
+     *             if no permit could be acquired within {@code timeoutMs}, if the current thread was interrupted
+     *             while waiting or if {@link #directory} could not be created
+     */
+    public Permit acquire(long timeoutMs) throws BuildException {
+        try {
+            SrcdepsCoreUtils.ensureDirectoryExists(directory);
+        } catch (IOException e) {
+            throw new BuildException(String.format("Could not create directory [%s]", directory), e);
+        }
+        final long start = System.currentTimeMillis();
+        long pollIntervalMs = 10;
+        boolean logged = false;
+        while (true) {
+            final Permit result = tryAcquire();
+            if (result != null) {
+                return result;
+            }
+            final long waitedMs = System.currentTimeMillis() - start;
+            if (waitedMs >= timeoutMs) {
+                throw new BuildException(String.format(
+                        "Could not acquire any of %d build permits in [%s] within %d ms", permits, directory,
+                        timeoutMs));
+            }
+            if (!logged) {
+                log.info("srcdeps: All {} build permits in [{}] are taken, waiting for one to be released", permits,
+                        directory);
+                logged = true;
+            }
+            try {
+                Thread.sleep(Math.min(pollIntervalMs, timeoutMs - waitedMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BuildException("Interrupted while waiting for a build permit", e);
+            }
+            pollIntervalMs = Math.min(pollIntervalMs * 2, MAX_POLL_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * @return the directory where the permit lock files are stored
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the number of permits
+     */
+    public int getPermits() {
+        return permits;
+    }
+
+    /**
+     * @return a {@link Permit} or {@code null} if all permits are taken
+     */
+    private Permit tryAcquire() {
+        for (int i = 0; i < permits; i++) {
+            final Path lockFilePath = directory.resolve("permit-" + i + ".lock");
+            final Semaphore guard = getGuard(lockFilePath);
+            if (!guard.tryAcquire()) {
+                /* the permit is held by another thread of the current VM - a normal situation */
+                continue;
+            }
+            RandomAccessFile lockFile = null;
+            try {
+                lockFile = new RandomAccessFile(lockFilePath.toFile(), "rw");
+                final FileLock fsLock = lockFile.getChannel().tryLock();
+                if (fsLock != null) {
+                    log.debug("srcdeps: Acquired build permit [{}]", lockFilePath);
+                    return new Permit(lockFile, lockFilePath, guard);
+                }
+                /* the permit is held by another process */
+                close(lockFile, lockFilePath);
+            } catch (OverlappingFileLockException e) {
+                /* should not happen thanks to the guard, unless somebody else locks our files in the current VM */
+                log.warn(String.format("Lock file [%s] locked by an unknown party in the current VM", lockFilePath),
+                        e);
+                close(lockFile, lockFilePath);
+            } catch (IOException e) {
+                log.warn(String.format("Could not lock [%s]", lockFilePath), e);
+                close(lockFile, lockFilePath);
+            }
+            guard.release();
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.fs;
+
+import java.nio.file.Path;
+
+/**
+ * A callback notified by {@link PathLocker} and {@link BuildDirectoriesManager} about the outcomes of their locking
+ * attempts, so that the contention on build directories can be monitored. {@link LockStatistics} is an implementation
+ * that aggregates the notifications into counters and histograms.
+ * <p>
+ * The methods are called synchronously from the locking threads, hence the implementations must be thread safe and
+ * fast.
+ * <p>
+ * Implementations bound in the DI container (e.g. annotated with {@code @Named}) are injected into the
+ * {@link PathLocker} singleton.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public interface LockMetrics {
+
+    /**
+     * The reasons why {@link PathLocker#lockDirectory(Path, Object)} can fail.
+     */
+    enum Failure {
+        /** The path is locked by another thread of the current VM for different metadata */
+        threadBusy,
+        /** An unexpected exception occurred when locking the lock file */
+        fsError,
+        /** The lock file is locked by another OS process */
+        fsLocked,
+        /** The lock file is locked through another channel of the current VM */
+        fsOverlapping
+    }
+
+    /** A {@link LockMetrics} ignoring all notifications */
+    LockMetrics NO_OP = new LockMetrics() {
+        @Override
+        public void buildDirectoryFailed(Path projectBuildHome, int probes) {
+        }
+
+        @Override
+        public void buildDirectoryOpened(Path projectBuildHome, int slotIndex, int probes) {
+        }
+
+        @Override
+        public void lockAcquired(Path path, long threadWaitNanos) {
+        }
+
+        @Override
+        public void lockFailed(Path path, long threadWaitNanos, Failure failure) {
+        }
+    };
+
+    /**
+     * Called when {@link BuildDirectoriesManager#openBuildDirectory(Path, org.srcdeps.core.SrcVersion)} failed because
+     * all build directories were busy.
+     *
+     * @param projectBuildHome
+     *            the project build home passed to {@code openBuildDirectory()}
+     * @param probes
+     *            the number of build directories that were tried
+     */
+    void buildDirectoryFailed(Path projectBuildHome, int probes);
+
+    /**
+     * Called when {@link BuildDirectoriesManager#openBuildDirectory(Path, org.srcdeps.core.SrcVersion)} succeeded.
+     *
+     * @param projectBuildHome
+     *            the project build home passed to {@code openBuildDirectory()}
+     * @param slotIndex
+     *            the index of the opened build directory; see {@link BuildDirectoriesManager#getSlotIndex(Path)}
+     * @param probes
+     *            the number of build directories that were tried including the one that was opened
+     */
+    void buildDirectoryOpened(Path projectBuildHome, int slotIndex, int probes);
+
+    /**
+     * Called when {@link PathLocker#lockDirectory(Path, Object)} succeeded.
+     *
+     * @param path
+     *            the locked path
+     * @param threadWaitNanos
+     *            how long the current thread waited for other threads of the current VM to release the path
+     */
+    void lockAcquired(Path path, long threadWaitNanos);
+
+    /**
+     * Called when {@link PathLocker#lockDirectory(Path, Object)} failed.
+     *
+     * @param path
+     *            the path that could not be locked
+     * @param threadWaitNanos
+     *            how long the current thread waited for other threads of the current VM to release the path
+     * @param failure
+     *            the reason of the failure
+     */
+    void lockFailed(Path path, long threadWaitNanos, Failure failure);
+
+}
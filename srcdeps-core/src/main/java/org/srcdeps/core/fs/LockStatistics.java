@@ -0,0 +1,158 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.fs;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.srcdeps.core.util.Histogram;
+
+/**
+ * A {@link LockMetrics} aggregating the notifications into lock free counters and {@link Histogram}s. Pass it to
+ * {@link PathLocker#PathLocker(LockMetrics)} or bind it in the DI container and read the figures at any time, e.g. to export them to a monitoring
+ * system.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class LockStatistics implements LockMetrics {
+
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong failedOpenCount = new AtomicLong();
+    private final AtomicLongArray failureCounts = new AtomicLongArray(Failure.values().length);
+    private final AtomicInteger maxSlotIndex = new AtomicInteger(-1);
+    private final Histogram probes = new Histogram();
+    private final Histogram threadWaitNanos = new Histogram();
+
+    public LockStatistics() {
+        super();
+    }
+
+    @Override
+    public void buildDirectoryFailed(Path projectBuildHome, int probeCount) {
+        failedOpenCount.incrementAndGet();
+        probes.record(probeCount);
+    }
+
+    @Override
+    public void buildDirectoryOpened(Path projectBuildHome, int slotIndex, int probeCount) {
+        probes.record(probeCount);
+        int currentMax;
+        while (slotIndex > (currentMax = maxSlotIndex.get())) {
+            if (maxSlotIndex.compareAndSet(currentMax, slotIndex)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the number of successful {@link PathLocker#lockDirectory(Path, Object)} calls
+     */
+    public long getAcquiredCount() {
+        return acquiredCount.get();
+    }
+
+    /**
+     * @return the number of {@link PathLocker#lockDirectory(Path, Object)} calls, successful or not
+     */
+    public long getAttemptCount() {
+        long result = acquiredCount.get();
+        for (int i = 0; i < failureCounts.length(); i++) {
+            result += failureCounts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of {@link BuildDirectoriesManager#openBuildDirectory(Path, org.srcdeps.core.SrcVersion)}
+     *         calls that failed because all build directories were busy
+     */
+    public long getFailedOpenCount() {
+        return failedOpenCount.get();
+    }
+
+    /**
+     * @param failure
+     *            the kind of failure
+     * @return the number of {@link PathLocker#lockDirectory(Path, Object)} calls that failed for the given reason
+     */
+    public long getFailureCount(Failure failure) {
+        return failureCounts.get(failure.ordinal());
+    }
+
+    /**
+     * @param failure
+     *            the kind of failure
+     * @return the ratio of {@link #getFailureCount(Failure)} to {@link #getAttemptCount()} or {@code 0} if there were
+     *         no attempts
+     */
+    public double getFailureRate(Failure failure) {
+        final long attempts = getAttemptCount();
+        return attempts == 0 ? 0 : (double) getFailureCount(failure) / attempts;
+    }
+
+    /**
+     * @return the greatest slot index ever opened by a {@link BuildDirectoriesManager}, or {@code -1} if none was
+     *         opened so far. A value greater than the number of concurrent builds the machine is supposed to run
+     *         signals a contention problem.
+     */
+    public int getMaxSlotIndex() {
+        return maxSlotIndex.get();
+    }
+
+    /**
+     * @return the {@link Histogram} of the numbers of build directories tried by
+     *         {@link BuildDirectoriesManager#openBuildDirectory(Path, org.srcdeps.core.SrcVersion)} until one could be
+     *         opened or until all of them turned out to be busy
+     */
+    public Histogram getProbes() {
+        return probes;
+    }
+
+    /**
+     * @return the {@link Histogram} of the times in nanoseconds the threads waited for other threads of the current
+     *         VM in {@link PathLocker#lockDirectory(Path, Object)}
+     */
+    public Histogram getThreadWaitNanos() {
+        return threadWaitNanos;
+    }
+
+    @Override
+    public void lockAcquired(Path path, long waitNanos) {
+        acquiredCount.incrementAndGet();
+        threadWaitNanos.record(waitNanos);
+    }
+
+    @Override
+    public void lockFailed(Path path, long waitNanos, Failure failure) {
+        failureCounts.incrementAndGet(failure.ordinal());
+        threadWaitNanos.record(waitNanos);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder("LockStatistics [acquired=").append(getAcquiredCount());
+        for (Failure failure : Failure.values()) {
+            result.append(", ").append(failure).append('=').append(getFailureCount(failure));
+        }
+        return result.append(", failedOpens=").append(getFailedOpenCount()).append(", maxSlotIndex=")
+                .append(getMaxSlotIndex()).append(", probes=").append(probes)
+                .append(", threadWaitNanos=").append(threadWaitNanos).append(']').toString();
+    }
+
+}
@@ -22,14 +22,17 @@ import java.io.RandomAccessFile;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Path;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.srcdeps.core.util.FlightRecorderEvent;
 import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
@@ -43,6 +46,48 @@ import org.srcdeps.core.util.SrcdepsCoreUtils;
 @Singleton
 public class PathLocker<M> {
 
+    /**
+     * A {@link LockMetrics} forwarding all notifications to each of the given {@link LockMetrics}.
+     *
+     * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+     */
+    private static class CompositeLockMetrics implements LockMetrics {
+        private final Set<LockMetrics> delegates;
+
+        private CompositeLockMetrics(Set<LockMetrics> delegates) {
+            super();
+            this.delegates = delegates;
+        }
+
+        @Override
+        public void buildDirectoryFailed(Path projectBuildHome, int probes) {
+            for (LockMetrics delegate : delegates) {
+                delegate.buildDirectoryFailed(projectBuildHome, probes);
+            }
+        }
+
+        @Override
+        public void buildDirectoryOpened(Path projectBuildHome, int slotIndex, int probes) {
+            for (LockMetrics delegate : delegates) {
+                delegate.buildDirectoryOpened(projectBuildHome, slotIndex, probes);
+            }
+        }
+
+        @Override
+        public void lockAcquired(Path path, long threadWaitNanos) {
+            for (LockMetrics delegate : delegates) {
+                delegate.lockAcquired(path, threadWaitNanos);
+            }
+        }
+
+        @Override
+        public void lockFailed(Path path, long threadWaitNanos, Failure failure) {
+            for (LockMetrics delegate : delegates) {
+                delegate.lockFailed(path, threadWaitNanos, failure);
+            }
+        }
+    }
+
     /**
      * A pair consisting of a {@link ReentrantLock} and a metadata instance.
      *
@@ -100,6 +145,39 @@ public class PathLocker<M> {
     /** The map from filesystem paths to {@link LockMetadataPair}s */
     private final ConcurrentHashMap<Path, LockMetadataPair<M>> locks = new ConcurrentHashMap<>();
 
+    /** The {@link LockMetrics} to notify about the outcomes of {@link #lockDirectory(Path, Object)} */
+    private final LockMetrics metrics;
+
+    public PathLocker() {
+        this(LockMetrics.NO_OP);
+    }
+
+    /**
+     * @param metrics
+     *            the {@link LockMetrics} to notify about the outcomes of {@link #lockDirectory(Path, Object)}
+     */
+    public PathLocker(LockMetrics metrics) {
+        super();
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param metrics
+     *            the {@link LockMetrics} bound in the DI container to notify about the outcomes of
+     *            {@link #lockDirectory(Path, Object)}
+     */
+    @Inject
+    public PathLocker(Set<LockMetrics> metrics) {
+        this(new CompositeLockMetrics(metrics));
+    }
+
+    /**
+     * @return the {@link LockMetrics} notified about the outcomes of {@link #lockDirectory(Path, Object)}
+     */
+    public LockMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Tries to acquire both thread level and OS process level exclusive lock to the given filesystem {@code path}. As
      * for blocking of the current thread during the call of the present method there are four different cases:
@@ -160,6 +238,22 @@ public class PathLocker<M> {
      *             if the lock cannot be acquired immediately
      */
     public PathLock lockDirectory(Path path, M pathMetadata) throws IOException, CannotAcquireLockException {
+        final FlightRecorderEvent event = FlightRecorderEvent.LOCK_DIRECTORY.begin();
+        boolean acquired = false;
+        try {
+            final PathLock result = lockDirectoryInternal(path, pathMetadata);
+            acquired = true;
+            return result;
+        } finally {
+            if (event.isRecording()) {
+                event.set("path", path.toString()).set("metadata", String.valueOf(pathMetadata)).set("acquired",
+                        acquired);
+            }
+            event.commit();
+        }
+    }
+
+    private PathLock lockDirectoryInternal(Path path, M pathMetadata) throws IOException, CannotAcquireLockException {
         SrcdepsCoreUtils.ensureDirectoryExists(path);
         // resolve(String.valueOf(i) + ".lock");
         final LockMetadataPair<M> newPair = new LockMetadataPair<M>(new ReentrantLock(), pathMetadata);
@@ -170,9 +264,10 @@ public class PathLocker<M> {
             final ReentrantLock lock = mdPair.getLock();
             final M oldMd = mdPair.getMetadata();
             if (oldMd.equals(pathMetadata)) {
+                final long start = System.nanoTime();
                 lock.lock();
                 log.debug("Locked on thread level {}", path);
-                return lockInFilesystem(path, lock);
+                return lockInFilesystem(path, lock, System.nanoTime() - start);
             } else {
                 /*
                  * in case the mdPair has a different metadata from a previous call we try to lock immediately and
@@ -181,8 +276,9 @@ public class PathLocker<M> {
                 if (lock.tryLock()) {
                     log.debug("Locked on thread level {}", path);
                     mdPair.setMetadata(pathMetadata);
-                    return lockInFilesystem(path, lock);
+                    return lockInFilesystem(path, lock, 0L);
                 } else {
+                    metrics.lockFailed(path, 0L, LockMetrics.Failure.threadBusy);
                     throw new CannotAcquireLockException(
                             String.format("Path [%s] is locked by another thread for [%s]", path, oldPair));
                 }
@@ -190,7 +286,8 @@ public class PathLocker<M> {
         }
     }
 
-    private PathLock lockInFilesystem(Path path, final ReentrantLock lock) throws CannotAcquireLockException {
+    private PathLock lockInFilesystem(Path path, final ReentrantLock lock, long threadWaitNanos)
+            throws CannotAcquireLockException {
         Path lockFilePath = path.resolveSibling(path.getName(path.getNameCount() - 1) + ".lock");
         RandomAccessFile lockFile = null;
         try {
@@ -198,9 +295,11 @@ public class PathLocker<M> {
             FileLock fsLock = lockFile.getChannel().tryLock();
             log.debug("Locked on FS {} with lock {}", path, fsLock);
             if (fsLock == null) {
+                metrics.lockFailed(path, threadWaitNanos, LockMetrics.Failure.fsLocked);
                 throw new CannotAcquireLockException(
                         String.format("Could not acquire filesystem level lock on [%s]", lockFilePath));
             } else {
+                metrics.lockAcquired(path, threadWaitNanos);
                 return new PathLock(path, lockFile, lockFilePath, lock);
             }
         } catch (CannotAcquireLockException e) {
@@ -211,12 +310,14 @@ public class PathLocker<M> {
              * OverlappingFileLockException may happen if another OS level process holds the channel lock - that is a
              * normal situation, no need to log anything
              */
+            metrics.lockFailed(path, threadWaitNanos, LockMetrics.Failure.fsOverlapping);
             close(lockFile, lockFilePath, lock);
             throw new CannotAcquireLockException(
                     String.format("Could not acquire filesystem level lock on [%s]", lockFilePath), e);
         } catch (Throwable e) {
             /* All other Exceptions are rather unexpected - log those */
             log.warn(String.format("Could not acquire a lock for path [%s]", lockFilePath), e);
+            metrics.lockFailed(path, threadWaitNanos, LockMetrics.Failure.fsError);
             close(lockFile, lockFilePath, lock);
             throw new CannotAcquireLockException(
                     String.format("Could not acquire filesystem level lock on [%s]", lockFilePath), e);
@@ -16,7 +16,12 @@
  */
 package org.srcdeps.core.impl;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -26,14 +31,33 @@ import javax.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.srcdeps.core.BuildException;
+import org.srcdeps.core.BuildListener;
+import org.srcdeps.core.BuildPhase;
+import org.srcdeps.core.BuildPhaseResult;
 import org.srcdeps.core.BuildRequest;
 import org.srcdeps.core.BuildService;
 import org.srcdeps.core.Builder;
+import org.srcdeps.core.Gavtc;
+import org.srcdeps.core.MavenLocalRepository;
+import org.srcdeps.core.RevisionAwareScm;
 import org.srcdeps.core.Scm;
+import org.srcdeps.core.ScmTransferStatistics;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.TransferReportingScm;
+import org.srcdeps.core.fs.BuildDirectoriesManager;
+import org.srcdeps.core.fs.BuildSemaphore;
+import org.srcdeps.core.impl.builder.MavenReactor;
 
 /**
  * The default implementation of {@link BuildService} that makes use of the {@link Builder}s and {@link Scm}s injected
- * by the DI container.
+ * by the DI container. The builds are throttled by the injected {@link BuildSemaphore} so that they queue rather than
+ * overload the machine.
+ * <p>
+ * If {@link BuildRequest#isSkipInstalled()} is {@code true}, an {@link InstallManifest} is written after each
+ * successful build of an immutable version and any later request with the same inputs returns immediately as long as
+ * all artifacts listed in the manifest are still present in the local Maven repository.
+ * <p>
+ * The injected {@link BuildListener}s are notified about the start and the end of each {@link BuildPhase}.
  *
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
@@ -42,40 +66,116 @@ import org.srcdeps.core.Scm;
 public class DefaultBuildService implements BuildService {
     private static final Logger log = LoggerFactory.getLogger(DefaultBuildService.class);
     private final Set<Builder> builders;
+    private final BuildSemaphore buildSemaphore;
+    private final Set<BuildListener> listeners;
     private final Set<Scm> scms;
 
+    public DefaultBuildService(Set<Builder> builders, Set<Scm> scms, BuildSemaphore buildSemaphore) {
+        this(builders, scms, buildSemaphore, Collections.<BuildListener>emptySet());
+    }
+
     @Inject
-    public DefaultBuildService(Set<Builder> builders, Set<Scm> scms) {
+    public DefaultBuildService(Set<Builder> builders, Set<Scm> scms, BuildSemaphore buildSemaphore,
+            Set<BuildListener> listeners) {
         super();
         this.builders = builders;
         this.scms = scms;
+        this.buildSemaphore = buildSemaphore;
+        this.listeners = listeners;
+    }
+
+    /**
+     * @param srcVersion
+     *            the version to check
+     * @return {@code true} if the given {@code srcVersion} always refers to the same sources, i.e. if it is a
+     *         {@code tag} or a {@code revision}; {@code false} otherwise
+     */
+    static boolean isImmutable(SrcVersion srcVersion) {
+        final String type = srcVersion.getScmVersionType();
+        return SrcVersion.WellKnownType.tag.name().equals(type)
+                || SrcVersion.WellKnownType.revision.name().equals(type);
     }
 
     @Override
     public void build(BuildRequest request) throws BuildException {
         final Path dir = request.getProjectRootDirectory();
+        final int slotIndex = BuildDirectoriesManager.getSlotIndex(dir);
         final String firstUrl = request.getScmUrls().iterator().next();
+        final MavenLocalRepository localRepository = request.isSkipInstalled() && isImmutable(request.getSrcVersion())
+                ? MavenLocalRepository.forBuildArguments(request.getBuildArguments())
+                : null;
+        if (localRepository != null) {
+            final long start = phaseStarted(request, BuildPhase.installedCheck, slotIndex);
+            final boolean installed = isInstalled(request, localRepository);
+            phaseFinished(request, BuildPhase.installedCheck, slotIndex, start, null, installed);
+            if (installed) {
+                log.info("srcdeps: Skipping the build of {} because its artifacts are installed already",
+                        request.getSrcVersion());
+                return;
+            }
+        }
         log.info("About to build request {}", request);
-        boolean checkedOut = false;
+        Scm checkedOutScm = null;
         for (Scm scm : scms) {
             if (scm.supports(firstUrl)) {
                 log.info("About to use Scm implementation {} to check out URL {} to directory {}",
                         scm.getClass().getName(), firstUrl, dir);
-                scm.checkout(request);
-                checkedOut = true;
+                final long start = phaseStarted(request, BuildPhase.checkout, slotIndex);
+                long bytesFetched = BuildPhaseResult.UNKNOWN_BYTES;
+                try {
+                    if (scm instanceof TransferReportingScm) {
+                        final ScmTransferStatistics statistics = ((TransferReportingScm) scm)
+                                .checkoutWithStatistics(request);
+                        bytesFetched = statistics.getPackBytes();
+                    } else {
+                        scm.checkout(request);
+                    }
+                } catch (BuildException | RuntimeException e) {
+                    phaseFinished(request, BuildPhase.checkout, slotIndex, start, e, false);
+                    throw e;
+                }
+                phaseFinished(request, BuildPhase.checkout, slotIndex, start, null, false, bytesFetched);
+                checkedOutScm = scm;
                 break;
             }
         }
-        if (!checkedOut) {
+        if (checkedOutScm == null) {
             throw new BuildException(String.format("No Scm found for URL [%s]", firstUrl));
         }
 
         boolean built = false;
         for (Builder builder : builders) {
             if (builder.canBuild(dir)) {
-                log.info("About to build project in {} using Builder {}", dir, builder.getClass().getName());
-                builder.setVersions(request);
-                builder.build(request);
+                long start = phaseStarted(request, BuildPhase.buildPermit, slotIndex);
+                final BuildSemaphore.Permit acquiredPermit;
+                try {
+                    acquiredPermit = buildSemaphore.acquire(request.getTimeoutMs());
+                } catch (BuildException | RuntimeException e) {
+                    phaseFinished(request, BuildPhase.buildPermit, slotIndex, start, e, false);
+                    throw e;
+                }
+                phaseFinished(request, BuildPhase.buildPermit, slotIndex, start, null, false);
+                try (BuildSemaphore.Permit permit = acquiredPermit) {
+                    log.info("About to build project in {} using Builder {}", dir, builder.getClass().getName());
+                    start = phaseStarted(request, BuildPhase.setVersions, slotIndex);
+                    final BuildRequest versionedRequest;
+                    try {
+                        versionedRequest = builder.setVersions(request);
+                    } catch (BuildException | RuntimeException e) {
+                        phaseFinished(request, BuildPhase.setVersions, slotIndex, start, e, false);
+                        throw e;
+                    }
+                    phaseFinished(request, BuildPhase.setVersions, slotIndex, start, null, false);
+
+                    start = phaseStarted(request, BuildPhase.build, slotIndex);
+                    try {
+                        builder.build(versionedRequest);
+                    } catch (BuildException | RuntimeException e) {
+                        phaseFinished(request, BuildPhase.build, slotIndex, start, e, false);
+                        throw e;
+                    }
+                    phaseFinished(request, BuildPhase.build, slotIndex, start, null, false);
+                }
                 built = true;
                 break;
             }
@@ -84,6 +184,164 @@ public class DefaultBuildService implements BuildService {
             throw new BuildException(String.format("No Builder found for directory [%s]", dir));
         }
 
+        if (localRepository != null) {
+            writeInstallManifest(request, localRepository, checkedOutScm);
+        }
+
+    }
+
+    /**
+     * @param request
+     *            the request to check
+     * @param localRepository
+     *            the local Maven repository to check
+     * @return {@code true} if there is an {@link InstallManifest} for the given {@code request} and all artifacts
+     *         listed in it are present in the {@code localRepository}; {@code false} otherwise
+     */
+    private boolean isInstalled(BuildRequest request, MavenLocalRepository localRepository) {
+        final InstallManifest manifest = InstallManifest
+                .read(InstallManifest.getPath(localRepository.getRootDirectory(), request));
+        if (manifest == null || manifest.getArtifacts().isEmpty()) {
+            return false;
+        }
+        try {
+            final List<Gavtc> missing = localRepository.findMissing(manifest.getArtifacts());
+            if (!missing.isEmpty()) {
+                log.info("srcdeps: Artifacts {} built at commit {} are not installed anymore", missing,
+                        manifest.getCommitId());
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn(String.format("srcdeps: Could not check the artifacts of [%s]", manifest), e);
+            return false;
+        }
+    }
+
+    /**
+     * Notifies {@link #listeners} that the given {@code phase} has finished.
+     *
+     * @param request
+     *            the request being built
+     * @param phase
+     *            the finished phase
+     * @param slotIndex
+     *            see {@link BuildDirectoriesManager#getSlotIndex(Path)}
+     * @param startNanos
+     *            the value returned by {@link #phaseStarted(BuildRequest, BuildPhase, int)}
+     * @param failure
+     *            the exception that made the phase fail or {@code null} if it succeeded
+     * @param cacheHit
+     *            see {@link BuildPhaseResult#isCacheHit()}
+     */
+    private void phaseFinished(BuildRequest request, BuildPhase phase, int slotIndex, long startNanos,
+            Throwable failure, boolean cacheHit) {
+        phaseFinished(request, phase, slotIndex, startNanos, failure, cacheHit, BuildPhaseResult.UNKNOWN_BYTES);
+    }
+
+    /**
+     * Notifies {@link #listeners} that the given {@code phase} has finished.
+     *
+     * @param request
+     *            the request being built
+     * @param phase
+     *            the finished phase
+     * @param slotIndex
+     *            see {@link BuildDirectoriesManager#getSlotIndex(Path)}
+     * @param startNanos
+     *            the value returned by {@link #phaseStarted(BuildRequest, BuildPhase, int)}
+     * @param failure
+     *            the exception that made the phase fail or {@code null} if it succeeded
+     * @param cacheHit
+     *            see {@link BuildPhaseResult#isCacheHit()}
+     * @param bytesFetched
+     *            see {@link BuildPhaseResult#getBytesFetched()}
+     */
+    private void phaseFinished(BuildRequest request, BuildPhase phase, int slotIndex, long startNanos,
+            Throwable failure, boolean cacheHit, long bytesFetched) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        final BuildPhaseResult result = new BuildPhaseResult(request, phase, slotIndex,
+                System.nanoTime() - startNanos, failure, cacheHit, bytesFetched);
+        for (BuildListener listener : listeners) {
+            try {
+                listener.phaseFinished(result);
+            } catch (RuntimeException e) {
+                log.warn(String.format("srcdeps: BuildListener [%s] failed", listener.getClass().getName()), e);
+            }
+        }
+    }
+
+    /**
+     * Notifies {@link #listeners} that the given {@code phase} is about to start.
+     *
+     * @param request
+     *            the request being built
+     * @param phase
+     *            the starting phase
+     * @param slotIndex
+     *            see {@link BuildDirectoriesManager#getSlotIndex(Path)}
+     * @return the start time of the phase as returned by {@link System#nanoTime()}
+     */
+    private long phaseStarted(BuildRequest request, BuildPhase phase, int slotIndex) {
+        for (BuildListener listener : listeners) {
+            try {
+                listener.phaseStarted(request, phase, slotIndex);
+            } catch (RuntimeException e) {
+                log.warn(String.format("srcdeps: BuildListener [%s] failed", listener.getClass().getName()), e);
+            }
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Writes an {@link InstallManifest} listing the {@code pom} and {@code jar} files of the modules built by the given
+     * {@code request}. The modules are known only for Maven source trees, so no manifest is written for other kinds
+     * of source trees. Failures are logged rather than propagated because the manifest is an optimization only.
+     *
+     * @param request
+     *            the request that was built successfully
+     * @param localRepository
+     *            the local Maven repository where the artifacts were installed
+     * @param scm
+     *            the {@link Scm} that checked out the sources
+     */
+    private void writeInstallManifest(BuildRequest request, MavenLocalRepository localRepository, Scm scm) {
+        final Path dir = request.getProjectRootDirectory();
+        if (!Files.exists(dir.resolve("pom.xml"))) {
+            log.debug("srcdeps: Not writing an install manifest for non-Maven source tree [{}]", dir);
+            return;
+        }
+        final String srcVersion = request.getSrcVersion().toString();
+        final Path path = InstallManifest.getPath(localRepository.getRootDirectory(), request);
+        try {
+            final List<Gavtc> candidates = new ArrayList<>();
+            for (MavenReactor.Module module : MavenReactor.read(dir).getModules()) {
+                String version = module.getVersion();
+                if (version == null || version.contains("${")) {
+                    version = srcVersion;
+                }
+                if (!module.isInProfile() && srcVersion.equals(version)) {
+                    candidates.add(new Gavtc(module.getGroupId(), module.getArtifactId(), srcVersion, "pom"));
+                    if ("jar".equals(module.getPackaging())) {
+                        candidates.add(new Gavtc(module.getGroupId(), module.getArtifactId(), srcVersion, "jar"));
+                    }
+                }
+            }
+            final List<Gavtc> installed = new ArrayList<>(candidates);
+            installed.removeAll(localRepository.findMissing(candidates));
+            if (installed.isEmpty()) {
+                log.debug("srcdeps: No artifacts of [{}] found in [{}]", dir, localRepository.getRootDirectory());
+                return;
+            }
+            final String commitId = scm instanceof RevisionAwareScm
+                    ? ((RevisionAwareScm) scm).getCheckedOutRevision(dir)
+                    : null;
+            new InstallManifest(srcVersion, System.currentTimeMillis(), commitId, installed).write(path);
+        } catch (BuildException | IOException e) {
+            log.warn(String.format("srcdeps: Could not write [%s]", path), e);
+        }
     }
 
 }
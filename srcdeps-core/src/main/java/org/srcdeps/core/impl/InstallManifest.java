@@ -0,0 +1,223 @@
+/**
+ * Copyright 2015-2016 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.Gavtc;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * A record of the artifacts installed to the local Maven repository by a successful build of some
+ * {@link BuildRequest}. The manifest is stored under {@value #MANIFESTS_DIRECTORY} in the local Maven repository in a
+ * file whose name is derived from the inputs of the {@link BuildRequest}, see {@link #computeKey(BuildRequest)}.
+ * Hence a manifest can be found only by a {@link BuildRequest} that would produce the same artifacts.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class InstallManifest {
+    private static final String ARTIFACTS = "artifacts";
+    private static final String COMMIT_ID = "commitId";
+    private static final Logger log = LoggerFactory.getLogger(InstallManifest.class);
+
+    /** The directory relative to the root of the local Maven repository where the manifests are stored */
+    public static final String MANIFESTS_DIRECTORY = ".srcdeps/builds";
+
+    private static final String SRC_VERSION = "srcVersion";
+    private static final String TIMESTAMP = "timestamp";
+
+    /**
+     * Computes a digest of the inputs of the given {@code request} that influence the artifacts produced by the
+     * build: the SCM URLs, the version, the selected artifacts, the build arguments and the environment.
+     *
+     * @param request
+     *            the request to compute the key for
+     * @return a hex SHA-1 digest
+     */
+    public static String computeKey(BuildRequest request) {
+        final StringBuilder sb = new StringBuilder();
+        for (String url : request.getScmUrls()) {
+            sb.append(url).append('\n');
+        }
+        sb.append(request.getSrcVersion()).append('\n');
+        sb.append(request.getGavSet()).append('\n');
+        sb.append(request.isBuildIncludesOnly()).append('\n');
+        sb.append(request.getSetVersionsMode()).append('\n');
+        sb.append(request.isAddDefaultBuildArguments()).append('\n');
+        for (String arg : request.getBuildArguments()) {
+            sb.append(arg).append('\n');
+        }
+        sb.append(request.isSkipTests()).append('\n');
+        for (String prop : request.getForwardProperties()) {
+            sb.append(prop).append('\n');
+        }
+        sb.append(request.isAddDefaultBuildEnvironment()).append('\n');
+        for (Map.Entry<String, String> en : request.getBuildEnvironment().entrySet()) {
+            sb.append(en.getKey()).append('=').append(en.getValue()).append('\n');
+        }
+        return SrcdepsCoreUtils.sha1Hex(sb.toString());
+    }
+
+    /**
+     * @param localRepositoryRoot
+     *            the root directory of the local Maven repository
+     * @param request
+     *            the request whose manifest should be located
+     * @return the path of the file where the {@link InstallManifest} of the given {@code request} is stored
+     */
+    public static Path getPath(Path localRepositoryRoot, BuildRequest request) {
+        return localRepositoryRoot.resolve(MANIFESTS_DIRECTORY).resolve(computeKey(request) + ".properties");
+    }
+
+    /**
+     * @param path
+     *            the path to read from, typically obtained via {@link #getPath(Path, BuildRequest)}
+     * @return the {@link InstallManifest} stored in the given {@code path} or {@code null} if there is none or if it
+     *         cannot be read
+     */
+    public static InstallManifest read(Path path) {
+        final Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn(String.format("srcdeps: Could not read [%s]", path), e);
+            return null;
+        }
+        final String srcVersion = props.getProperty(SRC_VERSION);
+        final String timestamp = props.getProperty(TIMESTAMP);
+        final String artifacts = props.getProperty(ARTIFACTS);
+        if (srcVersion == null || timestamp == null || artifacts == null) {
+            log.warn("srcdeps: Ignoring incomplete [{}]", path);
+            return null;
+        }
+        try {
+            final List<Gavtc> gavtcs = new ArrayList<>();
+            for (String gavtc : artifacts.split(",")) {
+                if (!gavtc.isEmpty()) {
+                    gavtcs.add(Gavtc.of(gavtc));
+                }
+            }
+            return new InstallManifest(srcVersion, Long.parseLong(timestamp), props.getProperty(COMMIT_ID),
+                    Collections.unmodifiableList(gavtcs));
+        } catch (RuntimeException e) {
+            log.warn(String.format("srcdeps: Ignoring invalid [%s]", path), e);
+            return null;
+        }
+    }
+
+    private final List<Gavtc> artifacts;
+    private final String commitId;
+    private final String srcVersion;
+    private final long timestamp;
+
+    public InstallManifest(String srcVersion, long timestamp, String commitId, List<Gavtc> artifacts) {
+        super();
+        this.srcVersion = srcVersion;
+        this.timestamp = timestamp;
+        this.commitId = commitId;
+        this.artifacts = artifacts;
+    }
+
+    /**
+     * @return the artifacts installed by the build
+     */
+    public List<Gavtc> getArtifacts() {
+        return artifacts;
+    }
+
+    /**
+     * @return the SHA-1 of the commit that was built or {@code null} if not known
+     */
+    public String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * @return the version that was built
+     */
+    public String getSrcVersion() {
+        return srcVersion;
+    }
+
+    /**
+     * @return the time when the build finished in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "InstallManifest [srcVersion=" + srcVersion + ", timestamp=" + timestamp + ", commitId=" + commitId
+                + ", artifacts=" + artifacts + "]";
+    }
+
+    /**
+     * Stores this {@link InstallManifest} in the given {@code path}. The file is replaced atomically so that
+     * concurrent readers never see a partially written manifest.
+     *
+     * @param path
+     *            the path to write to, typically obtained via {@link #getPath(Path, BuildRequest)}
+     * @throws IOException
+     *             on I/O problems
+     */
+    public void write(Path path) throws IOException {
+        final Properties props = new Properties();
+        props.setProperty(SRC_VERSION, srcVersion);
+        props.setProperty(TIMESTAMP, String.valueOf(timestamp));
+        if (commitId != null) {
+            props.setProperty(COMMIT_ID, commitId);
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (Gavtc gavtc : artifacts) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(gavtc);
+        }
+        props.setProperty(ARTIFACTS, sb.toString());
+
+        final Path dir = path.getParent();
+        SrcdepsCoreUtils.ensureDirectoryExists(dir);
+        final Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, null);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+}
@@ -28,6 +28,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.srcdeps.core.BuildException;
@@ -35,7 +37,10 @@ import org.srcdeps.core.BuildRequest;
 import org.srcdeps.core.BuildRequest.Verbosity;
 import org.srcdeps.core.GavPattern;
 import org.srcdeps.core.GavSet;
+import org.srcdeps.core.Scm;
 import org.srcdeps.core.SrcdepsInner;
+import org.srcdeps.core.config.scalar.CharStreamSource;
+import org.srcdeps.core.config.scalar.CharStreamSource.Scheme;
 import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
@@ -44,13 +49,53 @@ import org.srcdeps.core.util.SrcdepsCoreUtils;
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
 public abstract class AbstractGradleBuilder extends ShellBuilder {
+
+    /**
+     * An assembled {@code settings.gradle} appendix together with the {@link #stamp} of the model transformer it was
+     * assembled from.
+     */
+    static class SettingsAppendix {
+        private final String content;
+        private final String stamp;
+
+        SettingsAppendix(String content, String stamp) {
+            super();
+            this.content = content;
+            this.stamp = stamp;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public String getStamp() {
+            return stamp;
+        }
+    }
+
+    protected static final List<String> BUILD_CACHE_ARGS = Collections.singletonList("--build-cache");
+
+    /** The name of the build cache directory, a sibling of the build directories of a source repository */
+    protected static final String BUILD_CACHE_DIRECTORY = "gradle-build-cache";
+
+    protected static final String BUILD_CACHE_SCRIPT = "srcdeps-build-cache.gradle";
+
     protected static final List<String> BUILD_GRADLE_FILE_NAMES = Collections.singletonList("build.gradle");
 
     protected static final Path SRCDEPS_TRANSFORM_GRADLE = Paths.get("srcdeps-transform.gradle");
     protected static final Pattern PACKAGE_PATTERN = Pattern.compile(".*package +[^;]+;", Pattern.DOTALL);
 
+    /**
+     * The settings script we append does not support the configuration cache fully, hence we let Gradle report the
+     * problems as warnings rather than failing the build
+     */
+    protected static final List<String> CONFIGURATION_CACHE_ARGS = Collections
+            .unmodifiableList(Arrays.asList("--configuration-cache", "--configuration-cache-problems=warn"));
+
+    protected static final List<String> DAEMON_ARGS = Collections.singletonList("--daemon");
+
     protected static final List<String> GRADLE_DEFAULT_ARGS = Collections
-            .unmodifiableList(Arrays.asList("clean", "install", "--no-daemon"));
+            .unmodifiableList(Arrays.asList("clean", "install"));
     protected static final List<String> GRADLEW_FILE_NAMES = Collections
             .unmodifiableList(Arrays.asList("gradlew", "gradlew.bat"));
 
@@ -60,8 +105,122 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
             SrcdepsInner.class.getSimpleName() + ".gradle" //
     ));
 
+    protected static final List<String> NO_DAEMON_ARGS = Collections.singletonList("--no-daemon");
+
+    protected static final List<String> OFFLINE_ARGS = Collections.singletonList("--offline");
+
+    /** Parts of the messages Gradle prints when a dependency is not available in offline mode */
+    protected static final List<String> OFFLINE_FAILURE_MARKERS = Collections
+            .unmodifiableList(Arrays.asList("No cached version", "offline mode"));
+
+    /**
+     * The {@code settings.gradle} appendices assembled so far, keyed by the model transformer location and the build
+     * cache flag. The content of the {@link Scheme#classpath} and {@link Scheme#literal} model transformers cannot
+     * change during the lifetime of the present class loader; the {@link Scheme#file} ones are re-read whenever their
+     * modification time or size changes. Note that keeping the appendix stable also lets Gradle reuse the compiled
+     * settings script from its script cache which is keyed by the script content.
+     */
+    private static final ConcurrentHashMap<String, SettingsAppendix> settingsAppendices = new ConcurrentHashMap<>();
+
     protected static final List<String> SKIP_TESTS_ARGS = Collections.emptyList();
 
+    /**
+     * @param modelTransformerSource
+     *            the source code of the model transformer
+     * @param buildCache
+     *            see {@link BuildRequest#isGradleBuildCache()}
+     * @return the text to append to {@code settings.gradle}
+     * @throws IOException
+     *             if the {@link #INNER_CLASSES} or the {@link #BUILD_CACHE_SCRIPT} cannot be read
+     */
+    static String assembleSettingsAppendix(String modelTransformerSource, boolean buildCache) throws IOException {
+        final StringBuilder settingsAppendix = new StringBuilder("\n");
+
+        final char[] buf = new char[10240];
+
+        for (String innerClass : INNER_CLASSES) {
+            String srcdepsInnerSrc = SrcdepsCoreUtils.read( //
+                    AbstractGradleBuilder.class.getResource("/gradle/settings/" + innerClass), //
+                    buf //
+            );
+            srcdepsInnerSrc = PACKAGE_PATTERN.matcher(srcdepsInnerSrc).replaceFirst("");
+            settingsAppendix.append(srcdepsInnerSrc).append("\n");
+        }
+
+        settingsAppendix.append("def srcdepsInner = new SrcdepsInner()\n");
+
+        if (buildCache) {
+            settingsAppendix.append(SrcdepsCoreUtils.read( //
+                    AbstractGradleBuilder.class.getResource("/gradle/settings/" + BUILD_CACHE_SCRIPT), //
+                    buf //
+            )).append("\n");
+        }
+
+        settingsAppendix.append(modelTransformerSource).append("\n");
+        return settingsAppendix.toString();
+    }
+
+    /**
+     * Returns the text to append to {@code settings.gradle}, assembling it only if it is not available in
+     * {@link #settingsAppendices} yet or if the {@link Scheme#file} model transformer has changed since it was
+     * assembled.
+     *
+     * @param modelTransformer
+     *            see {@link BuildRequest#getGradleModelTransformer()}
+     * @param resolveAgainst
+     *            the directory to resolve a {@link Scheme#file} {@code modelTransformer} against, see
+     *            {@link BuildRequest#getDependentProjectRootDirectory()}
+     * @param buildCache
+     *            see {@link BuildRequest#isGradleBuildCache()}
+     * @return the {@link SettingsAppendix}
+     * @throws IOException
+     *             if the {@code modelTransformer} or any of the resources cannot be read
+     */
+    static SettingsAppendix getSettingsAppendix(CharStreamSource modelTransformer, Path resolveAgainst,
+            boolean buildCache) throws IOException {
+        final String location;
+        final String stamp;
+        if (modelTransformer.getScheme() == Scheme.file) {
+            final Path path = resolveAgainst.resolve(Paths.get(modelTransformer.getResource())).toAbsolutePath()
+                    .normalize();
+            location = Scheme.file + ":" + path;
+            /* take the stamp before reading so that a concurrent change gets noticed by the next build at the latest */
+            stamp = Files.getLastModifiedTime(path).toMillis() + ":" + Files.size(path);
+        } else {
+            location = modelTransformer.toString();
+            stamp = "";
+        }
+        final String key = buildCache + ":" + location;
+
+        SettingsAppendix result = settingsAppendices.get(key);
+        if (result == null || !result.getStamp().equals(stamp)) {
+            final String src;
+            try (Reader r = modelTransformer.openReader(StandardCharsets.UTF_8, resolveAgainst)) {
+                src = SrcdepsCoreUtils.read(r, new char[10240]);
+            }
+            result = new SettingsAppendix(assembleSettingsAppendix(src, buildCache), stamp);
+            settingsAppendices.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param projectRootDirectory
+     *            the build directory, see {@link BuildRequest#getProjectRootDirectory()}
+     * @return the directory of the local build cache shared by {@code projectRootDirectory} and its sibling build
+     *         directories, i.e. by all build directories of the same source repository
+     */
+    public static Path getBuildCacheDirectory(Path projectRootDirectory) {
+        return projectRootDirectory.resolveSibling(BUILD_CACHE_DIRECTORY);
+    }
+
+    /**
+     * @return the arguments to pass to Gradle if {@link BuildRequest#isGradleDaemon()} returns {@code true}
+     */
+    public static List<String> getDaemonArgs() {
+        return DAEMON_ARGS;
+    }
+
     /**
      * @return the list of file names that can store Gradle build scripts.
      */
@@ -70,7 +229,9 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
     }
 
     /**
-     * @return the default build arguments used in Gradle builds of source dependencies
+     * @return the default build arguments used in Gradle builds of source dependencies. Note that either
+     *         {@link #getDaemonArgs()} or {@link #getNoDaemonArgs()} are appended to these depending on
+     *         {@link BuildRequest#isGradleDaemon()}
      */
     public static List<String> getGradleDefaultArgs() {
         return GRADLE_DEFAULT_ARGS;
@@ -83,6 +244,13 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
         return GRADLEW_FILE_NAMES;
     }
 
+    /**
+     * @return the arguments to pass to Gradle if {@link BuildRequest#isGradleDaemon()} returns {@code false}
+     */
+    public static List<String> getNoDaemonArgs() {
+        return NO_DAEMON_ARGS;
+    }
+
     /**
      * @return the {@link List} of arguments to use when no tests should be run during the build of a source dependency
      */
@@ -115,6 +283,28 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
         this.defaultBuildEnvironment = Collections.emptyMap();
     }
 
+    public AbstractGradleBuilder(String executable, int concurrentBuilds) {
+        super(executable, concurrentBuilds);
+        this.defaultBuildEnvironment = Collections.emptyMap();
+    }
+
+    public AbstractGradleBuilder(String executable, int concurrentBuilds, Set<Scm> scms) {
+        super(executable, concurrentBuilds, scms);
+        this.defaultBuildEnvironment = Collections.emptyMap();
+    }
+
+    /**
+     * A plain switch between {@code --daemon} and {@code --no-daemon}. Whether an idle daemon is reused is up to
+     * Gradle's own compatibility check (Java home, JVM arguments); no daemons or connections are pooled here.
+     *
+     * @param daemon
+     *            see {@link BuildRequest#isGradleDaemon()}
+     * @return {@link #DAEMON_ARGS} or {@link #NO_DAEMON_ARGS}
+     */
+    protected List<String> getDaemonArguments(boolean daemon) {
+        return daemon ? DAEMON_ARGS : NO_DAEMON_ARGS;
+    }
+
     @Override
     protected List<String> getDefaultBuildArguments() {
         return GRADLE_DEFAULT_ARGS;
@@ -125,6 +315,32 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
         return defaultBuildEnvironment;
     }
 
+    @Override
+    protected List<String> getOfflineArguments() {
+        return OFFLINE_ARGS;
+    }
+
+    @Override
+    protected List<String> getOfflineFailureMarkers() {
+        return OFFLINE_FAILURE_MARKERS;
+    }
+
+    /**
+     * Returns {@code --parallel --max-workers=<threads>} unless the given {@code arguments} contain
+     * {@code --parallel}, {@code --no-parallel} or {@code --max-workers} already.
+     *
+     * @see ShellBuilder#getParallelArguments(List, int)
+     */
+    @Override
+    protected List<String> getParallelArguments(List<String> arguments, int threads) {
+        for (String arg : arguments) {
+            if (arg.equals("--parallel") || arg.equals("--no-parallel") || arg.startsWith("--max-workers")) {
+                return Collections.emptyList();
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList("--parallel", "--max-workers=" + threads));
+    }
+
     @Override
     protected List<String> getSkipTestsArguments(boolean skipTests) {
         return skipTests ? SKIP_TESTS_ARGS : Collections.<String>emptyList();
@@ -151,7 +367,21 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
     @Override
     protected List<String> mergeArguments(BuildRequest request) {
         List<String> result = new ArrayList<>(super.mergeArguments(request));
+        if (request.isAddDefaultBuildArguments()) {
+            result.addAll(getDaemonArguments(request.isGradleDaemon()));
+        }
         result.add("-Dsrcdeps.inner.version=" + request.getSrcVersion().toString());
+        if (request.isBuildIncludesOnly()) {
+            result.add("-Dsrcdeps.inner.buildIncludesOnly=true");
+        }
+        if (request.isGradleBuildCache()) {
+            result.addAll(BUILD_CACHE_ARGS);
+            result.add("-Dsrcdeps.inner.buildCacheDirectory="
+                    + getBuildCacheDirectory(request.getProjectRootDirectory()).toString());
+        }
+        if (request.isGradleConfigurationCache()) {
+            result.addAll(CONFIGURATION_CACHE_ARGS);
+        }
 
         GavSet gavSet = request.getGavSet();
 
@@ -172,7 +402,7 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
     }
 
     @Override
-    public void setVersions(BuildRequest request) throws BuildException {
+    public BuildRequest setVersions(BuildRequest request) throws BuildException {
         Path buildGradle = request.getProjectRootDirectory().resolve("build.gradle");
         try {
             if (!Files.exists(buildGradle)) {
@@ -180,39 +410,21 @@ public abstract class AbstractGradleBuilder extends ShellBuilder {
             }
 
             final Path rootPath = request.getProjectRootDirectory();
-            final StringBuilder settingsAppendix = new StringBuilder("\n");
-
-            final char[] buf = new char[10240];
-
-            for (String innerClass : INNER_CLASSES) {
-                String srcdepsInnerSrc = SrcdepsCoreUtils.read( //
-                        getClass().getResource("/gradle/settings/" + innerClass), //
-                        buf //
-                );
-                srcdepsInnerSrc = PACKAGE_PATTERN.matcher(srcdepsInnerSrc).replaceFirst("");
-                settingsAppendix.append(srcdepsInnerSrc).append("\n");
-            }
-
-            settingsAppendix.append("def srcdepsInner = new SrcdepsInner()\n");
-
-            try (Reader r = request.getGradleModelTransformer().openReader(StandardCharsets.UTF_8,
-                    request.getDependentProjectRootDirectory())) {
-                String src = SrcdepsCoreUtils.read(r, buf);
-                settingsAppendix.append(src).append("\n");
-            }
+            final String settingsAppendix = getSettingsAppendix(request.getGradleModelTransformer(),
+                    request.getDependentProjectRootDirectory(), request.isGradleBuildCache()).getContent();
 
             final Path settingsGradlePath = rootPath.resolve("settings.gradle");
             if (Files.exists(settingsGradlePath)) {
-                Files.write(settingsGradlePath, settingsAppendix.toString().getBytes(StandardCharsets.UTF_8),
+                Files.write(settingsGradlePath, settingsAppendix.getBytes(StandardCharsets.UTF_8),
                         StandardOpenOption.APPEND);
             } else {
-                Files.write(settingsGradlePath, settingsAppendix.toString().getBytes(StandardCharsets.UTF_8));
+                Files.write(settingsGradlePath, settingsAppendix.getBytes(StandardCharsets.UTF_8));
             }
 
         } catch (IOException e) {
             throw new BuildException(String.format("Could not change the version in file [%s]", buildGradle), e);
         }
-
+        return request;
     }
 
 }
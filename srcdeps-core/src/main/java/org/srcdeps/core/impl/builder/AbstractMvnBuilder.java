@@ -16,20 +16,29 @@
  */
 package org.srcdeps.core.impl.builder;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.srcdeps.core.BuildException;
 import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.BuildRequest.SetVersionsMode;
 import org.srcdeps.core.BuildRequest.Verbosity;
+import org.srcdeps.core.Gav;
+import org.srcdeps.core.MavenLocalRepository;
+import org.srcdeps.core.Scm;
 import org.srcdeps.core.config.Maven;
 import org.srcdeps.core.shell.Shell;
-import org.srcdeps.core.shell.Shell.CommandResult;
 import org.srcdeps.core.shell.ShellCommand;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
  * A base for {@link MvnBuilder} and {@link MvnwBuilder}.
@@ -37,14 +46,34 @@ import org.srcdeps.core.shell.ShellCommand;
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
 public abstract class AbstractMvnBuilder extends ShellBuilder {
+    private static final Logger log = LoggerFactory.getLogger(AbstractMvnBuilder.class);
+
+    /** The prefix of the argument setting the local Maven repository */
+    protected static final String MAVEN_REPO_LOCAL_ARG_PREFIX = "-D" + MavenLocalRepository.MAVEN_REPO_LOCAL_PROP + "=";
+
+    /** The prefix of the argument setting the read-only local Maven repositories available since Maven 3.9 */
+    protected static final String MAVEN_REPO_LOCAL_TAIL_ARG_PREFIX = "-D" + MavenLocalRepository.MAVEN_REPO_LOCAL_PROP
+            + ".tail=";
+
     protected static final List<String> MVN_DEFAULT_ARGS = Collections
             .unmodifiableList(Arrays.asList("clean", "install"));
     protected static final Map<String, String> MVN_DEFAULT_BUILD_ENVIRONMENT = Collections.emptyMap();
     protected static final List<String> MVNW_FILE_NAMES = Collections
             .unmodifiableList(Arrays.asList("mvnw", "mvnw.cmd"));
 
+    protected static final List<String> OFFLINE_ARGS = Collections.singletonList("-o");
+
+    /**
+     * Parts of the messages Maven 3.0 - 3.3 and Maven 3.5+ respectively print when an artifact is not available in
+     * offline mode
+     */
+    protected static final List<String> OFFLINE_FAILURE_MARKERS = Collections
+            .unmodifiableList(Arrays.asList("repository system is offline", "in offline mode"));
+
     protected static final List<String> POM_FILE_NAMES = Collections.unmodifiableList(
             Arrays.asList("pom.xml", "pom.atom", "pom.clj", "pom.groovy", "pom.rb", "pom.scala", "pom.yml"));
+    protected static final List<String> PROJECTS_ARGS = Collections
+            .unmodifiableList(Arrays.asList("-pl", "--projects"));
     protected static final List<String> SKIP_TESTS_ARGS = Collections.singletonList("-DskipTests");
 
     /**
@@ -93,10 +122,76 @@ public abstract class AbstractMvnBuilder extends ShellBuilder {
         return false;
     }
 
+    /**
+     * @param projectRootDirectory
+     *            the build directory, see {@link BuildRequest#getProjectRootDirectory()}
+     * @return the directory of the overlay repository used by the builds in the given {@code projectRootDirectory}
+     *         if {@link BuildRequest#isMavenIsolatedInstall()} is {@code true}
+     */
+    public static Path getOverlayRepository(Path projectRootDirectory) {
+        return projectRootDirectory.resolveSibling(projectRootDirectory.getFileName() + ".repository");
+    }
+
     public AbstractMvnBuilder(String executable) {
         super(executable);
     }
 
+    public AbstractMvnBuilder(String executable, int concurrentBuilds) {
+        super(executable, concurrentBuilds);
+    }
+
+    public AbstractMvnBuilder(String executable, int concurrentBuilds, Set<Scm> scms) {
+        super(executable, concurrentBuilds, scms);
+    }
+
+    /**
+     * If {@link BuildRequest#isMavenIsolatedInstall()} is {@code true}, lets Maven install into a fresh
+     * {@link #getOverlayRepository(Path)} and publishes the artifacts of the reactor modules from there to the local
+     * Maven repository via {@link MavenLocalRepository#publish(Path, java.util.Collection)} once the build has
+     * succeeded. Hence a failed build never leaves partial artifacts in the local Maven repository. Otherwise just
+     * delegates to {@link ShellBuilder#build(BuildRequest)}.
+     *
+     * @see ShellBuilder#build(BuildRequest)
+     */
+    @Override
+    public void build(BuildRequest request) throws BuildException {
+        if (!request.isMavenIsolatedInstall()) {
+            super.build(request);
+            return;
+        }
+        final Path overlay = getOverlayRepository(request.getProjectRootDirectory());
+        try {
+            SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(overlay);
+        } catch (IOException e) {
+            throw new BuildException(String.format("Could not create an empty directory [%s]", overlay), e);
+        }
+
+        super.build(request);
+
+        final List<Gav> gavs = getModuleGavs(request);
+        final MavenLocalRepository localRepository = getLocalRepository(request);
+        try {
+            final int count = localRepository.publish(overlay, gavs);
+            log.info("srcdeps: Published {} files from [{}] to [{}]", count, overlay,
+                    localRepository.getRootDirectory());
+            SrcdepsCoreUtils.deleteDirectory(overlay);
+        } catch (IOException e) {
+            throw new BuildException(String.format("Could not publish the artifacts from [%s] to [%s]", overlay,
+                    localRepository.getRootDirectory()), e);
+        }
+    }
+
+    /**
+     * @param request
+     *            the request to build
+     * @return the local Maven repository set via {@code -Dmaven.repo.local} in
+     *         {@link BuildRequest#getBuildArguments()} or the one found by {@link MavenLocalRepository#autodetect()};
+     *         see {@link MavenLocalRepository#forBuildArguments(java.util.Collection)}
+     */
+    protected MavenLocalRepository getLocalRepository(BuildRequest request) {
+        return MavenLocalRepository.forBuildArguments(request.getBuildArguments());
+    }
+
     @Override
     protected List<String> getDefaultBuildArguments() {
         String settingsPath = System.getProperty(Maven.getSrcdepsMavenSettingsProperty());
@@ -116,6 +211,33 @@ public abstract class AbstractMvnBuilder extends ShellBuilder {
         return MVN_DEFAULT_BUILD_ENVIRONMENT;
     }
 
+    @Override
+    protected List<String> getOfflineArguments() {
+        return OFFLINE_ARGS;
+    }
+
+    @Override
+    protected List<String> getOfflineFailureMarkers() {
+        return OFFLINE_FAILURE_MARKERS;
+    }
+
+    /**
+     * Returns {@code -T <threads>} unless the given {@code arguments} contain {@code -T} or {@code --threads} already.
+     * Note that we do not use the {@code 1C} notation, because the number of cores needs to be shared among the builds
+     * running concurrently.
+     *
+     * @see ShellBuilder#getParallelArguments(List, int)
+     */
+    @Override
+    protected List<String> getParallelArguments(List<String> arguments, int threads) {
+        for (String arg : arguments) {
+            if (arg.startsWith("-T") || arg.startsWith("--threads")) {
+                return Collections.emptyList();
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList("-T", String.valueOf(threads)));
+    }
+
     @Override
     protected List<String> getSkipTestsArguments(boolean skipTests) {
         return skipTests ? SKIP_TESTS_ARGS : Collections.<String>emptyList();
@@ -137,8 +259,180 @@ public abstract class AbstractMvnBuilder extends ShellBuilder {
         }
     }
 
+    /**
+     * Sets the versions in the source tree of the dependency as prescribed by
+     * {@link BuildRequest#getSetVersionsMode()}.
+     *
+     * @param request
+     *            the request for which we are setting the versions
+     * @return a copy of the given {@code request} with the timeout reduced by the time spent here and with the CI
+     *         friendly version properties as {@link BuildRequest#getVersionArguments()} if applicable
+     * @throws BuildException
+     *             on any build related problem
+     */
+    @Override
+    public BuildRequest setVersions(BuildRequest request) throws BuildException {
+        final SetVersionsMode mode = request.getSetVersionsMode();
+        final long start = System.currentTimeMillis();
+        List<String> versionArgs = Collections.emptyList();
+        if (mode == SetVersionsMode.ciFriendly) {
+            versionArgs = getCiFriendlyArguments(request);
+            if (!versionArgs.isEmpty()) {
+                /* nothing to do here, the versions will be set via mergeArguments() */
+                log.debug("srcdeps: Versions in [{}] will be set via CI friendly properties",
+                        request.getProjectRootDirectory());
+            }
+        }
+        if (versionArgs.isEmpty() && (mode == SetVersionsMode.versionsMavenPlugin || !rewriteVersions(request))) {
+            setVersionsUsingPlugin(request);
+        }
+        return request.afterSetVersions(request.getTimeoutMs() - (System.currentTimeMillis() - start), versionArgs);
+    }
+
+    /**
+     * @param request
+     *            the request to build
+     * @return {@code -Dproperty=value} arguments setting the CI friendly version properties of the project to build
+     *         or an empty {@link List} if the project does not use CI friendly versions
+     */
+    protected List<String> getCiFriendlyArguments(BuildRequest request) {
+        final Path projectRootDirectory = request.getProjectRootDirectory();
+        try {
+            final Map<String, String> props = MavenReactor.read(projectRootDirectory)
+                    .getCiFriendlyVersionProperties(request.getSrcVersion().toString());
+            if (props == null) {
+                log.warn("srcdeps: [{}] does not use CI friendly versions consistently", projectRootDirectory);
+                return Collections.emptyList();
+            }
+            final List<String> result = new ArrayList<>(props.size());
+            for (Map.Entry<String, String> prop : props.entrySet()) {
+                result.add("-D" + prop.getKey() + "=" + prop.getValue());
+            }
+            return result;
+        } catch (BuildException e) {
+            log.warn("srcdeps: Could not read the POMs in [{}]: {}", projectRootDirectory, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * @param request
+     *            the request that was built
+     * @return the {@link Gav}s of all modules of the reactor in {@link BuildRequest#getProjectRootDirectory()}; the
+     *         versions that cannot be determined statically (e.g. CI friendly ones) are assumed to be
+     *         {@link BuildRequest#getSrcVersion()}
+     * @throws BuildException
+     *             if the POMs cannot be read
+     */
+    protected List<Gav> getModuleGavs(BuildRequest request) throws BuildException {
+        final List<Gav> result = new ArrayList<>();
+        for (MavenReactor.Module module : MavenReactor.read(request.getProjectRootDirectory()).getModules()) {
+            String version = module.getVersion();
+            if (version == null || version.contains("${")) {
+                version = request.getSrcVersion().toString();
+            }
+            result.add(new Gav(module.getGroupId(), module.getArtifactId(), version));
+        }
+        return result;
+    }
+
+    /**
+     * @param request
+     *            the request to build
+     * @return {@code --projects groupId:artifactId,... --also-make} arguments restricting the build to the modules
+     *         selected by {@link BuildRequest#getGavSet()} and the modules they depend on or an empty {@link List} if
+     *         the whole source tree needs to be built
+     */
+    protected List<String> getProjectsArguments(BuildRequest request) {
+        final Path projectRootDirectory = request.getProjectRootDirectory();
+        try {
+            final List<String> modules = MavenReactor.read(projectRootDirectory).selectModules(request.getGavSet(),
+                    request.getSrcVersion().toString());
+            if (modules == null) {
+                return Collections.emptyList();
+            }
+            final StringBuilder sb = new StringBuilder();
+            for (String module : modules) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(module);
+            }
+            log.debug("srcdeps: Building only [{}] and their dependencies in [{}]", sb, projectRootDirectory);
+            return Collections.unmodifiableList(Arrays.asList("--projects", sb.toString(), "--also-make"));
+        } catch (BuildException e) {
+            log.warn("srcdeps: Could not read the POMs in [{}], building all modules: {}", projectRootDirectory,
+                    e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * In addition to what {@link ShellBuilder#mergeArguments(BuildRequest)} does (including the CI friendly version
+     * properties passed by {@link #setVersions(BuildRequest)} via {@link BuildRequest#getVersionArguments()}), adds
+     * the {@link #getProjectsArguments(BuildRequest)} if {@link BuildRequest#isBuildIncludesOnly()} is {@code true} and
+     * the build arguments do not contain any {@code --projects} already. If
+     * {@link BuildRequest#isMavenIsolatedInstall()} is {@code true}, any {@code -Dmaven.repo.local} is replaced by the
+     * {@link #getOverlayRepository(Path)} and the local Maven repository is passed via {@code -Dmaven.repo.local.tail}
+     * so that Maven 3.9+ can still resolve the artifacts available there. Older Maven versions ignore
+     * {@code maven.repo.local.tail} and download all dependencies to the overlay repository.
+     *
+     * @param request
+     *            the request for which we are merging the arguments
+     * @return a new {@link List}, never {@code null}
+     */
     @Override
-    public void setVersions(BuildRequest request) throws BuildException {
+    protected List<String> mergeArguments(BuildRequest request) {
+        final List<String> result = super.mergeArguments(request);
+        if (request.isBuildIncludesOnly() && Collections.disjoint(result, PROJECTS_ARGS)) {
+            result.addAll(getProjectsArguments(request));
+        }
+        if (request.isMavenIsolatedInstall()) {
+            for (Iterator<String> it = result.iterator(); it.hasNext();) {
+                if (it.next().startsWith(MAVEN_REPO_LOCAL_ARG_PREFIX)) {
+                    it.remove();
+                }
+            }
+            result.add(MAVEN_REPO_LOCAL_ARG_PREFIX + getOverlayRepository(request.getProjectRootDirectory()));
+            result.add(MAVEN_REPO_LOCAL_TAIL_ARG_PREFIX + getLocalRepository(request).getRootDirectory());
+        }
+        return result;
+    }
+
+    /**
+     * Rewrites the versions in the {@code pom.xml} files of the dependency using {@link MavenReactor}.
+     *
+     * @param request
+     *            the request for which we are setting the versions
+     * @return {@code true} if the versions were set successfully; {@code false} otherwise
+     */
+    protected boolean rewriteVersions(BuildRequest request) {
+        final long start = System.currentTimeMillis();
+        final Path projectRootDirectory = request.getProjectRootDirectory();
+        try {
+            final int count = MavenReactor.read(projectRootDirectory).setVersions(request.getGavSet(),
+                    request.getSrcVersion().toString());
+            final long runtimeMs = System.currentTimeMillis() - start;
+            log.debug("srcdeps: Set version [{}] in {} modules of [{}] in {} ms", request.getSrcVersion(), count,
+                    projectRootDirectory, runtimeMs);
+            return true;
+        } catch (BuildException e) {
+            log.warn("srcdeps: Could not rewrite the versions in [{}], falling back to versions-maven-plugin: {}",
+                    projectRootDirectory, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Sets the versions in the source tree of the dependency using {@code versions-maven-plugin:set} in a separate
+     * Maven process.
+     *
+     * @param request
+     *            the request for which we are setting the versions
+     * @throws BuildException
+     *             on any build related problem
+     */
+    protected void setVersionsUsingPlugin(BuildRequest request) throws BuildException {
         final List<String> args = new ArrayList<>();
         args.add("org.codehaus.mojo:versions-maven-plugin:" + request.getVersionsMavenPluginVersion() + ":set");
         args.add("-DnewVersion=" + request.getSrcVersion().toString());
@@ -155,8 +449,7 @@ public abstract class AbstractMvnBuilder extends ShellBuilder {
                 .ioRedirects(request.getIoRedirects()) //
                 .timeoutMs(request.getTimeoutMs()) //
                 .build();
-        CommandResult result = Shell.execute(cliRequest).assertSuccess();
-        this.restTimeoutMs = request.getTimeoutMs() - result.getRuntimeMs();
+        Shell.execute(cliRequest).assertSuccess();
     }
 
 }
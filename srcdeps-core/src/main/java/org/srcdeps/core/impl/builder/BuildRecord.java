@@ -0,0 +1,173 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A record about the last successful build performed in a build directory (a.k.a. slot) managed by
+ * {@link org.srcdeps.core.fs.BuildDirectoriesManager}. The record is stored in a {@code *.build.properties} file next
+ * to the build directory rather than inside of it, so that it survives the cleaning of the checkout.
+ * <p>
+ * Accessing the record is safe as long as the build directory is locked by the current thread.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class BuildRecord {
+    private static final String COMMIT_ID = "commitId";
+    private static final String EXECUTABLE = "executable";
+    private static final String INPUTS_FINGERPRINT = "inputsFingerprint";
+    private static final Logger log = LoggerFactory.getLogger(BuildRecord.class);
+    private static final String SRC_VERSION = "srcVersion";
+    private static final String TIMESTAMP = "timestamp";
+
+    /**
+     * @param projectRootDirectory
+     *            the build directory
+     * @return the path of the file where the {@link BuildRecord} for the given {@code projectRootDirectory} is stored
+     */
+    public static Path getPath(Path projectRootDirectory) {
+        return projectRootDirectory.resolveSibling(projectRootDirectory.getFileName() + ".build.properties");
+    }
+
+    /**
+     * @param projectRootDirectory
+     *            the build directory
+     * @return the {@link BuildRecord} stored for the given {@code projectRootDirectory} or {@code null} if there is
+     *         none or if it cannot be read
+     */
+    public static BuildRecord read(Path projectRootDirectory) {
+        final Path path = getPath(projectRootDirectory);
+        final Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn(String.format("srcdeps: Could not read [%s]", path), e);
+            return null;
+        }
+        final String executable = props.getProperty(EXECUTABLE);
+        final String srcVersion = props.getProperty(SRC_VERSION);
+        final String timestamp = props.getProperty(TIMESTAMP);
+        if (executable == null || srcVersion == null || timestamp == null) {
+            log.warn("srcdeps: Ignoring incomplete [{}]", path);
+            return null;
+        }
+        try {
+            return new BuildRecord(executable, srcVersion, Long.parseLong(timestamp), props.getProperty(COMMIT_ID),
+                    props.getProperty(INPUTS_FINGERPRINT));
+        } catch (NumberFormatException e) {
+            log.warn("srcdeps: Ignoring [{}] with an invalid timestamp [{}]", path, timestamp);
+            return null;
+        }
+    }
+
+    private final String commitId;
+    private final String executable;
+    private final String inputsFingerprint;
+    private final String srcVersion;
+    private final long timestamp;
+
+    public BuildRecord(String executable, String srcVersion, long timestamp, String commitId,
+            String inputsFingerprint) {
+        super();
+        this.executable = executable;
+        this.srcVersion = srcVersion;
+        this.timestamp = timestamp;
+        this.commitId = commitId;
+        this.inputsFingerprint = inputsFingerprint;
+    }
+
+    /**
+     * @return the SHA-1 of the commit that was built or {@code null} if not known, e.g. because the source tree is
+     *         not a git repository
+     */
+    public String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * @return the executable (such as {@code mvn}) that performed the build
+     */
+    public String getExecutable() {
+        return executable;
+    }
+
+    /**
+     * @return a digest of the build inputs other than the sources, such as the build arguments and the environment
+     *         or {@code null} if not known; see
+     *         {@link ShellBuilder#computeInputsFingerprint(org.srcdeps.core.BuildRequest)}
+     */
+    public String getInputsFingerprint() {
+        return inputsFingerprint;
+    }
+
+    /**
+     * @return the version that was built
+     */
+    public String getSrcVersion() {
+        return srcVersion;
+    }
+
+    /**
+     * @return the time when the build finished in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildRecord [executable=" + executable + ", srcVersion=" + srcVersion + ", timestamp=" + timestamp
+                + ", commitId=" + commitId + ", inputsFingerprint=" + inputsFingerprint + "]";
+    }
+
+    /**
+     * Stores this {@link BuildRecord} for the given {@code projectRootDirectory}.
+     *
+     * @param projectRootDirectory
+     *            the build directory
+     * @throws IOException
+     *             on I/O problems
+     */
+    public void write(Path projectRootDirectory) throws IOException {
+        final Properties props = new Properties();
+        props.setProperty(EXECUTABLE, executable);
+        props.setProperty(SRC_VERSION, srcVersion);
+        props.setProperty(TIMESTAMP, String.valueOf(timestamp));
+        if (commitId != null) {
+            props.setProperty(COMMIT_ID, commitId);
+        }
+        if (inputsFingerprint != null) {
+            props.setProperty(INPUTS_FINGERPRINT, inputsFingerprint);
+        }
+        try (OutputStream out = Files.newOutputStream(getPath(projectRootDirectory))) {
+            props.store(out, null);
+        }
+    }
+
+}
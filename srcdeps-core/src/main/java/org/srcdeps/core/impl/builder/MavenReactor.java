@@ -0,0 +1,1020 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.builder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.GavSet;
+
+/**
+ * A lightweight view of a Maven reactor: the tree of {@code pom.xml} files reachable from a root directory through
+ * {@code <modules>}. The POMs are parsed with StAX and only the few elements srcdeps cares about are kept.
+ * <p>
+ * {@link #setVersions(GavSet, String)} is a pure Java replacement for {@code versions-maven-plugin:set}. It touches
+ * nothing but the text of the affected {@code <version>} elements so that the rest of the files stays byte for byte the
+ * same.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class MavenReactor {
+
+    /**
+     * A replacement of the {@code [start, end)} range of a POM file text with {@link #text}.
+     */
+    static class Edit {
+        private final int end;
+        private final int start;
+        private final String text;
+
+        Edit(int start, int end, String text) {
+            super();
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+    }
+
+    /**
+     * An element being read by the {@link XMLStreamReader}. Only the elements without child elements keep their text
+     * and only the child elements without children of their own are remembered in {@link #children}.
+     */
+    static class Frame {
+        private Map<String, Frame> children;
+        private final String name;
+        private final int ordinal;
+        private StringBuilder text;
+
+        Frame(String name, int ordinal) {
+            super();
+            this.name = name;
+            this.ordinal = ordinal;
+        }
+
+        void addChild(Frame child) {
+            if (children == null) {
+                children = new LinkedHashMap<>();
+            }
+            children.put(child.name, child);
+        }
+
+        void appendText(String value) {
+            if (text == null) {
+                text = new StringBuilder(value);
+            } else {
+                text.append(value);
+            }
+        }
+
+        Frame getChild(String childName) {
+            return children == null ? null : children.get(childName);
+        }
+
+        String getChildText(String childName) {
+            Frame child = getChild(childName);
+            return child == null ? null : child.getText();
+        }
+
+        String getText() {
+            return text == null ? "" : text.toString().trim();
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    /**
+     * A single module of a {@link MavenReactor}.
+     */
+    public static class Module {
+        private int artifactIdOrdinal = -1;
+        private final Charset charset;
+        private String artifactId;
+        private final String bom;
+        private final byte[] bytes;
+        private String groupId;
+        private boolean inProfile;
+        private final List<String> modules = new ArrayList<>();
+        private String packaging = "jar";
+        private String parentArtifactId;
+        private String parentGroupId;
+        private String parentVersion;
+        private int parentVersionOrdinal = -1;
+        private final Path pomPath;
+        private final List<String> profileModules = new ArrayList<>();
+        private final Map<String, String> properties = new LinkedHashMap<>();
+        private final List<Reference> references = new ArrayList<>();
+        private final TagIndex tagIndex;
+        private final String text;
+        private String version;
+        private int versionOrdinal = -1;
+
+        Module(Path pomPath, byte[] bytes, String text, String bom, Charset charset) throws BuildException {
+            super();
+            this.pomPath = pomPath;
+            this.bytes = bytes;
+            this.text = text;
+            this.bom = bom;
+            this.charset = charset;
+            this.tagIndex = TagIndex.of(text, pomPath);
+        }
+
+        /**
+         * @return the {@code artifactId} of this {@link Module}
+         */
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        String getGa() {
+            return getGroupId() + ":" + artifactId;
+        }
+
+        /**
+         * @return the {@code groupId} of this {@link Module}, possibly inherited from the parent
+         */
+        public String getGroupId() {
+            return groupId != null ? groupId : parentGroupId;
+        }
+
+        /**
+         * @return the packaging of this {@link Module}; {@code jar} if not set explicitly
+         */
+        public String getPackaging() {
+            return packaging;
+        }
+
+        String getParentGa() {
+            return parentArtifactId == null ? null : parentGroupId + ":" + parentArtifactId;
+        }
+
+        /**
+         * @return the path to the {@code pom.xml} file of this {@link Module}
+         */
+        public Path getPomPath() {
+            return pomPath;
+        }
+
+        /**
+         * @return the version of this {@link Module}, possibly inherited from the parent. Note that the returned
+         *         value may contain unresolved {@code ${property}} expressions
+         */
+        public String getVersion() {
+            return version != null ? version : parentVersion;
+        }
+
+        boolean hasOwnVersion() {
+            return versionOrdinal >= 0;
+        }
+
+        /**
+         * @return {@code true} if this {@link Module} is reachable only through the {@code <modules>} of some
+         *         {@code <profile>}; {@code false} otherwise
+         */
+        public boolean isInProfile() {
+            return inProfile;
+        }
+
+        void onEndElement(Frame frame, Deque<Frame> stack) {
+            final Frame parent = stack.peek();
+            if (parent == null) {
+                /* the root element */
+                return;
+            }
+            if (frame.isLeaf()) {
+                parent.addChild(frame);
+            }
+            if (stack.size() == 1) {
+                /* direct children of <project> */
+                switch (frame.name) {
+                case "groupId":
+                    groupId = frame.getText();
+                    break;
+                case "artifactId":
+                    artifactId = frame.getText();
+                    artifactIdOrdinal = frame.ordinal;
+                    break;
+                case "version":
+                    version = frame.getText();
+                    versionOrdinal = frame.ordinal;
+                    break;
+                case "packaging":
+                    packaging = frame.getText();
+                    break;
+                case "parent":
+                    parentGroupId = frame.getChildText("groupId");
+                    parentArtifactId = frame.getChildText("artifactId");
+                    Frame parentVersionFrame = frame.getChild("version");
+                    if (parentVersionFrame != null) {
+                        parentVersion = parentVersionFrame.getText();
+                        parentVersionOrdinal = parentVersionFrame.ordinal;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            } else {
+                switch (frame.name) {
+                case "module":
+                    if (isPath(stack, "modules")) {
+                        modules.add(frame.getText());
+                    } else if (isPath(stack, "profiles", "profile", "modules")) {
+                        profileModules.add(frame.getText());
+                    }
+                    break;
+                case "dependency":
+                case "extension":
+                case "plugin":
+                    Frame versionFrame = frame.getChild("version");
+                    String refArtifactId = frame.getChildText("artifactId");
+                    if (versionFrame != null && refArtifactId != null) {
+                        String refGroupId = frame.getChildText("groupId");
+                        if (refGroupId == null && "plugin".equals(frame.name)) {
+                            refGroupId = "org.apache.maven.plugins";
+                        }
+                        references.add(new Reference(refGroupId, refArtifactId, versionFrame.getText(),
+                                versionFrame.ordinal));
+                    }
+                    break;
+                default:
+                    if (frame.isLeaf() && isPath(stack, "properties")) {
+                        properties.put(frame.name, frame.getText());
+                    }
+                    break;
+                }
+            }
+        }
+
+        /**
+         * @param stack
+         *            the ancestors of the current element, the innermost first
+         * @param path
+         *            the names of the ancestors below {@code <project>}, the outermost first
+         * @return {@code true} if the current element is a child of {@code project/path[0]/path[1]/...}
+         */
+        private static boolean isPath(Deque<Frame> stack, String... path) {
+            if (stack.size() != path.length + 1) {
+                return false;
+            }
+            int i = path.length - 1;
+            for (Frame frame : stack) {
+                if (i < 0) {
+                    /* <project> */
+                    return true;
+                }
+                if (!path[i--].equals(frame.name)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Edit replaceVersionText(int ordinal, String newVersion) {
+            final int start = tagIndex.getContentStart(ordinal);
+            return new Edit(start, tagIndex.getContentEnd(text, start), newVersion);
+        }
+
+        @Override
+        public String toString() {
+            return getGroupId() + ":" + artifactId + ":" + getVersion() + " [" + pomPath + "]";
+        }
+
+        /**
+         * @param edits
+         *            the {@link Edit}s to apply, will be sorted in place
+         * @return the content of {@link #pomPath} with the given {@code edits} applied
+         */
+        byte[] getBytes(List<Edit> edits) {
+            Collections.sort(edits, new Comparator<Edit>() {
+                @Override
+                public int compare(Edit e1, Edit e2) {
+                    return Integer.compare(e2.start, e1.start);
+                }
+            });
+            StringBuilder sb = new StringBuilder(bom).append(text);
+            final int offset = bom.length();
+            for (Edit edit : edits) {
+                sb.replace(offset + edit.start, offset + edit.end, edit.text);
+            }
+            return sb.toString().getBytes(charset);
+        }
+
+        Edit insertVersion(String newVersion) {
+            final int artifactIdStart = tagIndex.getTagStart(artifactIdOrdinal);
+            int lineStart = text.lastIndexOf('\n', artifactIdStart) + 1;
+            String indent = text.substring(lineStart, artifactIdStart);
+            if (!indent.trim().isEmpty()) {
+                indent = "";
+            }
+            final int contentEnd = tagIndex.getContentEnd(text, tagIndex.getContentStart(artifactIdOrdinal));
+            final int insertAt = text.indexOf('>', contentEnd) + 1;
+            return new Edit(insertAt, insertAt, "\n" + indent + "<version>" + newVersion + "</version>");
+        }
+    }
+
+    /**
+     * A {@code <dependency>}, {@code <plugin>} or {@code <extension>} that has an explicit {@code <version>}.
+     */
+    static class Reference {
+        private final String artifactId;
+        private final String groupId;
+        private final String version;
+        private final int versionOrdinal;
+
+        Reference(String groupId, String artifactId, String version, int versionOrdinal) {
+            super();
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.versionOrdinal = versionOrdinal;
+        }
+    }
+
+    /**
+     * Positions of the start tags of a POM file in the document order. This is what allows us to map the
+     * {@link XMLStreamConstants#START_ELEMENT} events to exact character offsets, because
+     * {@link javax.xml.stream.Location#getCharacterOffset()} is not reliable enough for that purpose.
+     */
+    static class TagIndex {
+
+        static TagIndex of(String xml, Path path) throws BuildException {
+            TagIndex result = new TagIndex();
+            int i = 0;
+            while ((i = xml.indexOf('<', i)) >= 0) {
+                if (xml.startsWith("<!--", i)) {
+                    i = skipPast(xml, "-->", i + 4, path);
+                } else if (xml.startsWith("<![CDATA[", i)) {
+                    i = skipPast(xml, "]]>", i + 9, path);
+                } else if (xml.startsWith("<?", i)) {
+                    i = skipPast(xml, "?>", i + 2, path);
+                } else if (xml.startsWith("<!", i)) {
+                    /* DOCTYPE possibly with an internal subset */
+                    int depth = 0;
+                    int j = i + 2;
+                    for (; j < xml.length(); j++) {
+                        char ch = xml.charAt(j);
+                        if (ch == '[') {
+                            depth++;
+                        } else if (ch == ']') {
+                            depth--;
+                        } else if (ch == '>' && depth == 0) {
+                            break;
+                        }
+                    }
+                    i = j + 1;
+                } else if (xml.startsWith("</", i)) {
+                    i = skipPast(xml, ">", i + 2, path);
+                } else {
+                    final int end = endOfStartTag(xml, i, path);
+                    result.add(i, xml.charAt(end - 1) == '/' ? -1 : end + 1);
+                    i = end + 1;
+                }
+            }
+            return result;
+        }
+
+        private static int endOfStartTag(String xml, int start, Path path) throws BuildException {
+            char quote = 0;
+            for (int i = start + 1; i < xml.length(); i++) {
+                char ch = xml.charAt(i);
+                if (quote != 0) {
+                    if (ch == quote) {
+                        quote = 0;
+                    }
+                } else if (ch == '"' || ch == '\'') {
+                    quote = ch;
+                } else if (ch == '>') {
+                    return i;
+                }
+            }
+            throw new BuildException(String.format("Unterminated start tag at offset %d in [%s]", start, path));
+        }
+
+        private static int skipPast(String xml, String terminator, int from, Path path) throws BuildException {
+            int i = xml.indexOf(terminator, from);
+            if (i < 0) {
+                throw new BuildException(String.format("Could not find [%s] after offset %d in [%s]", terminator,
+                        from, path));
+            }
+            return i + terminator.length();
+        }
+
+        private int[] contentStarts = new int[128];
+        private int size;
+        private int[] tagStarts = new int[128];
+
+        void add(int tagStart, int contentStart) {
+            if (size == tagStarts.length) {
+                final int newLength = size * 2;
+                int[] newTagStarts = new int[newLength];
+                System.arraycopy(tagStarts, 0, newTagStarts, 0, size);
+                tagStarts = newTagStarts;
+                int[] newContentStarts = new int[newLength];
+                System.arraycopy(contentStarts, 0, newContentStarts, 0, size);
+                contentStarts = newContentStarts;
+            }
+            tagStarts[size] = tagStart;
+            contentStarts[size] = contentStart;
+            size++;
+        }
+
+        /**
+         * @param xml
+         *            the document
+         * @param contentStart
+         *            the offset right after the start tag of a text-only element
+         * @return the offset of the end tag of the element whose content starts at {@code contentStart}
+         */
+        int getContentEnd(String xml, int contentStart) {
+            int i = contentStart;
+            while ((i = xml.indexOf('<', i)) >= 0) {
+                if (xml.startsWith("<!--", i)) {
+                    i = xml.indexOf("-->", i + 4) + 3;
+                } else if (xml.startsWith("<![CDATA[", i)) {
+                    i = xml.indexOf("]]>", i + 9) + 3;
+                } else {
+                    return i;
+                }
+            }
+            throw new IllegalStateException(String.format("No end tag after offset %d", contentStart));
+        }
+
+        int getContentStart(int ordinal) {
+            return contentStarts[ordinal];
+        }
+
+        int getTagStart(int ordinal) {
+            return tagStarts[ordinal];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    private static final Pattern CI_FRIENDLY_PROPERTY_PATTERN = Pattern
+            .compile("\\$\\{(revision|sha1|changelist)\\}");
+
+    private static final Pattern CI_FRIENDLY_VERSION_PATTERN = Pattern
+            .compile("(?:\\$\\{(?:revision|sha1|changelist)\\})+");
+
+    private static final Pattern ENCODING_PATTERN = Pattern
+            .compile("^<\\?xml[^>]*encoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    private static final Pattern EXPRESSION_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+
+    /** The maximal depth of nested {@code ${property}} expressions {@link #resolve(Module, String)} follows */
+    private static final int MAX_EXPRESSION_DEPTH = 8;
+
+    private static final String POM_XML = "pom.xml";
+
+    /**
+     * The reactors read so far by their root {@code pom.xml} paths. An entry is reused only if none of its POM files
+     * has changed since, so that the several callers involved in a single build share one parsed reactor.
+     */
+    private static final ConcurrentMap<Path, MavenReactor> REACTORS = new ConcurrentHashMap<>();
+
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        XMLInputFactory f = XMLInputFactory.newInstance();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        XML_INPUT_FACTORY = f;
+    }
+
+    private static Module parse(Path pomPath) throws BuildException {
+        try {
+            final byte[] bytes = Files.readAllBytes(pomPath);
+            String head = new String(bytes, 0, Math.min(bytes.length, 256), StandardCharsets.ISO_8859_1);
+            String bom = "";
+            if (head.startsWith("\u00ef\u00bb\u00bf")) {
+                bom = "\ufeff";
+                head = head.substring(3);
+            }
+            Charset charset = StandardCharsets.UTF_8;
+            Matcher m = ENCODING_PATTERN.matcher(head);
+            if (m.find()) {
+                charset = Charset.forName(m.group(1));
+            }
+            String text = new String(bytes, charset);
+            if (!bom.isEmpty() && text.startsWith(bom)) {
+                text = text.substring(1);
+            }
+
+            final Module module = new Module(pomPath, bytes, text, bom, charset);
+            final Deque<Frame> stack = new ArrayDeque<>();
+            int ordinal = 0;
+            XMLStreamReader r = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(text));
+            try {
+                while (r.hasNext()) {
+                    switch (r.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        stack.push(new Frame(r.getLocalName(), ordinal++));
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (!stack.isEmpty()) {
+                            stack.peek().appendText(r.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        Frame frame = stack.pop();
+                        module.onEndElement(frame, stack);
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            } finally {
+                r.close();
+            }
+            if (ordinal != module.tagIndex.size()) {
+                throw new BuildException(String.format("Found %d start tags but %d elements in [%s]",
+                        module.tagIndex.size(), ordinal, pomPath));
+            }
+            if (module.artifactId == null) {
+                throw new BuildException(String.format("No artifactId in [%s]", pomPath));
+            }
+            return module;
+        } catch (IOException | XMLStreamException | IllegalArgumentException e) {
+            throw new BuildException(String.format("Could not parse [%s]", pomPath), e);
+        }
+    }
+
+    /**
+     * Reads the {@code pom.xml} file in the given {@code rootDirectory} and all modules reachable from it, including
+     * the modules declared in profiles. A {@link MavenReactor} read before from the same {@code rootDirectory} is
+     * returned if the content of none of its POM files has changed since.
+     *
+     * @param rootDirectory
+     *            the directory containing the top level {@code pom.xml}
+     * @return a {@link MavenReactor}
+     * @throws BuildException
+     *             if there is no {@code pom.xml} file in {@code rootDirectory}, if any of the POMs cannot be read or
+     *             parsed or if a module cannot be found
+     */
+    public static MavenReactor read(Path rootDirectory) throws BuildException {
+        final Path rootPom = rootDirectory.resolve(POM_XML).toAbsolutePath().normalize();
+        if (!Files.exists(rootPom)) {
+            REACTORS.remove(rootPom);
+            throw new BuildException(String.format("File not found [%s]", rootPom));
+        }
+        final MavenReactor cached = REACTORS.get(rootPom);
+        if (cached != null && cached.isUpToDate()) {
+            return cached;
+        }
+        final MavenReactor result = readModules(rootPom);
+        REACTORS.put(rootPom, result);
+        return result;
+    }
+
+    private static MavenReactor readModules(Path rootPom) throws BuildException {
+        final List<Module> modules = new ArrayList<>();
+        final Set<Path> visited = new HashSet<>();
+        final Deque<Path> queue = new ArrayDeque<>();
+        /* the modules declared in profiles are visited only after all modules reachable without profiles */
+        final Deque<Path> profileQueue = new ArrayDeque<>();
+        queue.add(rootPom);
+        boolean inProfile = false;
+        while (!queue.isEmpty() || !profileQueue.isEmpty()) {
+            if (queue.isEmpty()) {
+                queue.addAll(profileQueue);
+                profileQueue.clear();
+                inProfile = true;
+            }
+            final Path pomPath = queue.poll();
+            if (visited.add(pomPath)) {
+                final Module module = parse(pomPath);
+                module.inProfile = inProfile;
+                modules.add(module);
+                addModulePaths(pomPath, module.modules, queue);
+                addModulePaths(pomPath, module.profileModules, profileQueue);
+            }
+        }
+        return new MavenReactor(Collections.unmodifiableList(modules));
+    }
+
+    private static void addModulePaths(Path pomPath, List<String> children, Deque<Path> queue)
+            throws BuildException {
+        for (String child : children) {
+            Path childPath = pomPath.getParent().resolve(child).normalize();
+            if (Files.isDirectory(childPath)) {
+                childPath = childPath.resolve(POM_XML);
+            }
+            if (!Files.exists(childPath)) {
+                throw new BuildException(String.format("Module [%s] declared in [%s] does not exist", child, pomPath));
+            }
+            queue.add(childPath);
+        }
+    }
+
+    /**
+     * Writes the given {@code edits} so that either all or none of the POM files get changed: the new contents are
+     * written to temporary files first and only if that succeeds, the temporary files are moved over the POM files. If
+     * any of the moves fails, the POM files moved so far are restored.
+     *
+     * @param edits
+     *            the {@link Edit}s by {@link Module}
+     * @throws BuildException
+     *             on I/O problems
+     */
+    static void write(Map<Module, List<Edit>> edits) throws BuildException {
+        final Map<Module, Path> tempFiles = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Module, List<Edit>> en : edits.entrySet()) {
+                final Path pomPath = en.getKey().pomPath;
+                final Path tempFile = pomPath.resolveSibling(pomPath.getFileName() + ".srcdeps.tmp");
+                tempFiles.put(en.getKey(), tempFile);
+                try {
+                    Files.write(tempFile, en.getKey().getBytes(en.getValue()));
+                } catch (IOException e) {
+                    throw new BuildException(String.format("Could not write [%s]", tempFile), e);
+                }
+            }
+
+            final List<Module> moved = new ArrayList<>();
+            for (Map.Entry<Module, Path> en : tempFiles.entrySet()) {
+                final Module module = en.getKey();
+                try {
+                    Files.move(en.getValue(), module.pomPath, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    moved.add(module);
+                } catch (IOException e) {
+                    for (Module m : moved) {
+                        try {
+                            Files.write(m.pomPath, m.getBytes(new ArrayList<Edit>()));
+                        } catch (IOException e1) {
+                            e.addSuppressed(e1);
+                        }
+                    }
+                    throw new BuildException(String.format("Could not write [%s]", module.pomPath), e);
+                }
+            }
+        } finally {
+            for (Path tempFile : tempFiles.values()) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    /* nothing we could do */
+                }
+            }
+        }
+    }
+
+    private final List<Module> modules;
+
+    /** All {@link #modules} by {@code groupId:artifactId} */
+    private final Map<String, Module> modulesByGa;
+
+    private MavenReactor(List<Module> modules) {
+        super();
+        this.modules = modules;
+        final Map<String, Module> byGa = new LinkedHashMap<>();
+        for (Module module : modules) {
+            byGa.put(module.getGa(), module);
+        }
+        this.modulesByGa = Collections.unmodifiableMap(byGa);
+    }
+
+    /**
+     * Checks whether all modules of this reactor use the same
+     * <a href="https://maven.apache.org/maven-ci-friendly.html">CI friendly</a> version expression such as
+     * {@code ${revision}} or {@code ${revision}${changelist}} and if so, returns the values of the properties that
+     * make the expression evaluate to {@code newVersion}: the first property of the expression gets
+     * {@code newVersion}, the remaining ones get an empty string.
+     *
+     * @param newVersion
+     *            the version to set
+     * @return a {@link Map} from property names to their values or {@code null} if the version of some module is not a
+     *         CI friendly expression or if the modules use different expressions
+     */
+    public Map<String, String> getCiFriendlyVersionProperties(String newVersion) {
+        String expression = null;
+        for (Module module : modules) {
+            final String version = module.getVersion();
+            if (version == null || !CI_FRIENDLY_VERSION_PATTERN.matcher(version).matches()) {
+                return null;
+            } else if (expression == null) {
+                expression = version;
+            } else if (!expression.equals(version)) {
+                return null;
+            }
+        }
+        if (expression == null) {
+            return null;
+        }
+        final Map<String, String> result = new LinkedHashMap<>();
+        final Matcher m = CI_FRIENDLY_PROPERTY_PATTERN.matcher(expression);
+        while (m.find()) {
+            if (!result.containsKey(m.group(1))) {
+                result.put(m.group(1), result.isEmpty() ? newVersion : "");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the {@link Module}s of this reactor, the top level one being the first
+     */
+    public List<Module> getModules() {
+        return modules;
+    }
+
+    /**
+     * @param module
+     *            the module declaring the {@code ref}
+     * @param ref
+     *            the {@link Reference} whose {@code groupId:artifactId} should be returned
+     * @return the {@code groupId:artifactId} of the given {@code ref} with any {@code ${property}} expressions
+     *         resolved against the given {@code module}
+     */
+    private String getGa(Module module, Reference ref) {
+        return resolve(module, ref.groupId) + ":" + resolve(module, ref.artifactId);
+    }
+
+    /**
+     * @param module
+     *            the module whose parent should be returned
+     * @return the {@code groupId:artifactId} of the parent of the given {@code module} with any {@code ${property}}
+     *         expressions in the {@code groupId} resolved or {@code null} if the {@code module} has no parent
+     */
+    private String getParentGa(Module module) {
+        return module.parentArtifactId == null ? null
+                : resolve(module, module.parentGroupId) + ":" + module.parentArtifactId;
+    }
+
+    /**
+     * @param module
+     *            the module in whose context the property should be evaluated
+     * @param name
+     *            the name of the property
+     * @return the value of the given {@code project.*} property of the given {@code module} or the value of the
+     *         {@code <properties>} entry of the given {@code module} or of its nearest ancestor in this reactor; or
+     *         {@code null} if no value can be found
+     */
+    private String getPropertyValue(Module module, String name) {
+        switch (name) {
+        case "project.groupId":
+        case "pom.groupId":
+            return module.getGroupId();
+        case "project.artifactId":
+        case "pom.artifactId":
+            return module.artifactId;
+        case "project.version":
+        case "pom.version":
+            return module.getVersion();
+        case "project.parent.groupId":
+            return module.parentGroupId;
+        case "project.parent.version":
+            return module.parentVersion;
+        default:
+            Module current = module;
+            for (int i = 0; current != null && i < MAX_EXPRESSION_DEPTH; i++) {
+                final String value = current.properties.get(name);
+                if (value != null) {
+                    return value;
+                }
+                current = modulesByGa.get(current.getParentGa());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param changed
+     *            the modules to set {@code newVersion} to
+     * @return {@code false} if some reference to a module of this reactor through an expression such as
+     *         {@code ${project.version}} evaluates to the version of the referenced module now but would not do so
+     *         after changing only the {@code changed} modules; {@code true} otherwise
+     */
+    private boolean isConsistent(Set<Module> changed) {
+        for (Module module : modules) {
+            for (Reference ref : module.references) {
+                final Module target = modulesByGa.get(getGa(module, ref));
+                if (target != null && ref.version != null && ref.version.contains("${")
+                        && target.getVersion().equals(resolve(module, ref.version))
+                        && changed.contains(module) != changed.contains(target)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the content of none of the POM files of this reactor has changed since they were read;
+     *         {@code false} otherwise
+     */
+    private boolean isUpToDate() {
+        for (Module module : modules) {
+            try {
+                if (!Arrays.equals(module.bytes, Files.readAllBytes(module.pomPath))) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves the {@code ${property}} expressions in the given {@code value} the way Maven would do for the given
+     * {@code module}, as far as the information available in this reactor allows. The expressions that cannot be
+     * resolved are left untouched.
+     *
+     * @param module
+     *            the module in whose context the {@code value} should be evaluated
+     * @param value
+     *            the value to resolve, may be {@code null}
+     * @return the resolved {@code value}
+     */
+    String resolve(Module module, String value) {
+        return resolve(module, value, 0);
+    }
+
+    private String resolve(Module module, String value, int depth) {
+        if (value == null || !value.contains("${") || depth >= MAX_EXPRESSION_DEPTH) {
+            return value;
+        }
+        final Matcher m = EXPRESSION_PATTERN.matcher(value);
+        final StringBuffer sb = new StringBuffer();
+        while (m.find()) {
+            final String propertyValue = getPropertyValue(module, m.group(1));
+            final String replacement = propertyValue == null ? m.group() : resolve(module, propertyValue, depth + 1);
+            m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Selects the modules contained in the given {@link GavSet} so that they can be passed to Maven's
+     * {@code --projects} option.
+     *
+     * @param gavSet
+     *            the {@link GavSet} to select the modules
+     * @param fallbackVersion
+     *            the version to match against {@code gavSet} for modules whose version cannot be determined
+     *            statically, e.g. because it is a {@code ${property}} expression
+     * @return a {@link List} of {@code groupId:artifactId} strings or {@code null} if the whole reactor needs to be
+     *         built: that is if all or no modules are selected or if some of the selected modules are reachable only
+     *         through a {@code <profile>}
+     */
+    public List<String> selectModules(GavSet gavSet, String fallbackVersion) {
+        final List<String> result = new ArrayList<>();
+        for (Module module : modules) {
+            String version = module.getVersion();
+            if (version == null || version.contains("${")) {
+                version = fallbackVersion;
+            }
+            if (gavSet.contains(module.getGroupId(), module.artifactId, version)) {
+                if (module.inProfile) {
+                    return null;
+                }
+                result.add(module.getGa());
+            }
+        }
+        if (result.isEmpty() || result.size() == modules.size()) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Sets {@code newVersion} to all modules contained in the given {@link GavSet} and updates all references to those
+     * modules within the reactor: the {@code <parent>} elements and the {@code <dependency>}, {@code <plugin>} and
+     * {@code <extension>} elements whose version is the literal old version of the referenced module. The
+     * {@code ${property}} expressions in the {@code groupId} of the references are resolved against the declaring
+     * module, see {@link #resolve(Module, String)}. Modules whose
+     * version is inherited from a changed parent are considered changed too. If a reference through an expression such
+     * as {@code ${project.version}} would stop matching the version of the referenced module, the versions of all
+     * modules are set, like {@code versions-maven-plugin:set} does. The POM files are changed either all or none.
+     *
+     * @param gavSet
+     *            the {@link GavSet} to select the modules to change
+     * @param newVersion
+     *            the version to set
+     * @return the number of changed modules
+     * @throws BuildException
+     *             if the version of any module cannot be determined, e.g. because it is a {@code ${property}}
+     *             expression, or on I/O problems
+     */
+    public int setVersions(GavSet gavSet, String newVersion) throws BuildException {
+        final Set<Module> changed = new LinkedHashSet<>();
+        for (Module module : modules) {
+            final String version = module.getVersion();
+            if (version == null || version.contains("${")) {
+                throw new BuildException(String.format("Cannot determine the version of [%s]", module));
+            }
+            if (!newVersion.equals(version) && gavSet.contains(module.getGroupId(), module.artifactId, version)) {
+                changed.add(module);
+            }
+        }
+
+        /* the modules inheriting the version from a changed parent are changed too */
+        boolean added;
+        do {
+            added = false;
+            for (Module module : modules) {
+                if (!module.hasOwnVersion() && !changed.contains(module)) {
+                    final Module parent = modulesByGa.get(getParentGa(module));
+                    if (parent != null && changed.contains(parent)) {
+                        changed.add(module);
+                        added = true;
+                    }
+                }
+            }
+        } while (added);
+
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        if (!isConsistent(changed)) {
+            for (Module module : modules) {
+                if (!newVersion.equals(module.getVersion())) {
+                    changed.add(module);
+                }
+            }
+        }
+
+        final Map<String, String> oldVersions = new LinkedHashMap<>();
+        for (Module module : changed) {
+            oldVersions.put(module.getGa(), module.getVersion());
+        }
+
+        final Map<Module, List<Edit>> editsByModule = new LinkedHashMap<>();
+        for (Module module : modules) {
+            final List<Edit> edits = new ArrayList<>();
+            if (changed.contains(module)) {
+                if (module.hasOwnVersion()) {
+                    edits.add(module.replaceVersionText(module.versionOrdinal, newVersion));
+                } else if (!oldVersions.containsKey(getParentGa(module))) {
+                    edits.add(module.insertVersion(newVersion));
+                }
+            }
+            if (module.parentVersionOrdinal >= 0) {
+                final String oldParentVersion = oldVersions.get(getParentGa(module));
+                if (oldParentVersion != null && oldParentVersion.equals(module.parentVersion)) {
+                    edits.add(module.replaceVersionText(module.parentVersionOrdinal, newVersion));
+                }
+            }
+            for (Reference ref : module.references) {
+                final String oldVersion = oldVersions.get(getGa(module, ref));
+                if (oldVersion != null && oldVersion.equals(ref.version)) {
+                    edits.add(module.replaceVersionText(ref.versionOrdinal, newVersion));
+                }
+            }
+            if (!edits.isEmpty()) {
+                editsByModule.put(module, edits);
+            }
+        }
+        write(editsByModule);
+        return changed.size();
+    }
+
+}
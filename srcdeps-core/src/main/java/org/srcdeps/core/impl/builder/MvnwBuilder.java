@@ -17,11 +17,15 @@
 package org.srcdeps.core.impl.builder;
 
 import java.nio.file.Path;
+import java.util.Set;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.Scm;
+import org.srcdeps.core.fs.BuildSemaphore;
 import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
@@ -40,6 +44,18 @@ public class MvnwBuilder extends AbstractMvnBuilder {
         super(getOsSpecificExecutable());
     }
 
+    /**
+     * @param buildSemaphore
+     *            the {@link BuildSemaphore} limiting the number of concurrent builds, see
+     *            {@link ShellBuilder#getParallelThreads()}
+     * @param scms
+     *            the {@link Scm}s to ask about the revisions checked out in the build directories
+     */
+    @Inject
+    public MvnwBuilder(BuildSemaphore buildSemaphore, Set<Scm> scms) {
+        super(getOsSpecificExecutable(), buildSemaphore.getPermits(), scms);
+    }
+
     @Override
     public boolean canBuild(Path projectRootDirectory) {
         return hasMvnwFile(projectRootDirectory);
@@ -16,18 +16,35 @@
  */
 package org.srcdeps.core.impl.builder;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.srcdeps.core.BuildException;
 import org.srcdeps.core.BuildRequest;
 import org.srcdeps.core.BuildRequest.Verbosity;
 import org.srcdeps.core.Builder;
+import org.srcdeps.core.RevisionAwareScm;
+import org.srcdeps.core.Scm;
+import org.srcdeps.core.fs.BuildSemaphore;
+import org.srcdeps.core.shell.BadExitCodeException;
+import org.srcdeps.core.shell.CommandTimeoutException;
+import org.srcdeps.core.shell.IoRedirects;
 import org.srcdeps.core.shell.Shell;
 import org.srcdeps.core.shell.ShellCommand;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
  * A base class for command line build tools.
@@ -35,45 +52,208 @@ import org.srcdeps.core.shell.ShellCommand;
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
 public abstract class ShellBuilder implements Builder {
+    private static final Logger log = LoggerFactory.getLogger(ShellBuilder.class);
 
-    protected final String executable;
+    /** The name of the clean goal or task of both Maven and Gradle */
+    private static final String CLEAN = "clean";
+
+    /** The offline flags of both Maven and Gradle */
+    private static final List<String> OFFLINE_FLAGS = Collections
+            .unmodifiableList(Arrays.asList("-o", "--offline"));
 
     /**
-     * Set by {@link #setVersions(BuildRequest)}, tells in how many milliseconds must {@link #build(BuildRequest)}
-     * finish
+     * @param projectRootDirectory
+     *            the directory where the build runs
+     * @return the path of the file where the output of the offline attempt of the build is stored, see
+     *         {@link BuildRequest#isPreferOffline()}
      */
-    protected long restTimeoutMs = Long.MIN_VALUE;
+    static Path getOfflineLogPath(Path projectRootDirectory) {
+        return projectRootDirectory.resolveSibling(projectRootDirectory.getFileName() + ".offline.log");
+    }
+
+    /**
+     * @param redirect
+     *            the {@link Redirect} to transform
+     * @return {@link Redirect#appendTo(java.io.File)} if the given {@code redirect} is of type
+     *         {@link Redirect.Type#WRITE} or the given {@code redirect} otherwise
+     */
+    private static Redirect toAppend(Redirect redirect) {
+        return redirect.type() == Redirect.Type.WRITE ? Redirect.appendTo(redirect.file()) : redirect;
+    }
+
+    /**
+     * The maximal number of builds that can run concurrently on the present machine, see
+     * {@link #getParallelThreads()}
+     */
+    private final int concurrentBuilds;
+
+    protected final String executable;
+
+    /** The {@link Scm}s to ask about the revisions checked out in the build directories */
+    private final Set<Scm> scms;
 
     /**
      * @param executable
      *            the executable such as {@code mvn}
      */
     public ShellBuilder(String executable) {
+        this(executable, BuildSemaphore.getDefaultPermits());
+    }
+
+    /**
+     * @param executable
+     *            the executable such as {@code mvn}
+     * @param concurrentBuilds
+     *            the maximal number of builds that can run concurrently on the present machine, typically
+     *            {@link BuildSemaphore#getPermits()}
+     */
+    public ShellBuilder(String executable, int concurrentBuilds) {
+        this(executable, concurrentBuilds, Collections.<Scm>emptySet());
+    }
+
+    /**
+     * @param executable
+     *            the executable such as {@code mvn}
+     * @param concurrentBuilds
+     *            the maximal number of builds that can run concurrently on the present machine, typically
+     *            {@link BuildSemaphore#getPermits()}
+     * @param scms
+     *            the {@link Scm}s to ask about the revisions checked out in the build directories; incremental builds
+     *            are only possible for the checkouts of a {@link RevisionAwareScm}
+     */
+    public ShellBuilder(String executable, int concurrentBuilds, Set<Scm> scms) {
         super();
+        if (concurrentBuilds < 1) {
+            throw new IllegalArgumentException(
+                    String.format("concurrentBuilds must be a positive integer; found [%d]", concurrentBuilds));
+        }
         this.executable = executable;
+        this.concurrentBuilds = concurrentBuilds;
+        this.scms = scms;
     }
 
     @Override
     public void build(BuildRequest request) throws BuildException {
 
-        /*
-         * restTimeoutMs == Long.MIN_VALUE means that the restTimeoutMs was not set by setVersions() and it will
-         * therefore be ignored
-         */
-        long timeoutMs = restTimeoutMs == Long.MIN_VALUE ? request.getTimeoutMs() : restTimeoutMs;
+        /* setVersions() has reduced the timeout of the request by the time it spent */
+        long timeoutMs = request.getTimeoutMs();
 
-        List<String> args = mergeArguments(request);
+        final List<String> args = mergeArguments(request);
+        final Path projectRootDirectory = request.getProjectRootDirectory();
+        final BuildRecord previousBuild = BuildRecord.read(projectRootDirectory);
+        if (request.isAddDefaultBuildArguments() && request.isIncremental()
+                && isIncrementalPossible(request, previousBuild)) {
+            /*
+             * mergeArguments() puts the default arguments first so this is the default clean rather than any clean
+             * passed via request.getBuildArguments()
+             */
+            final int cleanIndex = getDefaultBuildArguments().indexOf(CLEAN);
+            if (cleanIndex >= 0 && CLEAN.equals(args.get(cleanIndex))) {
+                log.info("srcdeps: Omitting the default [{}] in [{}] as the previous build there was of an ancestor"
+                        + " commit", CLEAN, projectRootDirectory);
+                args.remove(cleanIndex);
+            }
+        }
+        final List<String> offlineArgs = getOfflineArguments();
+        if (request.isPreferOffline() && previousBuild != null && !offlineArgs.isEmpty()
+                && Collections.disjoint(args, OFFLINE_FLAGS)) {
+            final List<String> offlineBuildArgs = new ArrayList<>(args);
+            offlineBuildArgs.addAll(offlineArgs);
+            final Path offlineLog = getOfflineLogPath(projectRootDirectory);
+            final IoRedirects redirects = request.getIoRedirects();
+            final long start = System.currentTimeMillis();
+            try {
+                /*
+                 * Stream the output to where the caller wants it and capture a copy of it so that we can tell why the
+                 * build failed. stderr is merged into stdout because some tools report resolution failures there
+                 */
+                execute(request, offlineBuildArgs, timeoutMs,
+                        new IoRedirects(redirects.getStdin(), redirects.getStdout(), null), offlineLog);
+                writeBuildRecord(request);
+                return;
+            } catch (BadExitCodeException e) {
+                if (!isOfflineResolutionFailure(offlineLog)) {
+                    throw e;
+                }
+                timeoutMs -= System.currentTimeMillis() - start;
+                if (timeoutMs <= 0) {
+                    throw new CommandTimeoutException(String.format(
+                            "No time left for retrying the build in [%s] online after the offline build failed",
+                            projectRootDirectory), e);
+                }
+                log.warn("srcdeps: Offline build in [{}] could not resolve some artifacts, retrying online",
+                        projectRootDirectory);
+            }
+            /* append so that the output of the failed offline build stays in the log */
+            execute(request, args, timeoutMs, new IoRedirects(redirects.getStdin(), toAppend(redirects.getStdout()),
+                    redirects.isErr2Out() ? null : toAppend(redirects.getStderr())), null);
+            writeBuildRecord(request);
+            return;
+        }
+        execute(request, args, timeoutMs, request.getIoRedirects(), null);
+        writeBuildRecord(request);
+    }
+
+    /**
+     * Computes a digest of the inputs of the given {@code request} other than the sources: the executable, the build
+     * arguments, the forwarded properties with their values, the environment and the flags influencing the build
+     * output. Note that the version being built is
+     * intentionally not a part of the fingerprint.
+     *
+     * @param request
+     *            the request to build
+     * @return a hex SHA-1 digest
+     */
+    protected String computeInputsFingerprint(BuildRequest request) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(executable).append('\n');
+        sb.append(request.isAddDefaultBuildArguments()).append('\n');
+        for (String arg : request.getBuildArguments()) {
+            sb.append(arg).append('\n');
+        }
+        sb.append(request.isSkipTests()).append('\n');
+        final List<String> forwardedProperties = getForwardPropertiesArguments(request.getForwardProperties());
+        /* the order of System.getProperties() is not defined */
+        Collections.sort(forwardedProperties);
+        for (String prop : forwardedProperties) {
+            sb.append(prop).append('\n');
+        }
+        for (Map.Entry<String, String> en : mergeEnvironment(request).entrySet()) {
+            sb.append(en.getKey()).append('=').append(en.getValue()).append('\n');
+        }
+        return SrcdepsCoreUtils.sha1Hex(sb.toString());
+    }
+
+    private void execute(BuildRequest request, List<String> args, long timeoutMs, IoRedirects ioRedirects,
+            Path stdoutCopy) throws BuildException {
         ShellCommand command = ShellCommand.builder() //
                 .executable(locateExecutable(request)) //
                 .arguments(args) //
                 .workingDirectory(request.getProjectRootDirectory()) //
                 .environment(mergeEnvironment(request)) //
-                .ioRedirects(request.getIoRedirects()) //
+                .ioRedirects(ioRedirects) //
+                .stdoutCopy(stdoutCopy) //
                 .timeoutMs(timeoutMs) //
                 .build();
         Shell.execute(command).assertSuccess();
     }
 
+    /**
+     * @param request
+     *            the request to build
+     * @return the {@link RevisionAwareScm} supporting the first of {@link BuildRequest#getScmUrls()} or {@code null}
+     *         if there is none
+     */
+    private RevisionAwareScm findRevisionAwareScm(BuildRequest request) {
+        final String firstUrl = request.getScmUrls().iterator().next();
+        for (Scm scm : scms) {
+            if (scm instanceof RevisionAwareScm && scm.supports(firstUrl)) {
+                return (RevisionAwareScm) scm;
+            }
+        }
+        return null;
+    }
+
     protected abstract List<String> getDefaultBuildArguments();
 
     protected abstract Map<String, String> getDefaultBuildEnvironment();
@@ -89,12 +269,12 @@ public abstract class ShellBuilder implements Builder {
 
             if (propName.endsWith("*")) {
                 /* prefix */
-                String prefix = propName.substring(propName.length() - 1);
+                String prefix = propName.substring(0, propName.length() - 1);
                 for (Object key : System.getProperties().keySet()) {
                     if (key instanceof String && ((String) key).startsWith(prefix)) {
                         String value = System.getProperty((String) key);
                         if (value != null) {
-                            result.add("-D" + propName + "=" + value);
+                            result.add("-D" + key + "=" + value);
                         }
                     }
                 }
@@ -110,6 +290,49 @@ public abstract class ShellBuilder implements Builder {
         return result;
     }
 
+    /**
+     * Returns an empty {@link List} which means that the build is never attempted offline. Subclasses should override
+     * this together with {@link #getOfflineFailureMarkers()}.
+     *
+     * @return the build tool specific arguments that make the build tool work offline, i.e. without contacting any
+     *         remote repositories
+     */
+    protected List<String> getOfflineArguments() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns an empty {@link List}, i.e. a failed offline build is never retried online.
+     *
+     * @return the strings which, when found in the output of a failed offline build, signal that the build failed
+     *         because some artifacts were not available locally, so that it makes sense to retry the build online
+     */
+    protected List<String> getOfflineFailureMarkers() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns an empty {@link List}. Subclasses should override this to return the build tool specific arguments.
+     *
+     * @param arguments
+     *            the arguments merged so far
+     * @param threads
+     *            the number of threads the build may use, see {@link #getParallelThreads()}
+     * @return the build tool specific arguments enabling a parallel build with the given number of {@code threads} or
+     *         an empty {@link List} if the given {@code arguments} configure the parallelism already
+     */
+    protected List<String> getParallelArguments(List<String> arguments, int threads) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the number of threads a single build may use so that the maximal number of concurrent builds passed to
+     *         {@link #ShellBuilder(String, int)} does not oversubscribe the available CPU cores; at least {@code 1}
+     */
+    protected int getParallelThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / concurrentBuilds);
+    }
+
     protected abstract List<String> getSkipTestsArguments(boolean skipTests);
 
     protected abstract List<String> getVerbosityArguments(Verbosity verbosity);
@@ -126,6 +349,63 @@ public abstract class ShellBuilder implements Builder {
         return executable;
     }
 
+    /**
+     * Tells if the {@code clean} can be omitted, i.e. if the previous build in the same
+     * {@link BuildRequest#getProjectRootDirectory()} was of an ancestor commit of the current one and had the same
+     * {@link #computeInputsFingerprint(BuildRequest)}.
+     *
+     * @param request
+     *            the request to build
+     * @param previousBuild
+     *            the {@link BuildRecord} of the previous build or {@code null}
+     * @return {@code true} if an incremental build is possible, {@code false} otherwise
+     */
+    protected boolean isIncrementalPossible(BuildRequest request, BuildRecord previousBuild) {
+        if (previousBuild == null || previousBuild.getCommitId() == null) {
+            return false;
+        }
+        if (!computeInputsFingerprint(request).equals(previousBuild.getInputsFingerprint())) {
+            log.debug("srcdeps: The inputs have changed since the previous build in [{}]",
+                    request.getProjectRootDirectory());
+            return false;
+        }
+        final RevisionAwareScm scm = findRevisionAwareScm(request);
+        if (scm == null) {
+            return false;
+        }
+        final Path projectRootDirectory = request.getProjectRootDirectory();
+        final String commitId = scm.getCheckedOutRevision(projectRootDirectory);
+        return commitId != null
+                && scm.isAncestorRevision(projectRootDirectory, previousBuild.getCommitId(), commitId);
+    }
+
+    /**
+     * @param offlineLog
+     *            the output of a failed offline build
+     * @return {@code true} if the given {@code offlineLog} contains any of {@link #getOfflineFailureMarkers()};
+     *         {@code false} otherwise
+     */
+    boolean isOfflineResolutionFailure(Path offlineLog) {
+        final List<String> markers = getOfflineFailureMarkers();
+        if (markers.isEmpty()) {
+            return false;
+        }
+        /* ISO-8859-1 never fails to decode and the markers are ASCII */
+        try (BufferedReader r = Files.newBufferedReader(offlineLog, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                for (String marker : markers) {
+                    if (line.contains(marker)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn(String.format("srcdeps: Could not read [%s]", offlineLog), e);
+        }
+        return false;
+    }
+
     /**
      * Returns a new {@link List} that contains build arguments combined from the following sources:
      * <ul>
@@ -134,6 +414,9 @@ public abstract class ShellBuilder implements Builder {
      * <li>{@code request.getBuildArguments()}</li>
      * <li>{@code getVerbosityArguments(request.getVerbosity()))}</li>
      * <li>{@code getForwardPropertiesArguments(request.getForwardProperties())}</li>
+     * <li>{@code getParallelArguments(arguments, getParallelThreads())} (if {@code request.isParallel()} returns
+     * {@code true})</li>
+     * <li>{@code request.getVersionArguments()}</li>
      * </ul>
      *
      * @param request
@@ -149,6 +432,10 @@ public abstract class ShellBuilder implements Builder {
         result.addAll(getVerbosityArguments(request.getVerbosity()));
         result.addAll(getSkipTestsArguments(request.isSkipTests()));
         result.addAll(getForwardPropertiesArguments(request.getForwardProperties()));
+        if (request.isParallel()) {
+            result.addAll(getParallelArguments(result, getParallelThreads()));
+        }
+        result.addAll(request.getVersionArguments());
         return result;
     }
 
@@ -173,4 +460,25 @@ public abstract class ShellBuilder implements Builder {
         result.putAll(request.getBuildEnvironment());
         return result;
     }
+
+    /**
+     * Stores a {@link BuildRecord} for the {@link BuildRequest#getProjectRootDirectory()} of the given successfully
+     * built {@code request} so that subsequent builds can make use of it. A failure to store the record is logged but
+     * otherwise ignored.
+     *
+     * @param request
+     *            the request that was built successfully
+     */
+    protected void writeBuildRecord(BuildRequest request) {
+        final Path projectRootDirectory = request.getProjectRootDirectory();
+        final RevisionAwareScm scm = findRevisionAwareScm(request);
+        final String commitId = scm == null ? null : scm.getCheckedOutRevision(projectRootDirectory);
+        try {
+            new BuildRecord(executable, request.getSrcVersion().toString(), System.currentTimeMillis(), commitId,
+                    computeInputsFingerprint(request)).write(projectRootDirectory);
+        } catch (IOException e) {
+            log.warn(String.format("srcdeps: Could not write [%s]", BuildRecord.getPath(projectRootDirectory)), e);
+        }
+    }
+
 }
@@ -21,6 +21,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -30,6 +31,7 @@ import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ResetCommand.ResetType;
 import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
@@ -41,10 +43,16 @@ import org.eclipse.jgit.transport.RefSpec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.RevisionAwareScm;
 import org.srcdeps.core.Scm;
 import org.srcdeps.core.ScmException;
+import org.srcdeps.core.ScmTransferStatistics;
+import org.srcdeps.core.ScmTransferStatistics.Mode;
 import org.srcdeps.core.SrcVersion;
 import org.srcdeps.core.SrcVersion.WellKnownType;
+import org.srcdeps.core.TransferReportingScm;
+import org.srcdeps.core.fs.BuildDirectoriesManager;
+import org.srcdeps.core.util.FlightRecorderEvent;
 import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
@@ -54,7 +62,7 @@ import org.srcdeps.core.util.SrcdepsCoreUtils;
  */
 @Named
 @Singleton
-public class JGitScm implements Scm {
+public class JGitScm implements TransferReportingScm, RevisionAwareScm {
     private static final Logger log = LoggerFactory.getLogger(JGitScm.class);
     private static final String SCM_GIT_PREFIX = "git:";
     public static String getScmGitPrefix() {
@@ -95,6 +103,59 @@ public class JGitScm implements Scm {
         }
     }
 
+    /**
+     * @param dir
+     *            a {@link Path} possibly containing a git repository
+     * @return the SHA-1 of the commit checked out in the given {@code dir} or {@code null} if {@code dir} does not
+     *         contain a valid git repository or if {@code HEAD} cannot be resolved
+     */
+    public static String getHeadCommitId(Path dir) {
+        if (!containsGitRepo(dir)) {
+            return null;
+        }
+        try (Git git = Git.open(dir.toFile())) {
+            final ObjectId head = git.getRepository().resolve(Constants.HEAD);
+            return head == null ? null : head.getName();
+        } catch (IOException e) {
+            log.warn(String.format("Could not resolve HEAD in [%s]", dir), e);
+            return null;
+        }
+    }
+
+    /**
+     * Tells if the commit {@code ancestorId} is reachable from the commit {@code commitId} in the git repository
+     * contained in the given {@code dir}. A commit is considered to be its own ancestor.
+     *
+     * @param dir
+     *            a {@link Path} containing a git repository
+     * @param ancestorId
+     *            the SHA-1 of the supposed ancestor
+     * @param commitId
+     *            the SHA-1 of the descendant
+     * @return {@code true} if {@code ancestorId} is an ancestor of {@code commitId}; {@code false} otherwise, including
+     *         the cases when any of the commits is not available in the repository
+     */
+    public static boolean isAncestor(Path dir, String ancestorId, String commitId) {
+        try (Git git = Git.open(dir.toFile()); RevWalk walk = new RevWalk(git.getRepository())) {
+            walk.setRetainBody(false);
+            final RevCommit ancestor = walk.parseCommit(ObjectId.fromString(ancestorId));
+            final RevCommit commit = walk.parseCommit(ObjectId.fromString(commitId));
+            return walk.isMergedInto(ancestor, commit);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("srcdeps: Could not check if [{}] is an ancestor of [{}] in [{}]: {}", ancestorId, commitId, dir,
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    private static void logStatistics(ScmTransferStatistics statistics) {
+        log.info("srcdeps: {} from SCM URL {} received {} objects, {} bytes of packs in {} ms ({} ms negotiation, {} ms"
+                + " transfer)", statistics.getMode(), statistics.getUrl(), statistics.getObjectsReceived(),
+                statistics.getPackBytes(), TimeUnit.NANOSECONDS.toMillis(statistics.getTotalNanos()),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getNegotiationNanos()),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getTransferNanos()));
+    }
+
     private static String stripUriPrefix(String url) {
         return url.substring(SCM_GIT_PREFIX.length());
     }
@@ -174,24 +235,56 @@ public class JGitScm implements Scm {
      */
     @Override
     public void checkout(BuildRequest request) throws ScmException {
+        checkoutWithStatistics(request);
+    }
+
+    /**
+     * Does the same as {@link #checkout(BuildRequest)} and in addition to that, measures the clone or fetch operation.
+     *
+     * @param request
+     *            determines the project to checkout
+     * @return the {@link ScmTransferStatistics} of the successful clone or fetch
+     * @throws ScmException
+     *             on any SCM related problem
+     * @see org.srcdeps.core.TransferReportingScm#checkoutWithStatistics(BuildRequest)
+     */
+    @Override
+    public ScmTransferStatistics checkoutWithStatistics(BuildRequest request) throws ScmException {
 
         Path dir = request.getProjectRootDirectory();
-        boolean dirExists = Files.exists(dir);
-        if (dirExists && containsGitRepo(dir)) {
-            /* there is a valid repo - try to fetch and reset */
-            fetchAndReset(request);
-        } else {
-            /* there is no valid git repo in the directory */
-            try {
-                SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
-            } catch (IOException e) {
-                throw new ScmException(String.format("srcdeps could not create directory [%s]", dir), e);
+        final FlightRecorderEvent event = FlightRecorderEvent.CHECKOUT.begin();
+        try {
+            if (event.isRecording()) {
+                event.set("url", request.getScmUrls().iterator().next())
+                        .set("srcVersion", request.getSrcVersion().toString())
+                        .set("slot", BuildDirectoriesManager.getSlotIndex(dir));
             }
-            cloneAndCheckout(request);
+            final ScmTransferStatistics statistics;
+            boolean dirExists = Files.exists(dir);
+            if (dirExists && containsGitRepo(dir)) {
+                /* there is a valid repo - try to fetch and reset */
+                event.set("mode", "fetch");
+                statistics = fetchAndReset(request);
+            } else {
+                /* there is no valid git repo in the directory */
+                event.set("mode", "clone");
+                try {
+                    SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+                } catch (IOException e) {
+                    throw new ScmException(String.format("srcdeps could not create directory [%s]", dir), e);
+                }
+                statistics = cloneAndCheckout(request);
+            }
+            event.set("objectsReceived", statistics.getObjectsReceived()).set("packBytes",
+                    statistics.getPackBytes());
+            logStatistics(statistics);
+            return statistics;
+        } finally {
+            event.commit();
         }
     }
 
-    void cloneAndCheckout(BuildRequest request) throws ScmException {
+    ScmTransferStatistics cloneAndCheckout(BuildRequest request) throws ScmException {
         final Path dir = request.getProjectRootDirectory();
 
         final SrcVersion srcVersion = request.getSrcVersion();
@@ -202,7 +295,9 @@ public class JGitScm implements Scm {
             String useUrl = stripUriPrefix(url);
             log.info("srcdeps: attempting to clone version {} from SCM URL {}", request.getSrcVersion(), useUrl);
 
-            CloneCommand cmd = Git.cloneRepository().setURI(useUrl).setDirectory(dir.toFile());
+            final TransferMonitor monitor = new TransferMonitor(dir.resolve(Constants.DOT_GIT));
+            CloneCommand cmd = Git.cloneRepository().setURI(useUrl).setDirectory(dir.toFile())
+                    .setProgressMonitor(monitor);
 
             switch (srcVersion.getWellKnownType()) {
             case branch:
@@ -226,7 +321,7 @@ public class JGitScm implements Scm {
                 git.getRepository().close();
 
                 /* return on the first success */
-                return;
+                return monitor.toStatistics(useUrl, Mode.clone);
             } catch (Exception e) {
                 log.warn("srcdeps: could not checkout version {} from SCM URL {}: {}: {}", request.getSrcVersion(),
                         useUrl, e.getClass().getName(), e.getMessage());
@@ -236,7 +331,7 @@ public class JGitScm implements Scm {
         throw lastException;
     }
 
-    void fetchAndReset(BuildRequest request) throws ScmException {
+    ScmTransferStatistics fetchAndReset(BuildRequest request) throws ScmException {
         final Path dir = request.getProjectRootDirectory();
         /* Forget local changes */
         try (Git git = Git.open(dir.toFile())) {
@@ -269,7 +364,8 @@ public class JGitScm implements Scm {
 
                 final String startPoint;
                 final String refToFetch;
-                FetchCommand fetch = git.fetch().setRemote(remoteAlias);
+                final TransferMonitor monitor = new TransferMonitor(git.getRepository().getDirectory().toPath());
+                FetchCommand fetch = git.fetch().setRemote(remoteAlias).setProgressMonitor(monitor);
                 switch (srcVersion.getWellKnownType()) {
                 case branch:
                     refToFetch = "refs/heads/" + srcVersion.getScmVersion();
@@ -290,6 +386,7 @@ public class JGitScm implements Scm {
                             + srcVersion.getWellKnownType() + "'.");
                 }
                 FetchResult fetchResult = fetch.call();
+                final ScmTransferStatistics statistics = monitor.toStatistics(useUrl, Mode.fetch);
 
                 /*
                  * Let's check that the desired startPoint was really fetched from the current URL. Otherwise, the
@@ -314,7 +411,7 @@ public class JGitScm implements Scm {
                 }
 
                 git.reset().setMode(ResetType.HARD).setRef(startPoint).call();
-                return;
+                return statistics;
             } catch (ScmException e) {
                 log.warn("srcdeps: could not checkout version {} from SCM URL {}: {}: {}", request.getSrcVersion(),
                         useUrl, e.getClass().getName(), e.getMessage());
@@ -329,6 +426,22 @@ public class JGitScm implements Scm {
         throw lastException;
     }
 
+    /**
+     * @see #getHeadCommitId(Path)
+     */
+    @Override
+    public String getCheckedOutRevision(Path dir) {
+        return getHeadCommitId(dir);
+    }
+
+    /**
+     * @see #isAncestor(Path, String, String)
+     */
+    @Override
+    public boolean isAncestorRevision(Path dir, String ancestor, String revision) {
+        return isAncestor(dir, ancestor, revision);
+    }
+
     @Override
     public boolean supports(String url) {
         return url.startsWith(SCM_GIT_PREFIX);
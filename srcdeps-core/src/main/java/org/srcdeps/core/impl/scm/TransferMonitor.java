@@ -0,0 +1,161 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.scm;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jgit.lib.ProgressMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.srcdeps.core.ScmTransferStatistics;
+import org.srcdeps.core.ScmTransferStatistics.Mode;
+
+/**
+ * A JGit {@link ProgressMonitor} measuring a single clone or fetch operation. The timing relies on the
+ * {@link #RECEIVING_OBJECTS_TASK} that JGit reports while reading the pack sent by the remote repository. The size of
+ * the received pack is determined by comparing the pack files present in the local repository before and after the
+ * transfer.
+ * <p>
+ * A new instance has to be created for every transfer right before the JGit command is called.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class TransferMonitor implements ProgressMonitor {
+    private static final Logger log = LoggerFactory.getLogger(TransferMonitor.class);
+
+    private static final String PACK_SUFFIX = ".pack";
+
+    /**
+     * The title of the task JGit reports while reading the pack sent by the remote repository. JGit does not expose it
+     * through its public API, hence the copy here; {@code TransferMonitorTest} checks that it still matches.
+     */
+    static final String RECEIVING_OBJECTS_TASK = "Receiving objects";
+
+    /**
+     * @param packDirectory
+     *            the {@code .git/objects/pack} directory of a repository
+     * @return the names of the pack files in the given {@code packDirectory}
+     */
+    private static Set<String> listPacks(Path packDirectory) {
+        if (!Files.isDirectory(packDirectory)) {
+            return Collections.<String>emptySet();
+        }
+        final Set<String> result = new HashSet<>();
+        try (DirectoryStream<Path> packs = Files.newDirectoryStream(packDirectory, "*" + PACK_SUFFIX)) {
+            for (Path pack : packs) {
+                result.add(pack.getFileName().toString());
+            }
+        } catch (IOException e) {
+            log.warn(String.format("srcdeps: Could not list pack files in [%s]", packDirectory), e);
+        }
+        return result;
+    }
+
+    private long objectsReceived;
+    private final Set<String> oldPacks;
+    private final Path packDirectory;
+    private boolean receiving;
+    private long receivingEnd = -1L;
+    private long receivingStart = -1L;
+    private final long start = System.nanoTime();
+
+    /**
+     * @param gitDirectory
+     *            the {@code .git} directory of the repository the objects will be transferred to; it does not need
+     *            to exist yet
+     */
+    TransferMonitor(Path gitDirectory) {
+        super();
+        this.packDirectory = gitDirectory.resolve("objects").resolve("pack");
+        this.oldPacks = listPacks(packDirectory);
+    }
+
+    @Override
+    public void beginTask(String title, int totalWork) {
+        endReceiving();
+        if (RECEIVING_OBJECTS_TASK.equals(title)) {
+            receiving = true;
+            receivingStart = System.nanoTime();
+        }
+    }
+
+    private void endReceiving() {
+        if (receiving) {
+            receiving = false;
+            receivingEnd = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void endTask() {
+        endReceiving();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public void start(int totalTasks) {
+    }
+
+    /**
+     * Call right after the JGit command has returned.
+     *
+     * @param url
+     *            the URL the objects were transferred from
+     * @param mode
+     *            clone or fetch
+     * @return the {@link ScmTransferStatistics} of the transfer
+     */
+    ScmTransferStatistics toStatistics(String url, Mode mode) {
+        endReceiving();
+        final long end = System.nanoTime();
+        long packBytes = 0;
+        for (String pack : listPacks(packDirectory)) {
+            if (!oldPacks.contains(pack)) {
+                final Path packPath = packDirectory.resolve(pack);
+                try {
+                    packBytes += Files.size(packPath);
+                } catch (IOException e) {
+                    log.warn(String.format("srcdeps: Could not get the size of [%s]", packPath), e);
+                    packBytes = ScmTransferStatistics.UNKNOWN_BYTES;
+                    break;
+                }
+            }
+        }
+        final long negotiationNanos = (receivingStart >= 0 ? receivingStart : end) - start;
+        final long transferNanos = receivingStart >= 0 ? receivingEnd - receivingStart : 0L;
+        return new ScmTransferStatistics(url, mode, objectsReceived, packBytes, negotiationNanos, transferNanos,
+                end - start);
+    }
+
+    @Override
+    public void update(int completed) {
+        if (receiving) {
+            objectsReceived += completed;
+        }
+    }
+
+}
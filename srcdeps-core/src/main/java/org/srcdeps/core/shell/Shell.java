@@ -18,6 +18,12 @@ package org.srcdeps.core.shell;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +31,7 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.srcdeps.core.BuildException;
+import org.srcdeps.core.util.FlightRecorderEvent;
 
 /**
  * A utility for executing {@link ShellCommand}s.
@@ -124,13 +131,98 @@ public class Shell {
         }
     }
 
+    /**
+     * Copies the standard output of a {@link Process} to the destination the caller asked for and to a copy file at
+     * the same time, so that the output can be both watched live and inspected after the {@link Process} exits.
+     */
+    static class StdoutCopier extends Thread {
+        private final OutputStream copy;
+        private final OutputStream destination;
+        private IOException exception;
+        private final InputStream in;
+
+        StdoutCopier(InputStream in, Redirect destination, Path copy) throws IOException {
+            super("srcdeps-stdout-copier");
+            setDaemon(true);
+            this.in = in;
+            this.copy = Files.newOutputStream(copy);
+            switch (destination.type()) {
+            case INHERIT:
+                this.destination = System.out;
+                break;
+            case WRITE:
+                this.destination = Files.newOutputStream(destination.file().toPath());
+                break;
+            case APPEND:
+                this.destination = Files.newOutputStream(destination.file().toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                break;
+            default:
+                this.destination = null;
+                break;
+            }
+        }
+
+        /**
+         * Waits for the copying to finish.
+         *
+         * @param timeoutMs
+         *            how long to wait at most
+         * @throws IOException
+         *             if the copying has failed
+         * @throws InterruptedException
+         *             if interrupted while waiting
+         */
+        public void await(long timeoutMs) throws IOException, InterruptedException {
+            join(timeoutMs);
+            if (exception != null) {
+                throw exception;
+            }
+        }
+
+        @Override
+        public void run() {
+            final byte[] buffer = new byte[8192];
+            try {
+                int len;
+                while ((len = in.read(buffer)) >= 0) {
+                    copy.write(buffer, 0, len);
+                    if (destination != null) {
+                        destination.write(buffer, 0, len);
+                        destination.flush();
+                    }
+                }
+            } catch (IOException e) {
+                exception = e;
+            } finally {
+                try {
+                    copy.close();
+                } catch (IOException e) {
+                    if (exception == null) {
+                        exception = e;
+                    }
+                }
+                if (destination != null && destination != System.out) {
+                    try {
+                        destination.close();
+                    } catch (IOException e) {
+                        if (exception == null) {
+                            exception = e;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private static final Logger log = LoggerFactory.getLogger(Shell.class);
 
     /**
      * Executes the given {@link ShellCommand} synchronously.
      *
      * @param command
-     *            the command to execute
+     *            the command to execute; if {@link ShellCommand#getStdoutCopy()} is set, the standard output is pumped
+     *            through this JVM and written to both {@link IoRedirects#getStdout()} and the copy file
      * @return the {@link CommandResult} that can be used to determine if the execution was successful
      * @throws BuildException
      *             on any build related problems
@@ -142,11 +234,13 @@ public class Shell {
         String cmdArrayString = Arrays.toString(cmdArray);
         final IoRedirects redirects = command.getIoRedirects();
         final Map<String, String> env = command.getEnvironment();
-        log.info("About to execute command {} using redirects {} and env {}", cmdArrayString, redirects, env);
+        final Path stdoutCopy = command.getStdoutCopy();
+        log.info("About to execute command {} using redirects {}, stdout copy [{}] and env {}", cmdArrayString,
+                redirects, stdoutCopy, env);
         ProcessBuilder builder = new ProcessBuilder(cmdArray) //
                 .directory(command.getWorkingDirectory().toFile()) //
                 .redirectInput(redirects.getStdin()) //
-                .redirectOutput(redirects.getStdout()) //
+                .redirectOutput(stdoutCopy == null ? redirects.getStdout() : Redirect.PIPE) //
         ;
         if (redirects.isErr2Out()) {
             builder.redirectErrorStream(redirects.isErr2Out());
@@ -156,10 +250,28 @@ public class Shell {
         if (!env.isEmpty()) {
             builder.environment().putAll(env);
         }
+        final FlightRecorderEvent event = FlightRecorderEvent.SHELL_EXECUTE.begin();
+        int exitCode = -1;
         try (CommandProcess process = new CommandProcess(builder.start())) {
-            return process.waitFor(command.getTimeoutMs(), TimeUnit.MILLISECONDS, cmdArray).assertSuccess();
+            StdoutCopier copier = null;
+            if (stdoutCopy != null) {
+                copier = new StdoutCopier(process.process.getInputStream(), redirects.getStdout(), stdoutCopy);
+                copier.start();
+            }
+            final CommandResult result = process.waitFor(command.getTimeoutMs(), TimeUnit.MILLISECONDS, cmdArray);
+            if (copier != null) {
+                copier.await(command.getTimeoutMs());
+            }
+            exitCode = result.getExitCode();
+            return result.assertSuccess();
         } catch (IOException | InterruptedException e) {
             throw new BuildException(String.format("Could not start command [%s]", cmdArrayString), e);
+        } finally {
+            if (event.isRecording()) {
+                event.set("executable", command.getExecutable())
+                        .set("workingDirectory", command.getWorkingDirectory().toString()).set("exitCode", exitCode);
+            }
+            event.commit();
         }
     }
 
@@ -36,6 +36,7 @@ public class ShellCommand {
         private Map<String, String> environment = new LinkedHashMap<>();
         private String executable;
         private IoRedirects ioRedirects = IoRedirects.inheritAll();
+        private Path stdoutCopy;
         private long timeoutMs = Long.MAX_VALUE;
         private Path workingDirectory;
 
@@ -53,7 +54,7 @@ public class ShellCommand {
 
         public ShellCommand build() {
             return new ShellCommand(executable, Collections.unmodifiableList(arguments), workingDirectory,
-                    Collections.unmodifiableMap(environment), ioRedirects, timeoutMs);
+                    Collections.unmodifiableMap(environment), ioRedirects, stdoutCopy, timeoutMs);
         }
 
         public ShellCommandBuilder environment(Map<String, String> buildEnvironment) {
@@ -76,6 +77,16 @@ public class ShellCommand {
             return this;
         }
 
+        /**
+         * @param stdoutCopy
+         *            see {@link ShellCommand#getStdoutCopy()}
+         * @return this {@link ShellCommandBuilder}
+         */
+        public ShellCommandBuilder stdoutCopy(Path stdoutCopy) {
+            this.stdoutCopy = stdoutCopy;
+            return this;
+        }
+
         public ShellCommandBuilder timeoutMs(long timeoutMs) {
             this.timeoutMs = timeoutMs;
             return this;
@@ -96,11 +107,12 @@ public class ShellCommand {
     private final Map<String, String> environment;
     private final String executable;
     private final IoRedirects ioRedirects;
+    private final Path stdoutCopy;
     private final long timeoutMs;
     private final Path workingDirectory;
 
     private ShellCommand(String executable, List<String> arguments, Path workingDirectory,
-            Map<String, String> environment, IoRedirects ioRedirects, long timeoutMs) {
+            Map<String, String> environment, IoRedirects ioRedirects, Path stdoutCopy, long timeoutMs) {
         super();
         SrcdepsCoreUtils.assertArgNotNull(executable, "executable");
         SrcdepsCoreUtils.assertArgNotNull(arguments, "arguments");
@@ -113,6 +125,7 @@ public class ShellCommand {
         this.workingDirectory = workingDirectory;
         this.environment = environment;
         this.ioRedirects = ioRedirects;
+        this.stdoutCopy = stdoutCopy;
 
         this.timeoutMs = timeoutMs;
     }
@@ -162,6 +175,16 @@ public class ShellCommand {
         return ioRedirects;
     }
 
+    /**
+     * @return a file to which the standard output of the {@link Process} is written in addition to the destination
+     *         given by {@link IoRedirects#getStdout()} while the {@link Process} runs, or {@code null} if no copy
+     *         should be written. If {@link IoRedirects#isErr2Out()} is {@code true}, the copy includes the standard
+     *         error.
+     */
+    public Path getStdoutCopy() {
+        return stdoutCopy;
+    }
+
     /**
      * @return timeout in milliseconds
      */
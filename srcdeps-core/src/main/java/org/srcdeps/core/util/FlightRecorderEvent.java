@@ -0,0 +1,310 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A <a href="https://docs.oracle.com/javacomponents/jmc-5-5/jfr-runtime-guide/about.htm">Java Flight Recorder</a>
+ * event emitted by srcdeps-core so that slow builds can be correlated with GC, I/O and lock contention in the same
+ * recording. A typical usage:
+ *
+ * <pre>
+ * final FlightRecorderEvent event = FlightRecorderEvent.CHECKOUT.begin();
+ * try {
+ *     ...
+ *     event.set("slot", slot);
+ * } finally {
+ *     event.commit();
+ * }
+ * </pre>
+ *
+ * srcdeps-core needs to compile and run on Java 7 where the {@code jdk.jfr} API is not available. Hence the event
+ * types are defined at runtime using {@code jdk.jfr.EventFactory} accessed through reflection. If {@code jdk.jfr} is
+ * not available or if no recording is running, {@link Type#begin()} returns a no-op event and the overhead is
+ * negligible.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class FlightRecorderEvent {
+
+    /**
+     * A field of an event {@link Type}.
+     */
+    static class Field {
+        private final String label;
+        private final String name;
+        private final Class<?> type;
+
+        Field(Class<?> type, String name, String label) {
+            super();
+            this.type = type;
+            this.name = name;
+            this.label = label;
+        }
+    }
+
+    /**
+     * A JFR event type.
+     */
+    public static class Type {
+        private final Object factory;
+        private final List<String> fieldNames;
+        private final String name;
+
+        Type(String name, String label, String description, Field... fields) {
+            super();
+            this.name = name;
+            final List<String> names = new ArrayList<>(fields.length);
+            for (Field field : fields) {
+                names.add(field.name);
+            }
+            this.fieldNames = Collections.unmodifiableList(names);
+            this.factory = jfr == null ? null : jfr.createFactory(name, label, description, fields);
+        }
+
+        /**
+         * @return a new started {@link FlightRecorderEvent} or a no-op one if JFR is not available or if no
+         *         recording having this event type enabled is running
+         */
+        public FlightRecorderEvent begin() {
+            if (factory == null) {
+                return NO_OP;
+            }
+            try {
+                final Object event = jfr.newEvent.invoke(factory);
+                if (!((Boolean) jfr.isEnabled.invoke(event)).booleanValue()) {
+                    return NO_OP;
+                }
+                jfr.begin.invoke(event);
+                return new FlightRecorderEvent(this, event);
+            } catch (Exception e) {
+                log.debug(String.format("srcdeps: Could not begin JFR event [%s]", name), e);
+                return NO_OP;
+            }
+        }
+
+        /**
+         * @return the name of this event type, such as {@code org.srcdeps.Checkout}
+         */
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * The reflective access to {@code jdk.jfr}.
+     */
+    static class Jfr {
+        private final Constructor<?> annotationElementConstructor;
+        private final Method begin;
+        private final Class<?> categoryAnnotation;
+        private final Method commit;
+        private final Method create;
+        private final Class<?> descriptionAnnotation;
+        private final Method isEnabled;
+        private final Class<?> labelAnnotation;
+        private final Class<?> nameAnnotation;
+        private final Method newEvent;
+        private final Method set;
+        private final Constructor<?> valueDescriptorConstructor;
+
+        Jfr() throws ReflectiveOperationException {
+            super();
+            final Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+            this.annotationElementConstructor = annotationElement.getConstructor(Class.class, Object.class);
+            this.categoryAnnotation = Class.forName("jdk.jfr.Category");
+            this.descriptionAnnotation = Class.forName("jdk.jfr.Description");
+            this.labelAnnotation = Class.forName("jdk.jfr.Label");
+            this.nameAnnotation = Class.forName("jdk.jfr.Name");
+            this.valueDescriptorConstructor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class,
+                    String.class, List.class);
+            final Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+            this.create = eventFactory.getMethod("create", List.class, List.class);
+            this.newEvent = eventFactory.getMethod("newEvent");
+            final Class<?> event = Class.forName("jdk.jfr.Event");
+            this.begin = event.getMethod("begin");
+            this.commit = event.getMethod("commit");
+            this.isEnabled = event.getMethod("isEnabled");
+            this.set = event.getMethod("set", int.class, Object.class);
+        }
+
+        private Object annotation(Class<?> annotationType, Object value) throws ReflectiveOperationException {
+            return annotationElementConstructor.newInstance(annotationType, value);
+        }
+
+        /**
+         * @return a new {@code jdk.jfr.EventFactory} or {@code null} if it could not be created
+         */
+        Object createFactory(String name, String label, String description, Field... fields) {
+            try {
+                final List<Object> annotations = Arrays.asList( //
+                        annotation(nameAnnotation, name), //
+                        annotation(labelAnnotation, label), //
+                        annotation(descriptionAnnotation, description), //
+                        annotation(categoryAnnotation, new String[] { CATEGORY }) //
+                );
+                final List<Object> descriptors = new ArrayList<>(fields.length);
+                for (Field field : fields) {
+                    descriptors.add(valueDescriptorConstructor.newInstance(field.type, field.name,
+                            Collections.singletonList(annotation(labelAnnotation, field.label))));
+                }
+                return create.invoke(null, annotations, descriptors);
+            } catch (Exception e) {
+                log.debug(String.format("srcdeps: Could not create JFR event type [%s]", name), e);
+                return null;
+            }
+        }
+    }
+
+    /** The JFR category of all srcdeps events */
+    public static final String CATEGORY = "srcdeps";
+
+    private static final Jfr jfr;
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderEvent.class);
+
+    private static final FlightRecorderEvent NO_OP = new FlightRecorderEvent(null, null);
+
+    static {
+        Jfr j = null;
+        try {
+            j = new Jfr();
+        } catch (Exception | LinkageError e) {
+            log.debug("srcdeps: Java Flight Recorder API not available", e);
+        }
+        jfr = j;
+    }
+
+    /**
+     * Emitted around {@link org.srcdeps.core.impl.scm.JGitScm#checkout}; the {@code mode} is {@code clone} or
+     * {@code fetch}
+     */
+    public static final Type CHECKOUT = new Type("org.srcdeps.Checkout", "Checkout",
+            "Cloning or fetching the sources of a source dependency", //
+            new Field(String.class, "url", "SCM URL"), //
+            new Field(String.class, "srcVersion", "Source Version"), //
+            new Field(int.class, "slot", "Slot"), //
+            new Field(String.class, "mode", "Mode"), //
+            new Field(long.class, "objectsReceived", "Objects Received"), //
+            new Field(long.class, "packBytes", "Pack Bytes"));
+
+    /** Emitted around {@link org.srcdeps.core.fs.PathLocker#lockDirectory} */
+    public static final Type LOCK_DIRECTORY = new Type("org.srcdeps.LockDirectory", "Lock Directory",
+            "Locking a directory on the thread and filesystem level", //
+            new Field(String.class, "path", "Path"), //
+            new Field(String.class, "metadata", "Metadata"), //
+            new Field(boolean.class, "acquired", "Acquired"));
+
+    /**
+     * Emitted around {@link org.srcdeps.core.fs.BuildDirectoriesManager#openBuildDirectory}; the {@code slot} is
+     * {@code -1} if no build directory could be opened
+     */
+    public static final Type OPEN_BUILD_DIRECTORY = new Type("org.srcdeps.OpenBuildDirectory", "Open Build Directory",
+            "Probing and locking a build directory of a source dependency",
+            new Field(String.class, "repository", "Repository"), //
+            new Field(String.class, "srcVersion", "Source Version"), //
+            new Field(int.class, "slot", "Slot"));
+
+    /**
+     * Emitted around {@link org.srcdeps.core.shell.Shell#execute}; the {@code exitCode} is {@code -1} if the process
+     * could not be started or did not finish in time
+     */
+    public static final Type SHELL_EXECUTE = new Type("org.srcdeps.ShellExecute", "Shell Execute",
+            "Executing a build tool in a separate process", //
+            new Field(String.class, "executable", "Executable"), //
+            new Field(String.class, "workingDirectory", "Working Directory"), //
+            new Field(int.class, "exitCode", "Exit Code"));
+
+    /**
+     * @return {@code true} if the {@code jdk.jfr} API is available in the present JVM; {@code false} otherwise
+     */
+    public static boolean isAvailable() {
+        return jfr != null;
+    }
+
+    private final Object event;
+    private final Type type;
+
+    private FlightRecorderEvent(Type type, Object event) {
+        super();
+        this.type = type;
+        this.event = event;
+    }
+
+    /**
+     * Ends this event and writes it to the running recordings. Does nothing for a no-op event.
+     */
+    public void commit() {
+        if (event == null) {
+            return;
+        }
+        try {
+            jfr.commit.invoke(event);
+        } catch (Exception e) {
+            log.debug(String.format("srcdeps: Could not commit JFR event [%s]", type.name), e);
+        }
+    }
+
+    /**
+     * @return {@code true} if this event will be written to a recording on {@link #commit()}; {@code false} if this
+     *         is a no-op event
+     */
+    public boolean isRecording() {
+        return event != null;
+    }
+
+    /**
+     * Sets the given field of this event. Does nothing for a no-op event.
+     *
+     * @param fieldName
+     *            the name of the field to set
+     * @param value
+     *            the value to set
+     * @return this {@link FlightRecorderEvent}
+     */
+    public FlightRecorderEvent set(String fieldName, Object value) {
+        if (event == null) {
+            return this;
+        }
+        final int index = type.fieldNames.indexOf(fieldName);
+        if (index < 0) {
+            throw new IllegalArgumentException(
+                    String.format("No such field [%s] in JFR event type [%s]", fieldName, type.name));
+        }
+        try {
+            jfr.set.invoke(event, index, value);
+        } catch (Exception e) {
+            log.debug(String.format("srcdeps: Could not set field [%s] of JFR event [%s]", fieldName, type.name), e);
+        }
+        return this;
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe, lock free histogram of non-negative {@code long} values with power of two buckets: the bucket
+ * {@code 0} counts the zeros and the bucket {@code i > 0} counts the values in the interval
+ * <code>[2<sup>i-1</sup>, 2<sup>i</sup> - 1]</code>. The precision is thus limited to a factor of two, which is enough
+ * for telling apart microseconds from milliseconds and seconds at the cost of a few atomic increments per
+ * {@link #record(long)}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class Histogram {
+
+    /** The number of buckets */
+    public static final int BUCKET_COUNT = 64;
+
+    /**
+     * @param value
+     *            a non-negative value
+     * @return the index of the bucket where the given {@code value} belongs
+     */
+    static int bucketIndex(long value) {
+        return Math.min(BUCKET_COUNT - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @param bucketIndex
+     *            the index of the bucket
+     * @return the greatest value that belongs to the given bucket
+     */
+    public static long getBucketUpperBound(int bucketIndex) {
+        return bucketIndex >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucketIndex) - 1;
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    public Histogram() {
+        super();
+    }
+
+    /**
+     * @param bucketIndex
+     *            the index of the bucket
+     * @return the number of values recorded in the given bucket
+     */
+    public long getBucketCount(int bucketIndex) {
+        return buckets.get(bucketIndex);
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return the greatest recorded value or {@code 0} if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the arithmetic mean of the recorded values or {@code 0} if nothing was recorded
+     */
+    public double getMean() {
+        final long c = count.get();
+        return c == 0 ? 0 : (double) sum.get() / c;
+    }
+
+    /**
+     * @param percentile
+     *            a number between {@code 0} and {@code 100}
+     * @return the upper bound of the bucket containing the given {@code percentile} of the recorded values, but not
+     *         more than {@link #getMax()}; {@code 0} if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        final long c = count.get();
+        if (c == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(percentile / 100.0d * c);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @return the sum of the recorded values
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * Records the given {@code value}.
+     *
+     * @param value
+     *            the value to record; negative values are recorded as {@code 0}
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long currentMax;
+        while (value > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram [count=" + getCount() + ", mean=" + getMean() + ", p50=" + getPercentile(50) + ", p99="
+                + getPercentile(99) + ", max=" + getMax() + "]";
+    }
+
+}
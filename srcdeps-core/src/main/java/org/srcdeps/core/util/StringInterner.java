@@ -0,0 +1,58 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread safe pool of canonical {@link String} instances, similar to {@link String#intern()} but with a lifespan
+ * controlled by the owner of the pool rather than by the JVM. Useful for coordinates such as groupIds and artifactIds
+ * that repeat many times so that the equal values share a single instance and comparing them mostly boils down to an
+ * identity check.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class StringInterner {
+    private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+
+    public StringInterner() {
+        super();
+    }
+
+    /**
+     * @param value
+     *            the {@link String} to intern
+     * @return the instance stored in this pool that is equal to the given {@code value}; the {@code value} itself if
+     *         no equal instance was stored before
+     */
+    public String intern(String value) {
+        final String existing = pool.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        final String raced = pool.putIfAbsent(value, value);
+        return raced == null ? value : raced;
+    }
+
+    /**
+     * @return the number of distinct {@link String}s stored in this pool
+     */
+    public int size() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class CachingGavSetTest {
+
+    @Test
+    public void contains() {
+        CachingGavSet set = CachingGavSet
+                .of(GavSet.builder().include("org.example").exclude("org.example:excluded").build());
+        Assert.assertTrue(set.contains("org.example", "artifact", "1.0"));
+        Assert.assertFalse(set.contains("org.example", "excluded", "1.0"));
+        Assert.assertFalse(set.contains("com.example", "artifact", "1.0"));
+        Assert.assertEquals(0, set.getHitCount());
+        Assert.assertEquals(3, set.getMissCount());
+
+        Assert.assertTrue(set.contains("org.example", "artifact", "1.0"));
+        Assert.assertFalse(set.contains("org.example", "excluded", "1.0"));
+        Assert.assertEquals(2, set.getHitCount());
+        Assert.assertEquals(3, set.getMissCount());
+        Assert.assertEquals(3, set.getSize());
+    }
+
+    @Test
+    public void evict() {
+        CachingGavSet set = CachingGavSet.of(GavSet.includeAll(), CachingGavSet.SEGMENT_COUNT * 2);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(set.contains("org.example", "artifact", String.valueOf(i)));
+        }
+        Assert.assertTrue(set.getSize() <= set.getMaxSize());
+        Assert.assertEquals(1000, set.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxSizeTooSmall() {
+        CachingGavSet.of(GavSet.includeAll(), 1);
+    }
+
+}
@@ -100,4 +100,34 @@ public class GavPatternTest {
         Assert.assertFalse(gavPattern.matches("group", "artifact1", "1.2.3"));
         Assert.assertFalse(gavPattern.matches("group", "artifact", "1.2.4"));
     }
+
+    @Test
+    public void compile() {
+        Assert.assertSame(GavPattern.MatchAllSegmentMatcher.class, GavPattern.compile("*").getClass());
+        Assert.assertSame(GavPattern.ExactSegmentMatcher.class, GavPattern.compile("org.group").getClass());
+        Assert.assertSame(GavPattern.PrefixSegmentMatcher.class, GavPattern.compile("org.group*").getClass());
+        Assert.assertSame(GavPattern.SuffixSegmentMatcher.class, GavPattern.compile("*-SNAPSHOT").getClass());
+        Assert.assertSame(GavPattern.RegexSegmentMatcher.class, GavPattern.compile("org.*.api*").getClass());
+        Assert.assertSame(GavPattern.RegexSegmentMatcher.class, GavPattern.compile("org.(a|b)").getClass());
+    }
+
+    @Test
+    public void resolvePrefixAndSuffix() {
+        GavPattern gavPattern = GavPattern.of("org.group*:*:*-SNAPSHOT");
+
+        Assert.assertTrue(gavPattern.matches("org.group", "artifact", "1.2.3-SNAPSHOT"));
+        Assert.assertTrue(gavPattern.matches("org.group.api", "artifact", "-SNAPSHOT"));
+        Assert.assertFalse(gavPattern.matches("org.grou", "artifact", "1.2.3-SNAPSHOT"));
+        Assert.assertFalse(gavPattern.matches("org.group", "artifact", "1.2.3"));
+        Assert.assertFalse(gavPattern.matches("org.group", "artifact", "SNAPSHOT"));
+    }
+
+    @Test
+    public void resolveRegexDot() {
+        /* the literals have always been interpreted as regular expressions */
+        Assert.assertTrue(GavPattern.of("org.group").matches("org-group", "artifact", "1.2.3"));
+        Assert.assertTrue(GavPattern.of("org.gr*").matches("org-group", "artifact", "1.2.3"));
+        Assert.assertTrue(GavPattern.of("*.group").matches("org-group", "artifact", "1.2.3"));
+        Assert.assertTrue(GavPattern.of("org.(group|other)").matches("org-other", "artifact", "1.2.3"));
+    }
 }
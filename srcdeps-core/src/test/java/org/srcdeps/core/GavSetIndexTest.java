@@ -0,0 +1,67 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class GavSetIndexTest {
+
+    @Test
+    public void find() {
+        GavSetIndex<String> index = new GavSetIndex<>(Arrays.asList( //
+                GavSet.builder().include("org.example").exclude("org.example:excluded").build(), //
+                GavSet.builder().include("org.example*").build(), //
+                GavSet.builder().include("*:special").build(), //
+                GavSet.builder().include("org.example:special").build() //
+        ), Arrays.asList("first", "second", "third", "fourth"));
+
+        Assert.assertEquals("first", index.find("org.example", "artifact", "1.0"));
+        /* first match wins even if a later set is more specific */
+        Assert.assertEquals("first", index.find("org.example", "special", "1.0"));
+        /* excluded from the first falls through to the second */
+        Assert.assertEquals("second", index.find("org.example", "excluded", "1.0"));
+        Assert.assertEquals("second", index.find("org.example.sub", "artifact", "1.0"));
+        Assert.assertEquals("third", index.find("com.example", "special", "1.0"));
+        Assert.assertNull(index.find("com.example", "artifact", "1.0"));
+    }
+
+    @Test
+    public void memo() {
+        GavSetIndex<String> index = new GavSetIndex<>(Collections.singletonList(GavSet.includeAll()),
+                Collections.singletonList("all"));
+        Assert.assertEquals("all", index.find("org.example", "artifact", "1.0"));
+        Assert.assertEquals("all", index.find("org.example", "artifact", "1.0"));
+        Assert.assertEquals(1, index.getMemoSize());
+        for (int i = 0; i < GavSetIndex.MEMO_LIMIT; i++) {
+            index.find("org.example", "artifact", String.valueOf(i));
+        }
+        Assert.assertTrue(index.getMemoSize() <= GavSetIndex.MEMO_LIMIT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeMismatch() {
+        new GavSetIndex<>(Collections.singletonList(GavSet.includeAll()), Collections.emptyList());
+    }
+
+}
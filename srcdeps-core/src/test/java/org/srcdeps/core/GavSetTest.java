@@ -16,6 +16,9 @@
  */
 package org.srcdeps.core;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -140,4 +143,45 @@ public class GavSetTest {
 
     }
 
+    private static boolean matchesAny(List<GavPattern> patterns, String groupId, String artifactId, String version) {
+        for (GavPattern pattern : patterns) {
+            if (pattern.matches(groupId, artifactId, version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void indexed() {
+        List<String> includes = Arrays.asList("org.group1", "org.group1.sub:artifact1", "org.group2*", "org",
+                "com.group3:*:*-SNAPSHOT", "com.gr(oup|p)4", "*.group5", "*:artifact6", "net.group7*:artifact7:1.*",
+                "net.group7.api:artifact7");
+        List<String> excludes = Arrays.asList("org.group1:artifact2", "org.group2.internal*", "com.group3:test*",
+                "*:*:0.*", "net.group7*:artifact7:1.0", "org.group1.sub:artifact1:2", "org.group1:artifact3",
+                "org.group2:artifact1", "org.group2:artifact2");
+        GavSet set = IndexedGavSet.of(GavSet.builder().includes(includes).excludes(excludes).build());
+        Assert.assertTrue(set.getIncludes().size() > IndexedGavSet.INDEX_THRESHOLD);
+        Assert.assertTrue(set.getExcludes().size() > IndexedGavSet.INDEX_THRESHOLD);
+
+        List<String> groupIds = Arrays.asList("org", "org.group1", "orgXgroup1", "org.group1.sub", "org.group2",
+                "org.group2.api", "org.group2.internal.impl", "com.group3", "com.group4", "com.grp4", "com.group5",
+                "net.group7", "net.group7.api", "net", "", "other");
+        List<String> artifactIds = Arrays.asList("artifact1", "artifact2", "artifact3", "artifact6", "artifact7",
+                "test-artifact");
+        List<String> versions = Arrays.asList("0.1", "1.0", "1.1", "2", "2.0-SNAPSHOT");
+        for (String groupId : groupIds) {
+            for (String artifactId : artifactIds) {
+                for (String version : versions) {
+                    final boolean expected = matchesAny(set.getIncludes(), groupId, artifactId, version)
+                            && !matchesAny(set.getExcludes(), groupId, artifactId, version);
+                    Assert.assertEquals(groupId + ":" + artifactId + ":" + version, expected,
+                            set.contains(groupId, artifactId, version));
+                }
+            }
+        }
+        Assert.assertTrue(set.contains("orgXgroup1", "artifact1", "1.0"));
+        Assert.assertFalse(set.contains("org.group2.internal.impl", "artifact1", "1.0"));
+    }
+
 }
@@ -18,6 +18,7 @@ package org.srcdeps.core;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.srcdeps.core.util.StringInterner;
 
 /**
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
@@ -28,6 +29,22 @@ public class GavTest {
         Assert.assertEquals(new Gav("g", "a", "v"), Gav.of("g:a:v"));
     }
 
+    @Test
+    public void ofEmptyTokens() {
+        Assert.assertEquals(new Gav("g", "a", "v"), Gav.of(":g::a:v:"));
+        Assert.assertEquals(new Gav("g", "a", "v"), Gav.of("g:a:v:ignored"));
+    }
+
+    @Test
+    public void ofInterned() {
+        final StringInterner interner = new StringInterner();
+        final Gav gav1 = Gav.of("org.example:a:1.0", interner);
+        final Gav gav2 = Gav.of(new String("org.example:a:2.0"), interner);
+        Assert.assertSame(gav1.getGroupId(), gav2.getGroupId());
+        Assert.assertSame(gav1.getArtifactId(), gav2.getArtifactId());
+        Assert.assertEquals(2, interner.size());
+    }
+
     @Test(expected = IllegalStateException.class)
     public void ofMissingArtifactId() {
         Gav.of("g");
@@ -37,4 +54,9 @@ public class GavTest {
     public void ofMissingVersion() {
         Gav.of("g:a");
     }
+
+    @Test(expected = IllegalStateException.class)
+    public void ofOnlyDelimiters() {
+        Gav.of(":::");
+    }
 }
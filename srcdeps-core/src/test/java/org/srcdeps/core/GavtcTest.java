@@ -28,6 +28,7 @@ public class GavtcTest {
     @Test
     public void of() {
         Assert.assertEquals(new Gavtc("g", "a", "v", "t", "c"), Gavtc.of("g:a:v:t:c"));
+        Assert.assertEquals(new Gavtc("g", "a", "v", "t", "c"), Gavtc.of("g::a:v:t:c:ignored"));
         Assert.assertEquals(new Gavtc("g", "a", "v", "t"), Gavtc.of("g:a:v:t"));
     }
 
@@ -73,6 +74,8 @@ public class GavtcTest {
                 Gavtc.ofPattern("g:a:v:[pom,jar]"));
         Assert.assertEquals(Arrays.asList(Gavtc.of("g:a:v:pom")), Gavtc.ofPattern("g:a:v:[pom]"));
         Assert.assertEquals(Arrays.asList(Gavtc.of("g:a:v:pom")), Gavtc.ofPattern("g:a:v:pom"));
+        Assert.assertEquals(Arrays.asList(Gavtc.of("g:a:v:pom:c"), Gavtc.of("g:a:v:jar:c")),
+                Gavtc.ofPattern("g::a:v:[pom,,jar]:c"));
     }
 
 }
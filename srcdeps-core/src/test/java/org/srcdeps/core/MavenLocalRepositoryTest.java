@@ -16,15 +16,171 @@
  */
 package org.srcdeps.core;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
 
 /**
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
 public class MavenLocalRepositoryTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    private static MavenLocalRepository createRepository(String testName) throws IOException {
+        Path root = targetDirectory.resolve(MavenLocalRepositoryTest.class.getSimpleName()).resolve(testName);
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(root);
+        return new MavenLocalRepository(root);
+    }
+
+    private static String metadata(String lastUpdated, String... versions) {
+        final StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<metadata>\n" //
+                + "  <groupId>org.example</groupId>\n" //
+                + "  <artifactId>api</artifactId>\n" //
+                + "  <versioning>\n" //
+                + "    <versions>\n");
+        for (String version : versions) {
+            sb.append("      <version>").append(version).append("</version>\n");
+        }
+        return sb.append("    </versions>\n" //
+                + "    <lastUpdated>" + lastUpdated + "</lastUpdated>\n" //
+                + "  </versioning>\n" //
+                + "</metadata>\n").toString();
+    }
+
+    private static void touch(MavenLocalRepository repo, Gavtc gavtc) throws IOException {
+        Path path = repo.resolve(gavtc);
+        Files.createDirectories(path.getParent());
+        Files.createFile(path);
+    }
+
+    @Test
+    public void autodetectMemoized() {
+        final String oldRepoLocal = System.getProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP);
+        try {
+            System.setProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP, "/my/repo1");
+            MavenLocalRepository repo1 = MavenLocalRepository.autodetect();
+            Assert.assertEquals(Paths.get("/my/repo1"), repo1.getRootDirectory());
+            Assert.assertSame(repo1, MavenLocalRepository.autodetect());
+
+            System.setProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP, "/my/repo2");
+            MavenLocalRepository repo2 = MavenLocalRepository.autodetect();
+            Assert.assertEquals(Paths.get("/my/repo2"), repo2.getRootDirectory());
+            Assert.assertSame(repo2, MavenLocalRepository.autodetect());
+        } finally {
+            if (oldRepoLocal == null) {
+                System.clearProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP);
+            } else {
+                System.setProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP, oldRepoLocal);
+            }
+        }
+    }
+
+    @Test
+    public void contains() throws IOException {
+        MavenLocalRepository repo = createRepository("contains");
+        Gavtc jar = Gavtc.of("org.example:api:1.0:jar");
+        Gavtc sources = Gavtc.of("org.example:api:1.0:jar:sources");
+        Gavtc pom = Gavtc.of("org.example:api:1.0:pom");
+        Gavtc otherVersion = Gavtc.of("org.example:api:2.0:jar");
+        touch(repo, jar);
+        touch(repo, pom);
+
+        Assert.assertTrue(repo.contains(jar));
+        Assert.assertFalse(repo.contains(sources));
+        Assert.assertFalse(repo.contains(otherVersion));
+        Assert.assertFalse(repo.contains(Gavtc.of("org.example:impl:1.0:jar")));
+        Assert.assertTrue(repo.containsAll(Arrays.asList(jar, pom)));
+        Assert.assertFalse(repo.containsAll(Arrays.asList(jar, sources, pom)));
+        Assert.assertEquals(Arrays.asList(sources, otherVersion),
+                repo.findMissing(Arrays.asList(jar, sources, pom, otherVersion)));
+        Assert.assertEquals(Collections.singleton("1.0"), repo.getVersions("org.example", "api"));
+        Assert.assertEquals(Collections.emptySet(), repo.getVersions("org.example", "impl"));
+
+        /* changes must be noticed */
+        touch(repo, sources);
+        touch(repo, otherVersion);
+        Assert.assertTrue(repo.containsAll(Arrays.asList(jar, sources, pom, otherVersion)));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("1.0", "2.0")), repo.getVersions("org.example", "api"));
+    }
+
+    @Test
+    public void publish() throws IOException {
+        MavenLocalRepository repo = createRepository("publish");
+        MavenLocalRepository overlay = createRepository("publish-overlay");
+        Gavtc jar = Gavtc.of("org.example:api:1.0:jar");
+        Gavtc pom = Gavtc.of("org.example:api:1.0:pom");
+        touch(overlay, jar);
+        touch(overlay, pom);
+        Files.write(overlay.resolveVersion(jar).resolve("_remote.repositories"),
+                "api-1.0.jar>=\n".getBytes(StandardCharsets.UTF_8));
+        Path overlayMetadata = overlay.resolveGroup("org.example").resolve("api/maven-metadata-local.xml");
+        Files.write(overlayMetadata, metadata("20170102000000", "1.0").getBytes(StandardCharsets.UTF_8));
+        Files.createFile(overlay.resolveVersion(jar).resolve("api-1.0.jar.lastUpdated"));
+        /* a dependency downloaded by the build */
+        Gavtc dependency = Gavtc.of("org.other:dep:2.0:jar");
+        touch(overlay, dependency);
+
+        Path metadata = repo.resolveGroup("org.example").resolve("api/maven-metadata-local.xml");
+        Files.createDirectories(metadata.getParent());
+        Files.write(metadata, metadata("20170101000000", "0.9", "1.0").getBytes(StandardCharsets.UTF_8));
+        touch(repo, jar);
+
+        Assert.assertEquals(4, repo.publish(overlay.getRootDirectory(), Arrays.asList(new Gav("org.example", "api",
+                "1.0"), new Gav("org.example", "not-built", "1.0"))));
+        Assert.assertTrue(repo.containsAll(Arrays.asList(jar, pom)));
+        Assert.assertFalse(repo.contains(dependency));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("api-1.0.jar", "api-1.0.pom", "_remote.repositories")),
+                repo.snapshot(repo.resolveVersion(jar)).getFiles());
+        Assert.assertEquals(metadata("20170102000000", "0.9", "1.0"),
+                new String(Files.readAllBytes(metadata), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void publishNewMetadata() throws IOException {
+        MavenLocalRepository repo = createRepository("publishNewMetadata");
+        MavenLocalRepository overlay = createRepository("publishNewMetadata-overlay");
+        Gavtc pom = Gavtc.of("org.example:api:1.1:pom");
+        touch(overlay, pom);
+        Path overlayMetadata = overlay.resolveGroup("org.example").resolve("api/maven-metadata-local.xml");
+        Files.write(overlayMetadata, metadata("20170102000000", "1.1").getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(2,
+                repo.publish(overlay.getRootDirectory(), Arrays.asList(new Gav("org.example", "api", "1.1"))));
+        Assert.assertEquals(metadata("20170102000000", "1.1"), new String(
+                Files.readAllBytes(repo.resolveGroup("org.example").resolve("api/maven-metadata-local.xml")),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void snapshotReused() throws IOException {
+        MavenLocalRepository repo = createRepository("snapshotReused");
+        Gavtc jar = Gavtc.of("org.example:api:1.0:jar");
+        Gavtc pom = Gavtc.of("org.example:api:1.0:pom");
+        touch(repo, jar);
+        Path versionDir = repo.resolveVersion(jar);
+
+        /* a listing taken shortly after a modification is not reused */
+        Assert.assertNotSame(repo.snapshot(versionDir), repo.snapshot(versionDir));
+
+        Files.setLastModifiedTime(versionDir, FileTime.fromMillis(System.currentTimeMillis() - 60000));
+        MavenLocalRepository.DirectorySnapshot snapshot = repo.snapshot(versionDir);
+        Assert.assertSame(snapshot, repo.snapshot(versionDir));
+
+        touch(repo, pom);
+        Assert.assertNotSame(snapshot, repo.snapshot(versionDir));
+        Assert.assertTrue(repo.contains(pom));
+    }
 
     @Test
     public void pathsExist() {
@@ -59,6 +59,26 @@ public class SettingsXmlParserTest {
 
     }
 
+    @Test
+    public void parseNestedLocalRepositoryIgnored() throws IOException {
+        String settingsXml = "<?xml version=\"1.0\"?>\n" +
+                "<settings>\n" +
+                "    <profiles>\n" +
+                "        <profile>\n" +
+                "            <localRepository>/my/nested-repository</localRepository>\n" +
+                "        </profile>\n" +
+                "    </profiles>\n" +
+                "    <localRepository>\n" +
+                "        /my/local-repository\n" +
+                "    </localRepository>\n" +
+                "</settings>";
+        try (Reader in = new StringReader(settingsXml)) {
+            Path actual = new MavenLocalRepository.SettingsXmlParser().parse(in, null);
+            Assert.assertEquals(Paths.get("/my/local-repository"), actual);
+        }
+
+    }
+
     @Test
     public void parseWithoutLocalRepository() throws SAXException, IOException, ParserConfigurationException {
         String settingsXml = "<?xml version=\"1.0\"?>\n" +
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.config;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.config.tree.walk.DefaultsAndInheritanceVisitor;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class ConfigurationTest {
+
+    @Test
+    public void findRepository() {
+        Configuration config = Configuration.builder() //
+                .repository(//
+                        ScmRepository.builder() //
+                                .id("repo1") //
+                                .include("org.example") //
+                                .exclude("org.example:other") //
+                                .url("file:///repo1") //
+                ) //
+                .repository(//
+                        ScmRepository.builder() //
+                                .id("repo2") //
+                                .include("org.example*") //
+                                .url("file:///repo2") //
+                ) //
+                .accept(new DefaultsAndInheritanceVisitor()) //
+                .build();
+
+        Assert.assertEquals("repo1", config.findRepository("org.example", "artifact", "1.0").getId());
+        Assert.assertEquals("repo2", config.findRepository("org.example", "other", "1.0").getId());
+        Assert.assertEquals("repo2", config.findRepository("org.example.sub", "artifact", "1.0").getId());
+        Assert.assertNull(config.findRepository("com.example", "artifact", "1.0"));
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.fs;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class BuildDirectoriesManagerTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    @Test
+    public void getSlotIndex() {
+        Assert.assertEquals(0, BuildDirectoriesManager.getSlotIndex(Paths.get("srcdeps", "org", "example", "0")));
+        Assert.assertEquals(12, BuildDirectoriesManager.getSlotIndex(Paths.get("srcdeps", "org", "example", "12")));
+        Assert.assertEquals(255, BuildDirectoriesManager.getSlotIndex(Paths.get("255")));
+        Assert.assertEquals(-1, BuildDirectoriesManager.getSlotIndex(Paths.get("256")));
+        Assert.assertEquals(-1, BuildDirectoriesManager.getSlotIndex(Paths.get("srcdeps", "org", "example")));
+        Assert.assertEquals(-1, BuildDirectoriesManager.getSlotIndex(Paths.get("srcdeps", "1a")));
+        Assert.assertEquals(-1, BuildDirectoriesManager.getSlotIndex(Paths.get("/")));
+    }
+
+    @Test
+    public void openBuildDirectory() throws IOException, BuildException {
+        final Path root = targetDirectory.resolve(BuildDirectoriesManagerTest.class.getSimpleName())
+                .resolve("openBuildDirectory");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(root);
+        final BuildDirectoriesManager manager = new BuildDirectoriesManager(root, new PathLocker<SrcVersion>());
+        final SrcVersion srcVersion = SrcVersion.parse("1.0-SRC-tag-1.0");
+        final Path home = Paths.get("org", "example");
+        try (PathLock lock0 = manager.openBuildDirectory(home, srcVersion);
+                PathLock lock1 = manager.openBuildDirectory(home, srcVersion)) {
+            Assert.assertEquals(0, BuildDirectoriesManager.getSlotIndex(lock0.getPath()));
+            Assert.assertEquals(1, BuildDirectoriesManager.getSlotIndex(lock1.getPath()));
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.fs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.srcdeps.core.BuildException;
+
+/**
+ * A standalone Java application that tries to acquire a permit of a {@link BuildSemaphore} so that
+ * {@link BuildSemaphoreTest#threadsAndAnotherProcess()} can check the permits held by the test VM. Writes
+ * {@value #ACQUIRED} to the given result file if the permit could be acquired and {@value #BUSY} otherwise.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class BuildSemaphoreProcess {
+
+    public static final String ACQUIRED = "acquired";
+    public static final String BUSY = "busy";
+
+    public static void main(String[] args) throws IOException {
+        final BuildSemaphore semaphore = new BuildSemaphore(Paths.get(args[0]), Integer.parseInt(args[1]));
+        String result;
+        try (BuildSemaphore.Permit permit = semaphore.acquire(0)) {
+            result = ACQUIRED;
+        } catch (BuildException e) {
+            result = BUSY;
+        }
+        Files.write(Paths.get(args[2]), result.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.fs;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.shell.Shell;
+import org.srcdeps.core.shell.ShellCommand;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class BuildSemaphoreTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    @Test
+    public void acquireRelease() throws Exception {
+        final BuildSemaphore semaphore = new BuildSemaphore(targetDirectory.resolve("buildSemaphore-acquireRelease"),
+                2);
+        try (BuildSemaphore.Permit p1 = semaphore.acquire(0); BuildSemaphore.Permit p2 = semaphore.acquire(0)) {
+            Assert.assertNotEquals(p1.getLockFilePath(), p2.getLockFilePath());
+            try {
+                semaphore.acquire(50).close();
+                Assert.fail("BuildException expected");
+            } catch (BuildException expected) {
+            }
+        }
+        /* both released */
+        try (BuildSemaphore.Permit p1 = semaphore.acquire(0); BuildSemaphore.Permit p2 = semaphore.acquire(0)) {
+        }
+    }
+
+    /**
+     * @param directory
+     *            the directory of the {@link BuildSemaphore} to use
+     * @return the result reported by a {@link BuildSemaphoreProcess} trying to acquire a permit in the given
+     *         {@code directory}
+     */
+    private static String acquireInAnotherProcess(Path directory) throws Exception {
+        final Path resultFile = directory.resolveSibling(directory.getFileName() + "-process-result.txt");
+        Files.deleteIfExists(resultFile);
+        final String classPath = targetDirectory.resolve("classes").toString() + File.pathSeparator
+                + targetDirectory.resolve("test-classes").toString() + File.pathSeparator
+                + PathLockerTest.getJarPath(org.slf4j.LoggerFactory.class) + File.pathSeparator
+                + PathLockerTest.getJarPath(org.slf4j.impl.StaticLoggerBinder.class);
+        final ShellCommand command = ShellCommand.builder().executable(SrcdepsCoreUtils.getCurrentJavaExecutable())
+                .arguments("-cp", classPath, BuildSemaphoreProcess.class.getName(), directory.toString(), "1",
+                        resultFile.toString())
+                .workingDirectory(targetDirectory).build();
+        Shell.execute(command).assertSuccess();
+        return new String(Files.readAllBytes(resultFile), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Makes sure that a second thread of the current VM failing to get the only permit does not release the
+     * filesystem level lock held by the first thread.
+     */
+    @Test
+    public void threadsAndAnotherProcess() throws Exception {
+        final Path directory = targetDirectory.resolve("buildSemaphore-threadsAndAnotherProcess");
+        final BuildSemaphore semaphore = new BuildSemaphore(directory, 1);
+        final BuildSemaphore.Permit p1 = semaphore.acquire(0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> future = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    try (BuildSemaphore.Permit p2 = semaphore.acquire(0)) {
+                        return true;
+                    } catch (BuildException expected) {
+                        return false;
+                    }
+                }
+            });
+            Assert.assertFalse(future.get(10, TimeUnit.SECONDS));
+            /* a separate BuildSemaphore instance of the current VM must not interfere either */
+            try {
+                new BuildSemaphore(directory, 1).acquire(0).close();
+                Assert.fail("BuildException expected");
+            } catch (BuildException expected) {
+            }
+            Assert.assertEquals(BuildSemaphoreProcess.BUSY, acquireInAnotherProcess(directory));
+        } finally {
+            p1.close();
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(BuildSemaphoreProcess.ACQUIRED, acquireInAnotherProcess(directory));
+    }
+
+    @Test
+    public void waitForRelease() throws Exception {
+        final BuildSemaphore semaphore = new BuildSemaphore(targetDirectory.resolve("buildSemaphore-waitForRelease"),
+                1);
+        final BuildSemaphore.Permit p1 = semaphore.acquire(0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Path> future = executor.submit(new Callable<Path>() {
+                @Override
+                public Path call() throws Exception {
+                    try (BuildSemaphore.Permit p2 = semaphore.acquire(10000)) {
+                        return p2.getLockFilePath();
+                    }
+                }
+            });
+            Thread.sleep(100);
+            Assert.assertFalse(future.isDone());
+            p1.close();
+            Assert.assertEquals(p1.getLockFilePath(), future.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void computeDefaultPermits() {
+        int permits = BuildSemaphore.computeDefaultPermits();
+        Assert.assertTrue(permits >= 1);
+        Assert.assertTrue(permits <= Runtime.getRuntime().availableProcessors());
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.fs;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.fs.LockMetrics.Failure;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class LockStatisticsTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    @Test
+    public void injectedMetrics() throws IOException {
+        final Path root = targetDirectory.resolve(LockStatisticsTest.class.getSimpleName()).resolve("injectedMetrics");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(root);
+        final LockStatistics statistics1 = new LockStatistics();
+        final LockStatistics statistics2 = new LockStatistics();
+        final Set<LockMetrics> metrics = new LinkedHashSet<LockMetrics>(Arrays.asList(statistics1, statistics2));
+        /* a PathLocker that finds all build directories busy */
+        final PathLocker<SrcVersion> pathLocker = new PathLocker<SrcVersion>(metrics) {
+            @Override
+            public PathLock lockDirectory(Path path, SrcVersion pathMetadata) throws CannotAcquireLockException {
+                getMetrics().lockFailed(path, 0, Failure.fsLocked);
+                throw new CannotAcquireLockException(String.format("Busy [%s]", path));
+            }
+        };
+        final BuildDirectoriesManager manager = new BuildDirectoriesManager(root, pathLocker);
+        try {
+            manager.openBuildDirectory(Paths.get("org", "example"), SrcVersion.parse("1.0-SRC-tag-1.0"));
+            Assert.fail("BuildException expected");
+        } catch (BuildException expected) {
+        }
+
+        for (LockStatistics statistics : Arrays.asList(statistics1, statistics2)) {
+            Assert.assertEquals(1, statistics.getFailedOpenCount());
+            Assert.assertEquals(-1, statistics.getMaxSlotIndex());
+            Assert.assertEquals(1, statistics.getProbes().getCount());
+            Assert.assertEquals(statistics.getFailureCount(Failure.fsLocked), statistics.getProbes().getMax());
+            Assert.assertEquals(0, statistics.getAcquiredCount());
+        }
+    }
+
+    @Test
+    public void lockDirectory() throws IOException, CannotAcquireLockException {
+        final Path dir = targetDirectory.resolve(LockStatisticsTest.class.getSimpleName()).resolve("lockDirectory");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        final LockStatistics statistics = new LockStatistics();
+        final PathLocker<SrcVersion> pathLocker = new PathLocker<>(statistics);
+        Assert.assertSame(statistics, pathLocker.getMetrics());
+
+        try (PathLock lock = pathLocker.lockDirectory(dir, SrcVersion.parse("1.0-SRC-tag-1.0"))) {
+            try {
+                /*
+                 * the thread level lock is reentrant, hence locking it again with a different metadata from the same
+                 * thread fails only on the FS level
+                 */
+                pathLocker.lockDirectory(dir, SrcVersion.parse("1.0-SRC-tag-2.0"));
+                Assert.fail("CannotAcquireLockException expected");
+            } catch (CannotAcquireLockException expected) {
+            }
+        }
+
+        Assert.assertEquals(2, statistics.getAttemptCount());
+        Assert.assertEquals(1, statistics.getAcquiredCount());
+        Assert.assertEquals(0, statistics.getFailureCount(Failure.threadBusy));
+        Assert.assertEquals(0.5d, statistics.getFailureRate(Failure.fsOverlapping), 0);
+        Assert.assertEquals(2, statistics.getThreadWaitNanos().getCount());
+    }
+
+    @Test
+    public void openBuildDirectory() throws IOException, BuildException {
+        final Path root = targetDirectory.resolve(LockStatisticsTest.class.getSimpleName())
+                .resolve("openBuildDirectory");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(root);
+        final LockStatistics statistics = new LockStatistics();
+        Assert.assertEquals(-1, statistics.getMaxSlotIndex());
+        final BuildDirectoriesManager manager = new BuildDirectoriesManager(root,
+                new PathLocker<SrcVersion>(statistics));
+        final Path home = Paths.get("org", "example");
+        try (PathLock lock0 = manager.openBuildDirectory(home, SrcVersion.parse("1.0-SRC-tag-1.0"));
+                PathLock lock1 = manager.openBuildDirectory(home, SrcVersion.parse("1.0-SRC-tag-2.0"))) {
+            Assert.assertEquals(1, statistics.getMaxSlotIndex());
+        }
+        /* slot 0 got free again */
+        try (PathLock lock0 = manager.openBuildDirectory(home, SrcVersion.parse("1.0-SRC-tag-1.0"))) {
+            Assert.assertEquals(1, statistics.getMaxSlotIndex());
+        }
+
+        Assert.assertEquals(3, statistics.getProbes().getCount());
+        Assert.assertEquals(2, statistics.getProbes().getMax());
+        Assert.assertEquals(4, statistics.getProbes().getSum());
+        Assert.assertEquals(1, statistics.getFailureCount(Failure.fsOverlapping));
+        Assert.assertEquals(3, statistics.getAcquiredCount());
+        Assert.assertEquals(0, statistics.getFailedOpenCount());
+    }
+
+}
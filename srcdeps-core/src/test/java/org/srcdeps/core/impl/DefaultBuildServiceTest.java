@@ -0,0 +1,218 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.BuildListener;
+import org.srcdeps.core.BuildPhase;
+import org.srcdeps.core.BuildPhaseResult;
+import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.Builder;
+import org.srcdeps.core.Gavtc;
+import org.srcdeps.core.MavenLocalRepository;
+import org.srcdeps.core.Scm;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.fs.BuildSemaphore;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class DefaultBuildServiceTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    @Test
+    public void isImmutable() {
+        Assert.assertTrue(DefaultBuildService.isImmutable(SrcVersion.parse("1.0-SRC-tag-1.0")));
+        Assert.assertTrue(DefaultBuildService.isImmutable(SrcVersion.parse("1.0-SRC-revision-abcd")));
+        Assert.assertFalse(DefaultBuildService.isImmutable(SrcVersion.parse("1.0-SRC-branch-master")));
+    }
+
+    @Test
+    public void listeners() throws IOException {
+        final Path dir = targetDirectory.resolve(DefaultBuildServiceTest.class.getSimpleName()).resolve("listeners");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        final Scm scm = new Scm() {
+            @Override
+            public void checkout(BuildRequest request) {
+            }
+
+            @Override
+            public boolean supports(String url) {
+                return true;
+            }
+        };
+        final Builder builder = new Builder() {
+            @Override
+            public void build(BuildRequest request) throws BuildException {
+                throw new BuildException("build failed");
+            }
+
+            @Override
+            public boolean canBuild(Path projectRootDirectory) {
+                return true;
+            }
+
+            @Override
+            public BuildRequest setVersions(BuildRequest request) {
+                return request;
+            }
+        };
+        final List<String> events = new ArrayList<>();
+        final BuildListener recorder = new BuildListener() {
+            @Override
+            public void phaseFinished(BuildPhaseResult result) {
+                Assert.assertTrue(result.getDurationNanos() >= 0);
+                Assert.assertEquals(BuildPhaseResult.UNKNOWN_BYTES, result.getBytesFetched());
+                events.add("finished " + result.getPhase() + " " + result.getSlotIndex() + " " + result.isSuccess());
+            }
+
+            @Override
+            public void phaseStarted(BuildRequest request, BuildPhase phase, int slotIndex) {
+                events.add("started " + phase + " " + slotIndex);
+            }
+        };
+        final BuildListener failing = new BuildListener() {
+            @Override
+            public void phaseFinished(BuildPhaseResult result) {
+                throw new IllegalStateException("phaseFinished failed");
+            }
+
+            @Override
+            public void phaseStarted(BuildRequest request, BuildPhase phase, int slotIndex) {
+                throw new IllegalStateException("phaseStarted failed");
+            }
+        };
+        final DefaultBuildService service = new DefaultBuildService(Collections.singleton(builder),
+                Collections.singleton(scm), new BuildSemaphore(dir.resolve("permits"), 1),
+                new LinkedHashSet<>(Arrays.asList(failing, recorder)));
+        try {
+            service.build(InstallManifestTest.requestBuilder(dir.resolve("3")).build());
+            Assert.fail("BuildException expected");
+        } catch (BuildException expected) {
+            Assert.assertEquals("build failed", expected.getMessage());
+        }
+        Assert.assertEquals(Arrays.asList( //
+                "started checkout 3", //
+                "finished checkout 3 true", //
+                "started buildPermit 3", //
+                "finished buildPermit 3 true", //
+                "started setVersions 3", //
+                "finished setVersions 3 true", //
+                "started build 3", //
+                "finished build 3 false" //
+        ), events);
+    }
+
+    @Test
+    public void skipInstalled() throws IOException, BuildException {
+        final Path dir = targetDirectory.resolve(DefaultBuildServiceTest.class.getSimpleName())
+                .resolve("skipInstalled");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        final Path localRepositoryRoot = dir.resolve("repository");
+        final MavenLocalRepository localRepository = new MavenLocalRepository(localRepositoryRoot);
+        final Gavtc pom = Gavtc.of("org.example:api:1.0-SRC-tag-1.0:pom");
+        final Path pomPath = localRepository.resolve(pom);
+        Files.createDirectories(pomPath.getParent());
+        Files.createFile(pomPath);
+
+        /* neither a Scm nor a Builder is available so any build attempt must fail */
+        final DefaultBuildService service = new DefaultBuildService(Collections.<Builder>emptySet(),
+                Collections.<Scm>emptySet(), new BuildSemaphore(dir.resolve("permits"), 1));
+        final BuildRequest request = InstallManifestTest.requestBuilder(dir.resolve("build")).skipInstalled(true)
+                .build();
+        new InstallManifest("1.0-SRC-tag-1.0", 1234L, null, Collections.singletonList(pom))
+                .write(InstallManifest.getPath(localRepositoryRoot, request));
+
+        final String oldRepoLocal = System.getProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP);
+        System.setProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP, localRepositoryRoot.toString());
+        try {
+            /* installed already */
+            service.build(request);
+
+            /* not installed anymore */
+            Files.delete(pomPath);
+            try {
+                service.build(request);
+                Assert.fail("BuildException expected");
+            } catch (BuildException expected) {
+            }
+        } finally {
+            if (oldRepoLocal == null) {
+                System.clearProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP);
+            } else {
+                System.setProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP, oldRepoLocal);
+            }
+        }
+    }
+
+    @Test
+    public void skipInstalledRepoLocalArgument() throws IOException, BuildException {
+        final Path dir = targetDirectory.resolve(DefaultBuildServiceTest.class.getSimpleName())
+                .resolve("skipInstalledRepoLocalArgument");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        final Path localRepositoryRoot = dir.resolve("repository");
+        final MavenLocalRepository localRepository = new MavenLocalRepository(localRepositoryRoot);
+        final Gavtc pom = Gavtc.of("org.example:api:1.0-SRC-tag-1.0:pom");
+        final Path pomPath = localRepository.resolve(pom);
+        Files.createDirectories(pomPath.getParent());
+        Files.createFile(pomPath);
+
+        /* neither a Scm nor a Builder is available so any build attempt must fail */
+        final DefaultBuildService service = new DefaultBuildService(Collections.<Builder>emptySet(),
+                Collections.<Scm>emptySet(), new BuildSemaphore(dir.resolve("permits"), 1));
+        final BuildRequest request = InstallManifestTest.requestBuilder(dir.resolve("build")).skipInstalled(true)
+                .buildArgument("-D" + MavenLocalRepository.MAVEN_REPO_LOCAL_PROP + "=" + localRepositoryRoot).build();
+        new InstallManifest("1.0-SRC-tag-1.0", 1234L, null, Collections.singletonList(pom))
+                .write(InstallManifest.getPath(localRepositoryRoot, request));
+
+        final String oldRepoLocal = System.getProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP);
+        /* the build argument must win over the repository the current JVM uses */
+        System.setProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP, dir.resolve("other-repository").toString());
+        try {
+            /* installed already in the repository given by the build argument */
+            service.build(request);
+
+            /* without the build argument, the other repository is checked where nothing is installed */
+            try {
+                service.build(InstallManifestTest.requestBuilder(dir.resolve("build")).skipInstalled(true).build());
+                Assert.fail("BuildException expected");
+            } catch (BuildException expected) {
+            }
+        } finally {
+            if (oldRepoLocal == null) {
+                System.clearProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP);
+            } else {
+                System.setProperty(MavenLocalRepository.MAVEN_REPO_LOCAL_PROP, oldRepoLocal);
+            }
+        }
+    }
+
+}
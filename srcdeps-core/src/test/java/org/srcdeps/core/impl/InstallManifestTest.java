@@ -0,0 +1,100 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.Gavtc;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.config.Maven;
+import org.srcdeps.core.config.scalar.CharStreamSource;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class InstallManifestTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    static BuildRequest.BuildRequestBuilder requestBuilder(Path dir) {
+        return BuildRequest.builder() //
+                .srcVersion(SrcVersion.parse("1.0-SRC-tag-1.0")) //
+                .dependentProjectRootDirectory(dir) //
+                .projectRootDirectory(dir) //
+                .scmUrl("git:https://github.com/srcdeps/srcdeps-test-artifact.git") //
+                .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                .gradleModelTransformer(CharStreamSource.defaultModelTransformer());
+    }
+
+    @Test
+    public void computeKey() {
+        final Path dir = targetDirectory.resolve(InstallManifestTest.class.getSimpleName()).resolve("computeKey");
+        final String key = InstallManifest.computeKey(requestBuilder(dir).build());
+        Assert.assertEquals(40, key.length());
+
+        /* the build directory does not influence the artifacts */
+        Assert.assertEquals(key, InstallManifest.computeKey(requestBuilder(dir.resolve("other")).build()));
+
+        Assert.assertNotEquals(key, InstallManifest
+                .computeKey(requestBuilder(dir).srcVersion(SrcVersion.parse("1.1-SRC-tag-1.1")).build()));
+        Assert.assertNotEquals(key, InstallManifest.computeKey(requestBuilder(dir).skipTests(false).build()));
+        Assert.assertNotEquals(key, InstallManifest
+                .computeKey(requestBuilder(dir).buildArguments(Collections.singletonList("-Pfoo")).build()));
+    }
+
+    @Test
+    public void missing() throws IOException {
+        final Path dir = targetDirectory.resolve(InstallManifestTest.class.getSimpleName()).resolve("missing");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        Assert.assertNull(InstallManifest.read(InstallManifest.getPath(dir, requestBuilder(dir).build())));
+    }
+
+    @Test
+    public void writeRead() throws IOException {
+        final Path dir = targetDirectory.resolve(InstallManifestTest.class.getSimpleName()).resolve("writeRead");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        final Path path = InstallManifest.getPath(dir, requestBuilder(dir).build());
+        Assert.assertEquals(dir.resolve(InstallManifest.MANIFESTS_DIRECTORY), path.getParent());
+
+        final Gavtc pom = Gavtc.of("org.example:api:1.0-SRC-tag-1.0:pom");
+        final Gavtc jar = Gavtc.of("org.example:api:1.0-SRC-tag-1.0:jar");
+        new InstallManifest("1.0-SRC-tag-1.0", 1234L, "abcd", Arrays.asList(pom, jar)).write(path);
+        InstallManifest manifest = InstallManifest.read(path);
+        Assert.assertEquals("1.0-SRC-tag-1.0", manifest.getSrcVersion());
+        Assert.assertEquals(1234L, manifest.getTimestamp());
+        Assert.assertEquals("abcd", manifest.getCommitId());
+        Assert.assertEquals(Arrays.asList(pom, jar), manifest.getArtifacts());
+
+        /* overwrite */
+        new InstallManifest("1.0-SRC-tag-1.0", 5678L, null, Arrays.asList(pom)).write(path);
+        manifest = InstallManifest.read(path);
+        Assert.assertNull(manifest.getCommitId());
+        Assert.assertEquals(Arrays.asList(pom), manifest.getArtifacts());
+        Assert.assertEquals(1, dir.resolve(InstallManifest.MANIFESTS_DIRECTORY).toFile().list().length);
+        Assert.assertTrue(Files.exists(path));
+    }
+
+}
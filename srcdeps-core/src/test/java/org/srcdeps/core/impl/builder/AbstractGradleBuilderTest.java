@@ -0,0 +1,82 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.builder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.config.scalar.CharStreamSource;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class AbstractGradleBuilderTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    @Test
+    public void getSettingsAppendixClasspath() throws IOException {
+        final Path dir = targetDirectory.resolve(AbstractGradleBuilderTest.class.getSimpleName())
+                .resolve("getSettingsAppendixClasspath");
+        final CharStreamSource transformer = CharStreamSource.defaultModelTransformer();
+        final AbstractGradleBuilder.SettingsAppendix appendix = AbstractGradleBuilder.getSettingsAppendix(transformer,
+                dir, false);
+        final String content = appendix.getContent();
+        Assert.assertTrue(content.contains("class SrcdepsInner"));
+        Assert.assertTrue(content.contains("def srcdepsInner = new SrcdepsInner()"));
+        Assert.assertTrue(content.contains("srcdeps: executing default model transformer"));
+        Assert.assertFalse(content.contains("package org.srcdeps.core;"));
+        Assert.assertFalse(content.contains("buildCache {"));
+
+        Assert.assertSame(appendix, AbstractGradleBuilder.getSettingsAppendix(transformer, dir, false));
+
+        final AbstractGradleBuilder.SettingsAppendix withBuildCache = AbstractGradleBuilder
+                .getSettingsAppendix(transformer, dir, true);
+        Assert.assertNotSame(appendix, withBuildCache);
+        Assert.assertTrue(withBuildCache.getContent().contains("buildCache {"));
+    }
+
+    @Test
+    public void getSettingsAppendixFile() throws IOException {
+        final Path dir = targetDirectory.resolve(AbstractGradleBuilderTest.class.getSimpleName())
+                .resolve("getSettingsAppendixFile");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        final Path script = dir.resolve("transformer.gradle");
+        Files.write(script, "println 'first'".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(script, FileTime.fromMillis(1000000L));
+
+        final CharStreamSource transformer = CharStreamSource.of("file:transformer.gradle");
+        final AbstractGradleBuilder.SettingsAppendix appendix = AbstractGradleBuilder.getSettingsAppendix(transformer,
+                dir, false);
+        Assert.assertTrue(appendix.getContent().contains("println 'first'"));
+        Assert.assertSame(appendix, AbstractGradleBuilder.getSettingsAppendix(transformer, dir, false));
+
+        Files.write(script, "println 'second'".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(script, FileTime.fromMillis(2000000L));
+        final String content = AbstractGradleBuilder.getSettingsAppendix(transformer, dir, false).getContent();
+        Assert.assertTrue(content.contains("println 'second'"));
+        Assert.assertFalse(content.contains("println 'first'"));
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.builder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.BuildRequest.SetVersionsMode;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.config.Maven;
+import org.srcdeps.core.config.scalar.CharStreamSource;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class AbstractMvnBuilderTest {
+
+    /**
+     * A {@link MvnBuilder} counting the invocations of {@link #getCiFriendlyArguments(BuildRequest)}.
+     */
+    static class CountingMvnBuilder extends MvnBuilder {
+        private final AtomicInteger ciFriendlyArgumentsCount = new AtomicInteger();
+
+        @Override
+        protected List<String> getCiFriendlyArguments(BuildRequest request) {
+            ciFriendlyArgumentsCount.incrementAndGet();
+            return super.getCiFriendlyArguments(request);
+        }
+    }
+
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    @Test
+    public void ciFriendlyArgumentsViaRequest() throws IOException, BuildException {
+        final Path dir = targetDirectory.resolve(AbstractMvnBuilderTest.class.getSimpleName())
+                .resolve("ciFriendlyArgumentsViaRequest");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        Files.write(dir.resolve("pom.xml"), ("<project>\n" //
+                + "  <modelVersion>4.0.0</modelVersion>\n" //
+                + "  <groupId>org.example</groupId>\n" //
+                + "  <artifactId>ci</artifactId>\n" //
+                + "  <version>${revision}</version>\n" //
+                + "</project>\n").getBytes(StandardCharsets.UTF_8));
+        final BuildRequest request = BuildRequest.builder() //
+                .srcVersion(SrcVersion.parse("1.0-SRC-revision-abcd")) //
+                .dependentProjectRootDirectory(dir) //
+                .projectRootDirectory(dir) //
+                .scmUrl("git:file:///dev/null") //
+                .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                .gradleModelTransformer(CharStreamSource.defaultModelTransformer()) //
+                .setVersionsMode(SetVersionsMode.ciFriendly) //
+                .timeoutMs(60000) //
+                .build();
+
+        final CountingMvnBuilder builder = new CountingMvnBuilder();
+        final BuildRequest versionedRequest = builder.setVersions(request);
+        Assert.assertEquals(1, builder.ciFriendlyArgumentsCount.get());
+        Assert.assertEquals(Collections.singletonList("-Drevision=1.0-SRC-revision-abcd"),
+                versionedRequest.getVersionArguments());
+        Assert.assertTrue(versionedRequest.getTimeoutMs() <= request.getTimeoutMs());
+        Assert.assertTrue(builder.mergeArguments(versionedRequest).contains("-Drevision=1.0-SRC-revision-abcd"));
+        Assert.assertEquals(1, builder.ciFriendlyArgumentsCount.get());
+
+        /* no state is left in the builder, e.g. for a subsequent build that skipped setVersions() */
+        Assert.assertFalse(builder.mergeArguments(request).contains("-Drevision=1.0-SRC-revision-abcd"));
+        Assert.assertEquals(1, builder.ciFriendlyArgumentsCount.get());
+    }
+
+}
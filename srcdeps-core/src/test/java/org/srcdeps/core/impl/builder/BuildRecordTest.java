@@ -0,0 +1,77 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.builder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class BuildRecordTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    private static Path createSlot(String testName) throws IOException {
+        Path slot = targetDirectory.resolve(BuildRecordTest.class.getSimpleName()).resolve(testName).resolve("0");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(slot);
+        Files.deleteIfExists(BuildRecord.getPath(slot));
+        return slot;
+    }
+
+    @Test
+    public void invalid() throws IOException {
+        Path slot = createSlot("invalid");
+        Files.write(BuildRecord.getPath(slot), "executable=mvn\nsrcVersion=1.0\ntimestamp=x\n"
+                .getBytes(StandardCharsets.ISO_8859_1));
+        Assert.assertNull(BuildRecord.read(slot));
+    }
+
+    @Test
+    public void missing() throws IOException {
+        Assert.assertNull(BuildRecord.read(createSlot("missing")));
+    }
+
+    @Test
+    public void writeRead() throws IOException {
+        Path slot = createSlot("writeRead");
+        Assert.assertEquals(slot.getParent().resolve("0.build.properties"), BuildRecord.getPath(slot));
+
+        new BuildRecord("mvn", "1.0-SRC-revision-abcd", 1234L, "abcd", "1a2b").write(slot);
+        BuildRecord record = BuildRecord.read(slot);
+        Assert.assertEquals("mvn", record.getExecutable());
+        Assert.assertEquals("1.0-SRC-revision-abcd", record.getSrcVersion());
+        Assert.assertEquals(1234L, record.getTimestamp());
+        Assert.assertEquals("abcd", record.getCommitId());
+        Assert.assertEquals("1a2b", record.getInputsFingerprint());
+
+        /* commitId and inputsFingerprint are optional */
+        new BuildRecord("gradle", "1.0-SRC-revision-abcd", 1234L, null, null).write(slot);
+        record = BuildRecord.read(slot);
+        Assert.assertEquals("gradle", record.getExecutable());
+        Assert.assertNull(record.getCommitId());
+        Assert.assertNull(record.getInputsFingerprint());
+    }
+
+}
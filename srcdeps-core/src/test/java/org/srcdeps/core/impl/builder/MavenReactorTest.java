@@ -0,0 +1,373 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.builder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.GavSet;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class MavenReactorTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    private static final String PARENT_POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+            + "<!-- <version>1.0</version> in a comment -->\n" //
+            + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" //
+            + "  <modelVersion>4.0.0</modelVersion>\n" //
+            + "  <groupId>org.example</groupId>\n" //
+            + "  <artifactId>parent</artifactId>\n" //
+            + "  <version>1.0-SNAPSHOT</version>\n" //
+            + "  <packaging>pom</packaging>\n" //
+            + "  <modules>\n" //
+            + "    <module>api</module>\n" //
+            + "  </modules>\n" //
+            + "  <profiles>\n" //
+            + "    <profile>\n" //
+            + "      <id>impl</id>\n" //
+            + "      <modules>\n" //
+            + "        <module>impl</module>\n" //
+            + "      </modules>\n" //
+            + "    </profile>\n" //
+            + "  </profiles>\n" //
+            + "</project>\n";
+
+    private static final String API_POM = "<project>\n" //
+            + "  <parent>\n" //
+            + "    <groupId>org.example</groupId>\n" //
+            + "    <artifactId>parent</artifactId>\n" //
+            + "    <version>1.0-SNAPSHOT</version>\n" //
+            + "  </parent>\n" //
+            + "  <artifactId>api</artifactId>\n" //
+            + "  <dependencies>\n" //
+            + "    <dependency>\n" //
+            + "      <groupId>junit</groupId>\n" //
+            + "      <artifactId>junit</artifactId>\n" //
+            + "      <version>1.0-SNAPSHOT</version>\n" //
+            + "    </dependency>\n" //
+            + "  </dependencies>\n" //
+            + "</project>\n";
+
+    private static final String IMPL_POM = "<project>\n" //
+            + "  <parent>\n" //
+            + "    <groupId>org.example</groupId>\n" //
+            + "    <artifactId>parent</artifactId>\n" //
+            + "    <version>1.0-SNAPSHOT</version>\n" //
+            + "  </parent>\n" //
+            + "  <groupId>org.example.impl</groupId>\n" //
+            + "  <artifactId>impl</artifactId>\n" //
+            + "  <version>2.0-SNAPSHOT</version>\n" //
+            + "  <dependencies>\n" //
+            + "    <dependency>\n" //
+            + "      <groupId>org.example</groupId>\n" //
+            + "      <artifactId>api</artifactId>\n" //
+            + "      <version><!-- literal -->1.0-SNAPSHOT</version>\n" //
+            + "    </dependency>\n" //
+            + "  </dependencies>\n" //
+            + "</project>\n";
+
+    private static Path createCiFriendlyReactor(String testName) throws IOException {
+        Path root = createReactor(testName);
+        write(root.resolve("pom.xml"), PARENT_POM.replace("1.0-SNAPSHOT", "${revision}${changelist}"));
+        write(root.resolve("api/pom.xml"), API_POM.replace("    <version>1.0-SNAPSHOT</version>\n  </parent>",
+                "    <version>${revision}${changelist}</version>\n  </parent>"));
+        write(root.resolve("impl/pom.xml"), IMPL_POM.replace("1.0-SNAPSHOT", "${revision}${changelist}")
+                .replace("  <version>2.0-SNAPSHOT</version>\n", ""));
+        return root;
+    }
+
+    private static Path createReactor(String testName) throws IOException {
+        Path root = targetDirectory.resolve(MavenReactorTest.class.getSimpleName()).resolve(testName);
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(root);
+        write(root.resolve("pom.xml"), PARENT_POM);
+        write(root.resolve("api/pom.xml"), API_POM);
+        write(root.resolve("impl/pom.xml"), IMPL_POM);
+        return root;
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void ciFriendlyVersionProperties() throws IOException, BuildException {
+        Path root = createCiFriendlyReactor("ciFriendlyVersionProperties");
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("revision", "1.0-SRC-revision-abcd");
+        expected.put("changelist", "");
+        Assert.assertEquals(expected,
+                MavenReactor.read(root).getCiFriendlyVersionProperties("1.0-SRC-revision-abcd"));
+    }
+
+    @Test
+    public void ciFriendlyVersionPropertiesInconsistent() throws IOException, BuildException {
+        Path root = createCiFriendlyReactor("ciFriendlyVersionPropertiesInconsistent");
+        write(root.resolve("impl/pom.xml"), IMPL_POM.replace("1.0-SNAPSHOT", "${revision}${changelist}"));
+        Assert.assertNull(MavenReactor.read(root).getCiFriendlyVersionProperties("1.0-SRC-revision-abcd"));
+    }
+
+    @Test
+    public void ciFriendlyVersionPropertiesNone() throws IOException, BuildException {
+        Path root = createReactor("ciFriendlyVersionPropertiesNone");
+        Assert.assertNull(MavenReactor.read(root).getCiFriendlyVersionProperties("1.0-SRC-revision-abcd"));
+    }
+
+    @Test
+    public void read() throws IOException, BuildException {
+        Path root = createReactor("read");
+        List<MavenReactor.Module> modules = MavenReactor.read(root).getModules();
+        Assert.assertEquals(3, modules.size());
+
+        MavenReactor.Module parent = modules.get(0);
+        Assert.assertEquals("org.example", parent.getGroupId());
+        Assert.assertEquals("parent", parent.getArtifactId());
+        Assert.assertEquals("1.0-SNAPSHOT", parent.getVersion());
+        Assert.assertEquals("pom", parent.getPackaging());
+
+        MavenReactor.Module api = modules.get(1);
+        Assert.assertEquals("org.example", api.getGroupId());
+        Assert.assertEquals("api", api.getArtifactId());
+        Assert.assertEquals("1.0-SNAPSHOT", api.getVersion());
+        Assert.assertEquals("jar", api.getPackaging());
+
+        MavenReactor.Module impl = modules.get(2);
+        Assert.assertEquals("org.example.impl", impl.getGroupId());
+        Assert.assertEquals("2.0-SNAPSHOT", impl.getVersion());
+
+        Assert.assertFalse(parent.isInProfile());
+        Assert.assertFalse(api.isInProfile());
+        Assert.assertTrue(impl.isInProfile());
+    }
+
+    @Test
+    public void readCached() throws IOException, BuildException {
+        Path root = createReactor("readCached");
+        MavenReactor reactor = MavenReactor.read(root);
+        Assert.assertSame(reactor, MavenReactor.read(root));
+
+        write(root.resolve("api/pom.xml"), API_POM.replace("<artifactId>api</artifactId>",
+                "<artifactId>api2</artifactId>"));
+        MavenReactor changed = MavenReactor.read(root);
+        Assert.assertNotSame(reactor, changed);
+        Assert.assertEquals("api2", changed.getModules().get(1).getArtifactId());
+    }
+
+    @Test
+    public void readModulesInPluginConfiguration() throws IOException, BuildException {
+        Path root = createReactor("readModulesInPluginConfiguration");
+        write(root.resolve("pom.xml"), PARENT_POM.replace("  <profiles>\n", "  <build>\n" //
+                + "    <plugins>\n" //
+                + "      <plugin>\n" //
+                + "        <artifactId>maven-example-plugin</artifactId>\n" //
+                + "        <configuration>\n" //
+                + "          <modules>\n" //
+                + "            <module>not-a-module</module>\n" //
+                + "          </modules>\n" //
+                + "        </configuration>\n" //
+                + "      </plugin>\n" //
+                + "    </plugins>\n" //
+                + "  </build>\n" //
+                + "  <profiles>\n"));
+        /* not-a-module does not exist so reading would fail if it was taken for a module */
+        List<MavenReactor.Module> modules = MavenReactor.read(root).getModules();
+        Assert.assertEquals(3, modules.size());
+        Assert.assertTrue(modules.get(2).isInProfile());
+    }
+
+    @Test
+    public void selectModules() throws IOException, BuildException {
+        Path root = createReactor("selectModules");
+        Assert.assertEquals(Arrays.asList("org.example:api"), MavenReactor.read(root)
+                .selectModules(GavSet.builder().include("org.example:api").build(), "1.0-SRC-revision-abcd"));
+    }
+
+    @Test
+    public void selectModulesAll() throws IOException, BuildException {
+        Path root = createReactor("selectModulesAll");
+        Assert.assertNull(MavenReactor.read(root).selectModules(GavSet.includeAll(), "1.0-SRC-revision-abcd"));
+    }
+
+    @Test
+    public void selectModulesCiFriendly() throws IOException, BuildException {
+        Path root = createCiFriendlyReactor("selectModulesCiFriendly");
+        Assert.assertEquals(Arrays.asList("org.example:parent", "org.example:api"),
+                MavenReactor.read(root).selectModules(
+                        GavSet.builder().include("org.example:*:1.0-SRC-revision-abcd").build(),
+                        "1.0-SRC-revision-abcd"));
+    }
+
+    @Test
+    public void selectModulesInProfile() throws IOException, BuildException {
+        Path root = createReactor("selectModulesInProfile");
+        Assert.assertNull(MavenReactor.read(root)
+                .selectModules(GavSet.builder().include("org.example.impl").build(), "1.0-SRC-revision-abcd"));
+    }
+
+    @Test
+    public void setVersionsAll() throws IOException, BuildException {
+        Path root = createReactor("setVersionsAll");
+        int count = MavenReactor.read(root).setVersions(GavSet.includeAll(), "1.0-SRC-revision-abcd");
+        Assert.assertEquals(3, count);
+
+        Assert.assertEquals(PARENT_POM.replace("  <version>1.0-SNAPSHOT</version>",
+                "  <version>1.0-SRC-revision-abcd</version>"), read(root.resolve("pom.xml")));
+        /* the junit dependency must stay untouched */
+        Assert.assertEquals(API_POM.replace("    <version>1.0-SNAPSHOT</version>\n  </parent>",
+                "    <version>1.0-SRC-revision-abcd</version>\n  </parent>"), read(root.resolve("api/pom.xml")));
+        Assert.assertEquals(IMPL_POM //
+                .replace("1.0-SNAPSHOT", "1.0-SRC-revision-abcd") //
+                .replace("<version><!-- literal -->1.0-SRC-revision-abcd</version>",
+                        "<version>1.0-SRC-revision-abcd</version>") //
+                .replace("2.0-SNAPSHOT", "1.0-SRC-revision-abcd"), read(root.resolve("impl/pom.xml")));
+    }
+
+    @Test
+    public void setVersionsSubset() throws IOException, BuildException {
+        Path root = createReactor("setVersionsSubset");
+        int count = MavenReactor.read(root).setVersions(GavSet.builder().include("org.example.impl").build(),
+                "1.0-SRC-revision-abcd");
+        Assert.assertEquals(1, count);
+
+        Assert.assertEquals(PARENT_POM, read(root.resolve("pom.xml")));
+        Assert.assertEquals(API_POM, read(root.resolve("api/pom.xml")));
+        Assert.assertEquals(IMPL_POM.replace("2.0-SNAPSHOT", "1.0-SRC-revision-abcd"),
+                read(root.resolve("impl/pom.xml")));
+    }
+
+    @Test
+    public void setVersionsAtomic() throws IOException, BuildException {
+        Path root = createReactor("setVersionsAtomic");
+        /* a directory in place of the temporary file makes writing the last module fail */
+        Files.createDirectories(root.resolve("impl/pom.xml.srcdeps.tmp"));
+        try {
+            MavenReactor.read(root).setVersions(GavSet.includeAll(), "1.0-SRC-revision-abcd");
+            Assert.fail("BuildException expected");
+        } catch (BuildException expected) {
+        }
+        Assert.assertEquals(PARENT_POM, read(root.resolve("pom.xml")));
+        Assert.assertEquals(API_POM, read(root.resolve("api/pom.xml")));
+        Assert.assertEquals(IMPL_POM, read(root.resolve("impl/pom.xml")));
+        Assert.assertFalse(Files.exists(root.resolve("pom.xml.srcdeps.tmp")));
+        Assert.assertFalse(Files.exists(root.resolve("api/pom.xml.srcdeps.tmp")));
+    }
+
+    @Test
+    public void setVersionsInherited() throws IOException, BuildException {
+        Path root = createReactor("setVersionsInherited");
+        int count = MavenReactor.read(root).setVersions(GavSet.builder().include("org.example:api").build(),
+                "1.0-SRC-revision-abcd");
+        Assert.assertEquals(1, count);
+
+        Assert.assertEquals(PARENT_POM, read(root.resolve("pom.xml")));
+        Assert.assertEquals(API_POM.replace("  <artifactId>api</artifactId>\n",
+                "  <artifactId>api</artifactId>\n  <version>1.0-SRC-revision-abcd</version>\n"),
+                read(root.resolve("api/pom.xml")));
+        Assert.assertEquals(IMPL_POM.replace("<version><!-- literal -->1.0-SNAPSHOT</version>",
+                "<version>1.0-SRC-revision-abcd</version>"), read(root.resolve("impl/pom.xml")));
+    }
+
+    @Test
+    public void setVersionsProjectVersionReference() throws IOException, BuildException {
+        Path root = createReactor("setVersionsProjectVersionReference");
+        final String apiPom = API_POM.replace("  </dependencies>\n", "    <dependency>\n" //
+                + "      <groupId>org.example</groupId>\n" //
+                + "      <artifactId>parent</artifactId>\n" //
+                + "      <version>${project.version}</version>\n" //
+                + "    </dependency>\n" //
+                + "  </dependencies>\n");
+        write(root.resolve("api/pom.xml"), apiPom);
+
+        /* changing just api would make ${project.version} point to a non-existent version of parent */
+        int count = MavenReactor.read(root).setVersions(GavSet.builder().include("org.example:api").build(),
+                "1.0-SRC-revision-abcd");
+        Assert.assertEquals(3, count);
+
+        Assert.assertEquals(PARENT_POM.replace("  <version>1.0-SNAPSHOT</version>",
+                "  <version>1.0-SRC-revision-abcd</version>"), read(root.resolve("pom.xml")));
+        Assert.assertEquals(apiPom.replace("    <version>1.0-SNAPSHOT</version>\n  </parent>",
+                "    <version>1.0-SRC-revision-abcd</version>\n  </parent>"), read(root.resolve("api/pom.xml")));
+        Assert.assertTrue(read(root.resolve("impl/pom.xml")).contains("<version>1.0-SRC-revision-abcd</version>\n"
+                + "  <dependencies>"));
+    }
+
+    @Test
+    public void setVersionsPropertyGroupIdReference() throws IOException, BuildException {
+        Path root = createReactor("setVersionsPropertyGroupIdReference");
+        final String parentPom = PARENT_POM.replace("  <modules>\n", "  <properties>\n" //
+                + "    <api.groupId>org.example</api.groupId>\n" //
+                + "  </properties>\n" //
+                + "  <modules>\n");
+        write(root.resolve("pom.xml"), parentPom);
+        final String apiPom = API_POM.replace("  </dependencies>\n", "    <dependency>\n" //
+                + "      <groupId>${project.groupId}</groupId>\n" //
+                + "      <artifactId>parent</artifactId>\n" //
+                + "      <version>1.0-SNAPSHOT</version>\n" //
+                + "    </dependency>\n" //
+                + "  </dependencies>\n");
+        write(root.resolve("api/pom.xml"), apiPom);
+        final String implPom = IMPL_POM.replace("      <groupId>org.example</groupId>\n",
+                "      <groupId>${api.groupId}</groupId>\n");
+        write(root.resolve("impl/pom.xml"), implPom);
+
+        int count = MavenReactor.read(root).setVersions(GavSet.builder().include("org.example").build(),
+                "1.0-SRC-revision-abcd");
+        Assert.assertEquals(2, count);
+
+        Assert.assertEquals(parentPom.replace("  <version>1.0-SNAPSHOT</version>",
+                "  <version>1.0-SRC-revision-abcd</version>"), read(root.resolve("pom.xml")));
+        /* the junit dependency must stay untouched */
+        Assert.assertEquals(apiPom //
+                .replace("    <version>1.0-SNAPSHOT</version>\n  </parent>",
+                        "    <version>1.0-SRC-revision-abcd</version>\n  </parent>") //
+                .replace("<artifactId>parent</artifactId>\n      <version>1.0-SNAPSHOT</version>",
+                        "<artifactId>parent</artifactId>\n      <version>1.0-SRC-revision-abcd</version>"),
+                read(root.resolve("api/pom.xml")));
+        Assert.assertEquals(implPom //
+                .replace("    <version>1.0-SNAPSHOT</version>\n  </parent>",
+                        "    <version>1.0-SRC-revision-abcd</version>\n  </parent>") //
+                .replace("<version><!-- literal -->1.0-SNAPSHOT</version>", "<version>1.0-SRC-revision-abcd</version>"),
+                read(root.resolve("impl/pom.xml")));
+    }
+
+    @Test(expected = BuildException.class)
+    public void setVersionsUnresolvable() throws IOException, BuildException {
+        Path root = createReactor("setVersionsUnresolvable");
+        write(root.resolve("pom.xml"),
+                PARENT_POM.replace("<version>1.0-SNAPSHOT</version>", "<version>${revision}</version>"));
+        MavenReactor.read(root).setVersions(GavSet.includeAll(), "1.0-SRC-revision-abcd");
+    }
+
+}
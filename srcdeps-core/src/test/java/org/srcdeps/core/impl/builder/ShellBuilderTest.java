@@ -0,0 +1,339 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.builder;
+
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.srcdeps.core.BuildException;
+import org.srcdeps.core.BuildRequest;
+import org.srcdeps.core.BuildRequest.Verbosity;
+import org.srcdeps.core.RevisionAwareScm;
+import org.srcdeps.core.Scm;
+import org.srcdeps.core.SrcVersion;
+import org.srcdeps.core.config.Maven;
+import org.srcdeps.core.config.scalar.CharStreamSource;
+import org.srcdeps.core.fs.BuildSemaphore;
+import org.srcdeps.core.shell.IoRedirects;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class ShellBuilderTest {
+
+    /**
+     * A {@link ShellBuilder} appending its arguments to {@code args.txt} in the project root directory.
+     */
+    static class EchoShellBuilder extends MinimalShellBuilder {
+
+        EchoShellBuilder(Set<Scm> scms) {
+            super("sh", 1, scms);
+        }
+
+        @Override
+        protected List<String> getDefaultBuildArguments() {
+            return Arrays.asList("-c", "echo \"$*\" >> args.txt", "sh", "clean", "install");
+        }
+    }
+
+    /**
+     * A {@link ShellBuilder} implementing only the methods that were abstract before parallel builds were introduced.
+     */
+    static class MinimalShellBuilder extends ShellBuilder {
+
+        MinimalShellBuilder(int concurrentBuilds) {
+            super("minimal", concurrentBuilds);
+        }
+
+        MinimalShellBuilder(String executable, int concurrentBuilds, Set<Scm> scms) {
+            super(executable, concurrentBuilds, scms);
+        }
+
+        @Override
+        public boolean canBuild(Path projectRootDirectory) {
+            return true;
+        }
+
+        @Override
+        protected List<String> getDefaultBuildArguments() {
+            return Collections.singletonList("build");
+        }
+
+        @Override
+        protected Map<String, String> getDefaultBuildEnvironment() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        protected List<String> getSkipTestsArguments(boolean skipTests) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected List<String> getVerbosityArguments(Verbosity verbosity) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public BuildRequest setVersions(BuildRequest request) throws BuildException {
+            return request;
+        }
+    }
+
+    /**
+     * A {@link ShellBuilder} printing its arguments and failing with an offline resolution failure marker whenever
+     * {@code -o} is passed.
+     */
+    static class OfflineFailingShellBuilder extends MinimalShellBuilder {
+
+        OfflineFailingShellBuilder() {
+            super("sh", 1, Collections.<Scm>emptySet());
+        }
+
+        @Override
+        protected List<String> getDefaultBuildArguments() {
+            return Arrays.asList("-c",
+                    "echo \"build $*\"; case \" $* \" in *\" -o \"*) echo \"offline failure\"; exit 1;; esac", "sh");
+        }
+
+        @Override
+        protected List<String> getOfflineArguments() {
+            return Collections.singletonList("-o");
+        }
+
+        @Override
+        protected List<String> getOfflineFailureMarkers() {
+            return Collections.singletonList("offline failure");
+        }
+    }
+
+    /**
+     * A {@link RevisionAwareScm} claiming that the same revision is checked out all the time.
+     */
+    static class StaticRevisionScm implements RevisionAwareScm {
+
+        @Override
+        public void checkout(BuildRequest request) {
+        }
+
+        @Override
+        public String getCheckedOutRevision(Path dir) {
+            return "0a5ab902099b24c2b13ed1dad8c5f537458bcc89";
+        }
+
+        @Override
+        public boolean isAncestorRevision(Path dir, String ancestor, String revision) {
+            return ancestor.equals(revision);
+        }
+
+        @Override
+        public boolean supports(String url) {
+            return true;
+        }
+    }
+
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    private static List<String> buildIncrementally(String testName, String... buildArguments)
+            throws BuildException, IOException {
+        final Path dir = targetDirectory.resolve("shellBuilder-" + testName);
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        Files.deleteIfExists(BuildRecord.getPath(dir));
+        final BuildRequest request = BuildRequest.builder() //
+                .srcVersion(SrcVersion.parse("1.0-SRC-tag-1.0")) //
+                .dependentProjectRootDirectory(dir) //
+                .projectRootDirectory(dir) //
+                .scmUrl("git:file:///dev/null") //
+                .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                .gradleModelTransformer(CharStreamSource.defaultModelTransformer()) //
+                .buildArguments(buildArguments) //
+                .incremental(true) //
+                .build();
+        final EchoShellBuilder builder = new EchoShellBuilder(Collections.<Scm>singleton(new StaticRevisionScm()));
+        builder.build(request);
+        builder.build(request);
+        return Files.readAllLines(dir.resolve("args.txt"), StandardCharsets.UTF_8);
+    }
+
+    private static BuildRequest parallelRequest() {
+        return BuildRequest.builder() //
+                .srcVersion(SrcVersion.parse("1.0-SRC-tag-1.0")) //
+                .dependentProjectRootDirectory(targetDirectory) //
+                .projectRootDirectory(targetDirectory) //
+                .scmUrl("git:file:///dev/null") //
+                .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                .gradleModelTransformer(CharStreamSource.defaultModelTransformer()) //
+                .addDefaultBuildArguments(false) //
+                .parallel(true) //
+                .build();
+    }
+
+    @Test
+    public void incrementalOmitsDefaultClean() throws BuildException, IOException {
+        Assume.assumeFalse(SrcdepsCoreUtils.isWindows());
+        Assert.assertEquals(Arrays.asList("clean install -Dsrcdeps.forwardProperties=", //
+                "install -Dsrcdeps.forwardProperties="), buildIncrementally("incrementalOmitsDefaultClean"));
+    }
+
+    @Test
+    public void incrementalKeepsUserClean() throws BuildException, IOException {
+        Assume.assumeFalse(SrcdepsCoreUtils.isWindows());
+        Assert.assertEquals(Arrays.asList("clean install clean -Dsrcdeps.forwardProperties=", //
+                "install clean -Dsrcdeps.forwardProperties="), buildIncrementally("incrementalKeepsUserClean", "clean"));
+    }
+
+    @Test
+    public void getParallelArgumentsDefault() {
+        final List<String> args = new MinimalShellBuilder(1).mergeArguments(parallelRequest());
+        Assert.assertFalse(args.contains("-T"));
+    }
+
+    @Test
+    public void computeInputsFingerprintForwardedValues() {
+        final String key = "srcdeps.shellBuilderTest.fwd";
+        final BuildRequest request = BuildRequest.builder() //
+                .srcVersion(SrcVersion.parse("1.0-SRC-tag-1.0")) //
+                .dependentProjectRootDirectory(targetDirectory) //
+                .projectRootDirectory(targetDirectory) //
+                .scmUrl("git:file:///dev/null") //
+                .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                .gradleModelTransformer(CharStreamSource.defaultModelTransformer()) //
+                .forwardProperty(key) //
+                .forwardProperty("srcdeps.shellBuilderTest.prefix.*") //
+                .build();
+        final MinimalShellBuilder builder = new MinimalShellBuilder(1);
+        try {
+            System.setProperty(key, "a");
+            final String a = builder.computeInputsFingerprint(request);
+            Assert.assertEquals(a, builder.computeInputsFingerprint(request));
+
+            System.setProperty(key, "b");
+            final String b = builder.computeInputsFingerprint(request);
+            Assert.assertNotEquals(a, b);
+
+            System.setProperty("srcdeps.shellBuilderTest.prefix.foo", "c");
+            Assert.assertNotEquals(b, builder.computeInputsFingerprint(request));
+        } finally {
+            System.clearProperty(key);
+            System.clearProperty("srcdeps.shellBuilderTest.prefix.foo");
+        }
+    }
+
+    @Test
+    public void getOfflineArgumentsDefault() throws IOException {
+        final MinimalShellBuilder builder = new MinimalShellBuilder(1);
+        Assert.assertEquals(Collections.<String>emptyList(), builder.getOfflineArguments());
+
+        final Path log = targetDirectory.resolve("shellBuilder-getOfflineArgumentsDefault.log");
+        Files.write(log, Arrays.asList("in offline mode"), StandardCharsets.ISO_8859_1);
+        Assert.assertFalse(builder.isOfflineResolutionFailure(log));
+    }
+
+    @Test
+    public void offlineRetryKeepsBothLogs() throws BuildException, IOException {
+        Assume.assumeFalse(SrcdepsCoreUtils.isWindows());
+        final Path dir = targetDirectory.resolve("shellBuilder-offlineRetryKeepsBothLogs");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        Files.deleteIfExists(BuildRecord.getPath(dir));
+        final Path log = targetDirectory.resolve("shellBuilder-offlineRetryKeepsBothLogs.log");
+        final BuildRequest request = BuildRequest.builder() //
+                .srcVersion(SrcVersion.parse("1.0-SRC-tag-1.0")) //
+                .dependentProjectRootDirectory(dir) //
+                .projectRootDirectory(dir) //
+                .scmUrl("git:file:///dev/null") //
+                .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                .gradleModelTransformer(CharStreamSource.defaultModelTransformer()) //
+                .ioRedirects(new IoRedirects(Redirect.INHERIT, Redirect.to(log.toFile()), null)) //
+                .preferOffline(true) //
+                .build();
+        final OfflineFailingShellBuilder builder = new OfflineFailingShellBuilder();
+
+        /* no previous build, so no offline attempt */
+        builder.build(request);
+        Assert.assertEquals(Arrays.asList("build -Dsrcdeps.forwardProperties="),
+                Files.readAllLines(log, StandardCharsets.UTF_8));
+
+        builder.build(request);
+        Assert.assertEquals(Arrays.asList("build -Dsrcdeps.forwardProperties= -o", "offline failure"),
+                Files.readAllLines(ShellBuilder.getOfflineLogPath(dir), StandardCharsets.UTF_8));
+        Assert.assertEquals(Arrays.asList("build -Dsrcdeps.forwardProperties= -o", "offline failure",
+                "build -Dsrcdeps.forwardProperties="), Files.readAllLines(log, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void getParallelThreads() {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        Assert.assertEquals(cores, new MinimalShellBuilder(1).getParallelThreads());
+        Assert.assertEquals(Math.max(1, cores / 4), new MinimalShellBuilder(4).getParallelThreads());
+        Assert.assertEquals(1, new MinimalShellBuilder(cores + 1).getParallelThreads());
+
+        /* the threads do not depend on the number of builds running at the moment */
+        final MvnBuilder builder = new MvnBuilder(
+                new BuildSemaphore(targetDirectory.resolve("shellBuilder-getParallelThreads"), 4),
+                Collections.<Scm>emptySet());
+        final List<String> args = builder.mergeArguments(parallelRequest());
+        final int t = args.indexOf("-T");
+        Assert.assertEquals(Arrays.asList("-T", String.valueOf(Math.max(1, cores / 4))), args.subList(t, t + 2));
+    }
+
+    @Test
+    public void isOfflineResolutionFailure() throws IOException {
+        final Path dir = targetDirectory.resolve("shellBuilder-isOfflineResolutionFailure");
+        Files.createDirectories(dir);
+        final MvnBuilder mvn = new MvnBuilder();
+        final GradleBuilder gradle = new GradleBuilder();
+
+        final Path missing = dir.resolve("missing.log");
+        Files.deleteIfExists(missing);
+        Assert.assertFalse(mvn.isOfflineResolutionFailure(missing));
+
+        final Path compilation = dir.resolve("compilation.log");
+        Files.write(compilation, Arrays.asList("[INFO] Building foo 1.0", //
+                "[ERROR] COMPILATION ERROR :", //
+                "[ERROR] /foo/Bar.java:[3,1] class, interface, or enum expected"), StandardCharsets.ISO_8859_1);
+        Assert.assertFalse(mvn.isOfflineResolutionFailure(compilation));
+        Assert.assertFalse(gradle.isOfflineResolutionFailure(compilation));
+
+        final Path mvnOffline = dir.resolve("mvn-offline.log");
+        Files.write(mvnOffline, Arrays.asList("[ERROR] Failed to execute goal on project foo: "
+                + "Could not resolve dependencies for project org.foo:foo:jar:1.0: "
+                + "Cannot access central (https://repo.maven.apache.org/maven2) in offline mode and the artifact "
+                + "org.bar:bar:jar:1.0 has not been downloaded from it before."), StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(mvn.isOfflineResolutionFailure(mvnOffline));
+
+        final Path gradleOffline = dir.resolve("gradle-offline.log");
+        Files.write(gradleOffline, Arrays.asList("> Could not resolve org.bar:bar:1.0.", //
+                "   > No cached version of org.bar:bar:1.0 available for offline mode."),
+                StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(gradle.isOfflineResolutionFailure(gradleOffline));
+    }
+
+}
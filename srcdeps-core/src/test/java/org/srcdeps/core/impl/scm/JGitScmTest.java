@@ -28,6 +28,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.srcdeps.core.BuildRequest;
 import org.srcdeps.core.ScmException;
+import org.srcdeps.core.ScmTransferStatistics;
 import org.srcdeps.core.SrcVersion;
 import org.srcdeps.core.config.Maven;
 import org.srcdeps.core.config.scalar.CharStreamSource;
@@ -51,6 +52,36 @@ public class JGitScmTest {
 
     }
 
+    @Test
+    public void headAndAncestor() throws IOException, GitAPIException {
+        Path dir = targetDir.resolve("test-repo-ancestor");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        Assert.assertNull(JGitScm.getHeadCommitId(dir));
+
+        try (Git git = Git.init().setDirectory(dir.toFile()).call()) {
+            final String first = git.commit().setMessage("first").call().getName();
+            Assert.assertEquals(first, JGitScm.getHeadCommitId(dir));
+            final String second = git.commit().setMessage("second").call().getName();
+            Assert.assertEquals(second, JGitScm.getHeadCommitId(dir));
+
+            Assert.assertTrue(JGitScm.isAncestor(dir, first, second));
+            Assert.assertTrue(JGitScm.isAncestor(dir, second, second));
+            Assert.assertFalse(JGitScm.isAncestor(dir, second, first));
+            Assert.assertFalse(JGitScm.isAncestor(dir, "0a5ab902099b24c2b13ed1dad8c5f537458bcc89", second));
+        }
+    }
+
+    private static BuildRequest request(Path dir, String srcVersion, Path origin) {
+        return BuildRequest.builder() //
+                .srcVersion(SrcVersion.parse(srcVersion)) //
+                .dependentProjectRootDirectory(dir) //
+                .projectRootDirectory(dir) //
+                .scmUrl("git:" + origin.toUri().toString()) //
+                .versionsMavenPluginVersion(Maven.getDefaultVersionsMavenPluginVersion()) //
+                .gradleModelTransformer(CharStreamSource.defaultModelTransformer()) //
+                .build();
+    }
+
     @Test
     public void testCheckout() throws IOException, ScmException, NoHeadException, GitAPIException {
         Path dir = targetDir.resolve("test-repo");
@@ -89,4 +120,43 @@ public class JGitScmTest {
         assertCommit(dir, "0a5ab902099b24c2b13ed1dad8c5f537458bcc89");
 
     }
+
+    @Test
+    public void transferStatistics() throws IOException, ScmException, GitAPIException {
+        final Path origin = targetDir.resolve("test-repo-statistics-origin");
+        final Path dir = targetDir.resolve("test-repo-statistics");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(origin);
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(dir);
+        final JGitScm jGitScm = new JGitScm();
+
+        try (Git git = Git.init().setDirectory(origin.toFile()).call()) {
+            git.commit().setMessage("first").call();
+            git.tag().setName("1.0").call();
+
+            final ScmTransferStatistics cloned = jGitScm
+                    .checkoutWithStatistics(request(dir, "1.0-SRC-tag-1.0", origin));
+            Assert.assertEquals(ScmTransferStatistics.Mode.clone, cloned.getMode());
+            Assert.assertTrue(cloned.getObjectsReceived() > 0);
+            Assert.assertTrue(cloned.getPackBytes() > 0);
+            Assert.assertTrue(cloned.getTotalNanos() >= cloned.getNegotiationNanos() + cloned.getTransferNanos());
+
+            final String second = git.commit().setMessage("second").call().getName();
+            git.tag().setName("2.0").call();
+
+            final ScmTransferStatistics fetched = jGitScm
+                    .checkoutWithStatistics(request(dir, "2.0-SRC-tag-2.0", origin));
+            Assert.assertEquals(ScmTransferStatistics.Mode.fetch, fetched.getMode());
+            Assert.assertTrue(fetched.getObjectsReceived() > 0);
+            Assert.assertTrue(fetched.getObjectsReceived() < cloned.getObjectsReceived() + 2);
+            Assert.assertTrue(fetched.getPackBytes() > 0);
+            assertCommit(dir, second);
+
+            /* nothing new to fetch */
+            final ScmTransferStatistics upToDate = jGitScm
+                    .checkoutWithStatistics(request(dir, "2.0-SRC-tag-2.0", origin));
+            Assert.assertEquals(0, upToDate.getObjectsReceived());
+            Assert.assertEquals(0, upToDate.getPackBytes());
+            Assert.assertEquals(0, upToDate.getTransferNanos());
+        }
+    }
 }
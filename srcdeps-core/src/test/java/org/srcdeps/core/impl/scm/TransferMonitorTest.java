@@ -0,0 +1,73 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.impl.scm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.junit.Assert;
+import org.junit.Test;
+import org.srcdeps.core.ScmTransferStatistics;
+import org.srcdeps.core.ScmTransferStatistics.Mode;
+import org.srcdeps.core.util.SrcdepsCoreUtils;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class TransferMonitorTest {
+
+    private static final Path targetDir = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    /**
+     * Makes sure that {@link TransferMonitor#RECEIVING_OBJECTS_TASK} is the title JGit actually reports when receiving
+     * a pack.
+     *
+     * @throws IOException
+     * @throws GitAPIException
+     */
+    @Test
+    public void receivingObjects() throws IOException, GitAPIException {
+        final Path root = targetDir.resolve(TransferMonitorTest.class.getSimpleName()).resolve("receivingObjects");
+        final Path origin = root.resolve("origin");
+        final Path clone = root.resolve("clone");
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(origin);
+        SrcdepsCoreUtils.ensureDirectoryExistsAndEmpty(clone);
+
+        try (Git git = Git.init().setDirectory(origin.toFile()).call()) {
+            Files.write(origin.resolve("README.adoc"), "= Origin".getBytes("utf-8"));
+            git.add().addFilepattern("README.adoc").call();
+            git.commit().setMessage("Initial commit").call();
+        }
+
+        final String url = origin.toUri().toString();
+        final TransferMonitor monitor = new TransferMonitor(clone.resolve(Constants.DOT_GIT));
+        Git.cloneRepository().setURI(url).setDirectory(clone.toFile()).setProgressMonitor(monitor).call().close();
+        final ScmTransferStatistics statistics = monitor.toStatistics(url, Mode.clone);
+
+        /* commit, tree and blob */
+        Assert.assertEquals(3, statistics.getObjectsReceived());
+        Assert.assertTrue(statistics.getTransferNanos() > 0);
+        Assert.assertTrue(statistics.getPackBytes() > 0);
+    }
+
+}
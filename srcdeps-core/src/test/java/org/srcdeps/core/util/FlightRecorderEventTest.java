@@ -0,0 +1,82 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class FlightRecorderEventTest {
+    private static final Path targetDirectory = Paths.get(System.getProperty("project.build.directory", "target"))
+            .toAbsolutePath();
+
+    @Test
+    public void noRecording() {
+        final FlightRecorderEvent event = FlightRecorderEvent.CHECKOUT.begin();
+        Assert.assertFalse(event.isRecording());
+        /* a no-op event accepts anything */
+        event.set("foo", "bar").commit();
+    }
+
+    @Test
+    public void recording() throws Exception {
+        Assume.assumeTrue(FlightRecorderEvent.isAvailable());
+        /* the jdk.jfr API is not available on Java 7, hence the reflection */
+        final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        final Object recording = recordingClass.getConstructor().newInstance();
+        try {
+            recordingClass.getMethod("start").invoke(recording);
+            final FlightRecorderEvent event = FlightRecorderEvent.SHELL_EXECUTE.begin();
+            Assert.assertTrue(event.isRecording());
+            try {
+                event.set("foo", "bar");
+                Assert.fail("IllegalArgumentException expected");
+            } catch (IllegalArgumentException expected) {
+            }
+            event.set("executable", "mvn").set("workingDirectory", "/tmp").set("exitCode", 42).commit();
+            recordingClass.getMethod("stop").invoke(recording);
+
+            final Path file = targetDirectory.resolve(FlightRecorderEventTest.class.getSimpleName() + ".jfr");
+            Files.deleteIfExists(file);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+            final List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                    .getMethod("readAllEvents", Path.class).invoke(null, file);
+            Object found = null;
+            for (Object e : events) {
+                final Object eventType = e.getClass().getMethod("getEventType").invoke(e);
+                if (FlightRecorderEvent.SHELL_EXECUTE.getName()
+                        .equals(eventType.getClass().getMethod("getName").invoke(eventType))) {
+                    found = e;
+                }
+            }
+            Assert.assertNotNull(found);
+            Assert.assertEquals(42, found.getClass().getMethod("getValue", String.class).invoke(found, "exitCode"));
+            Assert.assertEquals("mvn", found.getClass().getMethod("getValue", String.class).invoke(found, "executable"));
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2015-2017 Maven Source Dependencies
+ * Plugin contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.srcdeps.core.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class HistogramTest {
+
+    @Test
+    public void bucketIndex() {
+        Assert.assertEquals(0, Histogram.bucketIndex(0));
+        Assert.assertEquals(1, Histogram.bucketIndex(1));
+        Assert.assertEquals(2, Histogram.bucketIndex(2));
+        Assert.assertEquals(2, Histogram.bucketIndex(3));
+        Assert.assertEquals(3, Histogram.bucketIndex(4));
+        Assert.assertEquals(10, Histogram.bucketIndex(1023));
+        Assert.assertEquals(11, Histogram.bucketIndex(1024));
+        Assert.assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(Long.MAX_VALUE));
+
+        for (int i = 0; i < Histogram.BUCKET_COUNT; i++) {
+            Assert.assertEquals(i, Histogram.bucketIndex(Histogram.getBucketUpperBound(i)));
+        }
+    }
+
+    @Test
+    public void empty() {
+        final Histogram histogram = new Histogram();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getMean(), 0);
+        Assert.assertEquals(0, histogram.getPercentile(50));
+        Assert.assertEquals(0, histogram.getSum());
+    }
+
+    @Test
+    public void record() {
+        final Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        Assert.assertEquals(101, histogram.getCount());
+        Assert.assertEquals(100, histogram.getMax());
+        Assert.assertEquals(5050, histogram.getSum());
+        Assert.assertEquals(50.0d, histogram.getMean(), 0);
+        Assert.assertEquals(1, histogram.getBucketCount(0));
+        Assert.assertEquals(32, histogram.getBucketCount(6));
+
+        /* the 51st value is 50 which is in the bucket [32, 63] */
+        Assert.assertEquals(63, histogram.getPercentile(50));
+        /* the upper bound of the last bucket is capped by max */
+        Assert.assertEquals(100, histogram.getPercentile(99));
+        Assert.assertEquals(100, histogram.getPercentile(100));
+    }
+
+}